@@ -13,7 +13,9 @@ public class Environment {
     public Environment(Environment next, String name, Value val)
 	{
 		this.next = next;
-		id = name;
+		// names bound at run time, by Frame.bind, come here too, so make
+		// sure the name is a symbol before findID compares it with ==
+		id = Symbols.intern(name);
 		value = val;
 	}
 
@@ -33,19 +35,34 @@ public class Environment {
     @Testable
     public Environment findID(String name)
 	{
-		// check this value and then call down the chain
-        if (id!=null && id.compareTo(name) == 0)
+		Environment found = search(name);
+		if (found == null && name != null)
 		{
-			return this;
-		}
-		else if (next != null)
-		{
-			return next.findID(name);
+			// a name made at run time, not yet the symbol the bindings hold;
+			// only a miss pays for the intern
+			String symbol = Symbols.intern(name);
+			if (symbol != name)
+			{
+				found = search(symbol);
+			}
 		}
-		else
+		return found;
+	}
+
+    private Environment search(String name)
+	{
+		// check this value and then down the chain; names are symbols, the
+		// same name is the same String
+		Environment environment = this;
+		while (environment != null)
 		{
-			return null;
+			if (environment.id == name && name != null)
+			{
+				return environment;
+			}
+			environment = environment.next;
 		}
+		return null;
 	}
     
     @Testable
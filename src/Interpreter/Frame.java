@@ -0,0 +1,255 @@
+package Interpreter;
+
+import expression.Expression;
+import test.Testable;
+import value.ClosureValue;
+import value.Function;
+import value.IdValue;
+import value.Value;
+
+/**
+ * Activation record for one call, the program, or a loop body that creates
+ * closures. Holds every binding the static pass resolved in a slot array
+ * sized by the pass, and a link to the frame it was declared in.  Anything
+ * the pass couldn't place (like "this") is bound by name on the dynamic
+ * environment instead.
+ */
+public class Frame {
+	private Value[] slots;
+	private Frame parent;
+	private Environment dynamic;
+	// set by a return, everything between it and the call unwinds on seeing it
+	private Value returned;
+	// a call left for the trampoline in Function.evaluate to make once this
+	// frame has unwound
+	private Function tailFunction;
+	private Frame tailFrame;
+
+    @Testable
+    public Frame(int size, Frame parent)
+	{
+		this(size, parent, null);
+	}
+
+    @Testable
+    public Frame(int size, Frame parent, Environment dynamic)
+	{
+		slots = new Value[size];
+		this.parent = parent;
+		this.dynamic = dynamic;
+	}
+
+    public Frame getParent()
+	{
+		return parent;
+	}
+
+    public int size()
+	{
+		return slots.length;
+	}
+
+    public Value[] getSlots()
+	{
+		// the VM uses the array itself as its registers
+		return slots;
+	}
+
+    public Environment getDynamic()
+	{
+		return dynamic;
+	}
+
+    public void setDynamic(Environment dynamic)
+	{
+		this.dynamic = dynamic;
+	}
+
+    public boolean isReturning()
+	{
+		return returned != null;
+	}
+
+    public Value getReturned()
+	{
+		return returned;
+	}
+
+    public void setReturned(Value val)
+	{
+		returned = val;
+	}
+
+    public void setTailCall(Function function, Frame activation)
+	{
+		tailFunction = function;
+		tailFrame = activation;
+	}
+
+    public Function getTailFunction()
+	{
+		return tailFunction;
+	}
+
+    public Frame getTailFrame()
+	{
+		return tailFrame;
+	}
+
+    public void returnFrom(Frame inner)
+	{
+		// pass a return (and any tail call with it) out of a nested frame
+		returned = inner.returned;
+		tailFunction = inner.tailFunction;
+		tailFrame = inner.tailFrame;
+	}
+
+    @Testable
+    public void bind(String name, Value val)
+	{
+		dynamic = new Environment(dynamic, name, val);
+	}
+
+    @Testable
+    public Frame getFrame(int depth)
+	{
+		// walk out to the frame the static pass found the name in
+		Frame frame = this;
+		for (int i = 0; i < depth && frame != null; i++)
+		{
+			frame = frame.parent;
+		}
+		return frame;
+	}
+
+    @Testable
+    public Value get(int slot)
+	{
+		return slots[slot];
+	}
+
+    @Testable
+    public void set(int slot, Value val)
+	{
+		slots[slot] = val;
+	}
+
+    @Testable
+    public Value lookup(int depth, int slot)
+	{
+		Frame frame = getFrame(depth);
+		if (frame == null || slot < 0 || slot >= frame.slots.length)
+		{
+			return null;
+		}
+		return frame.slots[slot];
+	}
+
+    @Testable
+    public boolean store(int depth, int slot, Value val)
+	{
+		Frame frame = getFrame(depth);
+		if (frame == null || slot < 0 || slot >= frame.slots.length)
+		{
+			return false;
+		}
+		frame.slots[slot] = val;
+		return true;
+	}
+
+    @Testable
+    public Value find(IdValue id)
+	{
+		// ids the static pass resolved go straight to their slot
+		if (id.getFrameCnt() >= 0)
+		{
+			Value val = lookup(id.getFrameCnt(), id.getFrameNum());
+			if (val != null)
+			{
+				return val;
+			}
+		}
+		// unresolved, or not bound yet, fall back to the name search
+		Environment environ = Environment.findIDInList(id.getInternalValue(), dynamic);
+		return (environ != null) ? environ.value : null;
+	}
+
+    @Testable
+    public Value resolve(IdValue id) throws UnboundIdentifierException
+	{
+		Value val = find(id);
+		if (val == null)
+		{
+			throw new UnboundIdentifierException();
+		}
+		if (val instanceof Function)
+		{
+			// a named function leaving its scope keeps the frame it was declared in
+			ClosureValue closure = new ClosureValue((Function)val);
+			closure.setEnvironment(dynamic);
+			closure.setFrame(definingFrame(id));
+			return closure;
+		}
+		return val;
+	}
+
+    @Testable
+    public boolean assign(IdValue id, Value val)
+	{
+		if (id.getFrameCnt() >= 0 && lookup(id.getFrameCnt(), id.getFrameNum()) != null)
+		{
+			return store(id.getFrameCnt(), id.getFrameNum(), val);
+		}
+		Environment environ = Environment.findIDInList(id.getInternalValue(), dynamic);
+		if (environ == null)
+		{
+			return false;
+		}
+		environ.value = val;
+		return true;
+	}
+
+    @Testable
+    public Frame definingFrame(IdValue id)
+	{
+		// the frame holding the binding, which is where a function's body
+		// has to be hung when it is called through that binding
+		if (id.getFrameCnt() >= 0 && lookup(id.getFrameCnt(), id.getFrameNum()) != null)
+		{
+			return getFrame(id.getFrameCnt());
+		}
+		return this;
+	}
+
+    @Testable
+    public static Environment adapt(Expression exp, Environment environment)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		// run exp the new way over a list built for the old getValue, and hand
+		// back the result on top of whatever bindings it made
+		Frame frame = new Frame(0, null, environment);
+		Value val = exp.evaluate(frame);
+		if (frame.tailFunction != null)
+		{
+			// nobody above us to bounce it, so make the call here
+			frame.returned = frame.tailFunction.evaluate(frame.tailFrame);
+		}
+		if (frame.returned != null)
+		{
+			// the old way signalled a return by throwing
+			throw new ReturnException(frame.returned);
+		}
+		return new Environment(frame.dynamic, null, val);
+	}
+
+    public String toString()
+    {
+        String s = "(Frame size: " + slots.length;
+        if(parent != null)
+        {
+            s += " parent: " + parent;
+        }
+        s += ")";
+        return s;
+    }
+}
@@ -0,0 +1,188 @@
+package Interpreter;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Where read-line gets its lines from. A run reads all its lines from one
+ * Input, so whatever one read-line buffers ahead is there for the next.
+ * Lines are found by scanning the bytes for the end of the line and decoded
+ * in one go. When standard input is a regular file it's mapped rather than
+ * read, and the lines are scanned straight out of the mapping.
+ */
+public class Input {
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	// the Input read-line uses, and the stream it was made from if it was
+	// made here for System.in
+	// one set for just this thread, by a run that brought its own
+	private static final ThreadLocal<Input> local = new ThreadLocal<Input>();
+	private static Input current;
+	private static InputStream currentIn;
+
+	private InputStream in;
+	private ByteBuffer buffer;
+	private Charset charset;
+	// a line ended in \r, so a \n straight after it belongs to that line
+	private boolean skipLineFeed;
+
+    private Input(InputStream in, ByteBuffer buffer)
+	{
+		this.in = in;
+		this.buffer = buffer;
+		charset = Charset.defaultCharset();
+		skipLineFeed = false;
+	}
+
+    public static Input forStream(InputStream in)
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.limit(0);
+		return new Input(in, buffer);
+	}
+
+    public static Input forStandardIn()
+	{
+		// standard input mapped when it's a file, otherwise through System.in
+		Input mapped = forChannel(new FileInputStream(FileDescriptor.in).getChannel());
+		return (mapped != null) ? mapped : forStream(System.in);
+	}
+
+    public static Input forChannel(FileChannel channel)
+	{
+		// the rest of the file channel reads, mapped, or null if it can't be
+		try
+		{
+			long position = channel.position();
+			long remaining = channel.size() - position;
+			if (remaining > 0 && remaining <= Integer.MAX_VALUE)
+			{
+				return new Input(null, channel.map(FileChannel.MapMode.READ_ONLY, position, remaining));
+			}
+		}
+		catch (IOException e)
+		{
+			// a pipe or a terminal can't be mapped
+		}
+		return null;
+	}
+
+    public static Input getStandard()
+	{
+		Input input = local.get();
+		return (input != null) ? input : shared();
+	}
+
+    private static synchronized Input shared()
+	{
+		if (current == null || (currentIn != null && currentIn != System.in))
+		{
+			current = forStream(System.in);
+			currentIn = System.in;
+		}
+		return current;
+	}
+
+    public static Input use(Input input)
+	{
+		// input is what this thread's read-line goes through until it's put back,
+		// by passing use whatever it returns
+		Input previous = local.get();
+		local.set(input);
+		return previous;
+	}
+
+    public static synchronized void setStandard(Input input)
+	{
+		current = input;
+		currentIn = null;
+	}
+
+    public String readLine() throws IOException
+	{
+		// the next line without its end, or null when there are no more
+		if (skipLineFeed)
+		{
+			skipLineFeed = false;
+			if ((buffer.hasRemaining() || fill()) && buffer.get(buffer.position()) == '\n')
+			{
+				buffer.position(buffer.position() + 1);
+			}
+		}
+		byte[] partial = null;
+		int partialLength = 0;
+		while (true)
+		{
+			int start = buffer.position();
+			int limit = buffer.limit();
+			for (int i = start; i < limit; i++)
+			{
+				byte b = buffer.get(i);
+				if (b == '\n' || b == '\r')
+				{
+					buffer.position(i + 1);
+					skipLineFeed = (b == '\r');
+					return decode(partial, partialLength, start, i);
+				}
+			}
+
+			// the line goes on past what's buffered
+			int length = limit - start;
+			if (partial == null || partialLength + length > partial.length)
+			{
+				byte[] grown = new byte[Math.max(partialLength + length, partialLength * 2 + 80)];
+				if (partial != null)
+				{
+					System.arraycopy(partial, 0, grown, 0, partialLength);
+				}
+				partial = grown;
+			}
+			buffer.get(partial, partialLength, length);
+			partialLength += length;
+			if (!fill())
+			{
+				return (partialLength == 0) ? null : new String(partial, 0, partialLength, charset);
+			}
+		}
+	}
+
+    private String decode(byte[] partial, int partialLength, int start, int end)
+	{
+		if (partial == null && buffer.hasArray())
+		{
+			return new String(buffer.array(), buffer.arrayOffset() + start, end - start, charset);
+		}
+		byte[] bytes = new byte[partialLength + end - start];
+		if (partial != null)
+		{
+			System.arraycopy(partial, 0, bytes, 0, partialLength);
+		}
+		ByteBuffer line = buffer.duplicate();
+		line.limit(end);
+		line.position(start);
+		line.get(bytes, partialLength, end - start);
+		return new String(bytes, charset);
+	}
+
+    private boolean fill() throws IOException
+	{
+		// read more into the buffer, false at the end of the input
+		if (in == null)
+		{
+			return false;
+		}
+		buffer.compact();
+		int read = in.read(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+		if (read > 0)
+		{
+			buffer.position(buffer.position() + read);
+		}
+		buffer.flip();
+		return read > 0;
+	}
+}
@@ -0,0 +1,210 @@
+package Interpreter;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Where print puts what it prints. A run prints everything through one
+ * Output, which gathers it in a large buffer and hands it on in big pieces:
+ * when the buffer fills, when a line ends and the last hand-off was long
+ * enough ago, before read-line waits for input, and when the run finishes.
+ * That last one is up to whatever runs the program (CompiledScript.execute
+ * does it in a finally), nothing flushes on the way out of the JVM. Ints are
+ * written straight into the buffer digit by digit.
+ */
+public class Output {
+	private static final int BUFFER_SIZE = 1 << 16;
+	// at most this long between a line being printed and it going out
+	private static final long FLUSH_NANOS = 100L * 1000 * 1000;
+	private static final char[] TRUE = "true".toCharArray();
+	private static final char[] FALSE = "false".toCharArray();
+	private static final char[] MIN_INT = Integer.toString(Integer.MIN_VALUE).toCharArray();
+
+	// the Output print uses, and the stream it was made from if it was
+	// made here for System.out
+	// one set for just this thread, by a run that brought its own
+	private static final ThreadLocal<Output> local = new ThreadLocal<Output>();
+	private static volatile Output current;
+	private static volatile PrintStream currentOut;
+
+	private Appendable target;
+	private char[] buffer;
+	private int length;
+	private String lineSeparator;
+	private long lastFlush;
+
+    private Output(Appendable target)
+	{
+		this.target = target;
+		buffer = new char[BUFFER_SIZE];
+		length = 0;
+		lineSeparator = System.getProperty("line.separator");
+		lastFlush = System.nanoTime();
+	}
+
+    public static Output forTarget(Appendable target)
+	{
+		// a PrintStream, a Writer, a StringBuilder...
+		return new Output(target);
+	}
+
+    public static Output getStandard()
+	{
+		Output output = local.get();
+		if (output != null)
+		{
+			return output;
+		}
+		output = current;
+		if (output == null || (currentOut != null && currentOut != System.out))
+		{
+			return standardOut();
+		}
+		return output;
+	}
+
+    private static synchronized Output standardOut()
+	{
+		// System.out has been swapped, what was printed for the old one
+		// goes to the old one
+		if (current != null)
+		{
+			current.flush();
+		}
+		current = new Output(System.out);
+		currentOut = System.out;
+		return current;
+	}
+
+    public static Output use(Output output)
+	{
+		// output is what this thread's print goes through until it's put back,
+		// by passing use whatever it returns
+		Output previous = local.get();
+		local.set(output);
+		return previous;
+	}
+
+    public static synchronized void setStandard(Output output)
+	{
+		if (current != null)
+		{
+			current.flush();
+		}
+		current = output;
+		currentOut = null;
+	}
+
+    public void print(int value)
+	{
+		if (value == Integer.MIN_VALUE)
+		{
+			print(MIN_INT);
+			return;
+		}
+		room(11);
+		if (value < 0)
+		{
+			buffer[length++] = '-';
+			value = -value;
+		}
+		// the digits go in backwards, then get turned round
+		int start = length;
+		do
+		{
+			buffer[length++] = (char)('0' + value % 10);
+			value /= 10;
+		}
+		while (value != 0);
+		for (int i = start, j = length - 1; i < j; i++, j--)
+		{
+			char digit = buffer[i];
+			buffer[i] = buffer[j];
+			buffer[j] = digit;
+		}
+	}
+
+    public void print(float value)
+	{
+		print(Float.toString(value));
+	}
+
+    public void print(boolean value)
+	{
+		print(value ? TRUE : FALSE);
+	}
+
+    public void print(CharSequence text)
+	{
+		print(text, 0, text.length());
+	}
+
+    public void print(CharSequence text, int start, int end)
+	{
+		while (start < end)
+		{
+			room(1);
+			int count = Math.min(end - start, buffer.length - length);
+			if (text instanceof String)
+			{
+				((String)text).getChars(start, start + count, buffer, length);
+			}
+			else
+			{
+				for (int i = 0; i < count; i++)
+				{
+					buffer[length + i] = text.charAt(start + i);
+				}
+			}
+			length += count;
+			start += count;
+		}
+	}
+
+    private void print(char[] chars)
+	{
+		room(chars.length);
+		System.arraycopy(chars, 0, buffer, length, chars.length);
+		length += chars.length;
+	}
+
+    public void println()
+	{
+		print(lineSeparator);
+		if (System.nanoTime() - lastFlush > FLUSH_NANOS)
+		{
+			flush();
+		}
+	}
+
+    public void flush()
+	{
+		try
+		{
+			if (length > 0)
+			{
+				target.append(new String(buffer, 0, length));
+			}
+			if (target instanceof Flushable)
+			{
+				((Flushable)target).flush();
+			}
+		}
+		catch (IOException e)
+		{
+			// nowhere left to say so, as with System.out
+		}
+		length = 0;
+		lastFlush = System.nanoTime();
+	}
+
+    private void room(int count)
+	{
+		// hand the buffer on if count more chars won't fit
+		if (length + count > buffer.length)
+		{
+			flush();
+		}
+	}
+}
@@ -15,4 +15,11 @@ public class ReturnException extends Exception {
 	{
 		return retVal;
 	}
+
+    public Throwable fillInStackTrace()
+	{
+		// only ever carries a value out to getValue's caller, so skip the
+		// stack walk
+		return this;
+	}
 }
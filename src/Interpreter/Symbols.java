@@ -0,0 +1,18 @@
+package Interpreter;
+
+/**
+ * The table of identifier names. Every name the tree holds (an IdValue, a
+ * declaration, a parameter) goes through intern when its node is made, so
+ * two names are the same name exactly when they're the same String, and the
+ * dynamic lookups in Environment compare them with ==. Names are interned
+ * with String.intern underneath, so they also match the names written into
+ * the interpreter itself, like "this". The JVM's own string pool holds
+ * them, so the table needs no map of its own and never outgrows the names
+ * the program uses.
+ */
+public class Symbols {
+    public static String intern(String name)
+	{
+		return (name == null) ? null : name.intern();
+	}
+}
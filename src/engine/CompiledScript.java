@@ -0,0 +1,136 @@
+package engine;
+
+import Interpreter.Frame;
+import Interpreter.Input;
+import Interpreter.Output;
+import Interpreter.ReturnException;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
+import expression.CallSiteCache;
+import expression.Expression;
+import expression.OpFunctionCall;
+import expression.OpNew;
+import jvm.Backend;
+import staticpass.StaticPass;
+import value.Value;
+import vm.Chunk;
+import vm.Compiler;
+import vm.VM;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A script FootleEngine has parsed and put through the static pass, along
+ * with whatever its backend made of it: the program's chunk for the VM,
+ * the classes the JVM backend loads. None of that changes once it's made.
+ * Every run gets frames of its own, reads and prints through whatever it's
+ * given, and leaves nothing behind for the next: the call sites forget the
+ * callees they saw when it's over.
+ *
+ * The tree's caches are shared by every run, so runs of one script take
+ * turns; different scripts run side by side.
+ */
+public class CompiledScript {
+	private final Expression program;
+	private final int backend;
+	private final Chunk chunk;
+	private final VM vm;
+	private final Backend jvm;
+	private final List<CallSiteCache> caches;
+
+    CompiledScript(Expression program, int backend)
+	{
+		this.program = program;
+		this.backend = backend;
+		chunk = (backend == FootleEngine.VM) ? Compiler.compile(program) : null;
+		vm = (backend == FootleEngine.VM) ? new VM() : null;
+		jvm = (backend == FootleEngine.JVM) ? new Backend() : null;
+		caches = new ArrayList<CallSiteCache>();
+		collect(program);
+	}
+
+    private void collect(Expression exp)
+	{
+		if (exp == null)
+		{
+			return;
+		}
+		if (exp instanceof OpFunctionCall)
+		{
+			caches.add(((OpFunctionCall) exp).getCache());
+		}
+		else if (exp instanceof OpNew)
+		{
+			caches.add(((OpNew) exp).getCache());
+		}
+		for (Expression child : StaticPass.children(exp))
+		{
+			collect(child);
+		}
+	}
+
+    public Expression getProgram()
+	{
+		return program;
+	}
+
+    public int getBackend()
+	{
+		return backend;
+	}
+
+    public Value execute()
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		return execute(Input.getStandard(), Output.getStandard());
+	}
+
+    public synchronized Value execute(Input input, Output output)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		// read-line and print on this thread go through input and output
+		// for as long as the run lasts
+		Input oldInput = Input.use(input);
+		Output oldOutput = Output.use(output);
+		try
+		{
+			return run();
+		}
+		finally
+		{
+			output.flush();
+			Input.use(oldInput);
+			Output.use(oldOutput);
+			for (CallSiteCache cache : caches)
+			{
+				cache.clear();
+			}
+		}
+	}
+
+    private Value run()
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		if (backend == FootleEngine.VM)
+		{
+			return vm.run(chunk);
+		}
+		if (backend == FootleEngine.JVM)
+		{
+			return jvm.run(program);
+		}
+		Frame frame = new Frame(0, null);
+		Value val = program.evaluate(frame);
+		if (frame.getTailFunction() != null)
+		{
+			// a return of a call at the top, with nobody above to bounce it
+			return frame.getTailFunction().evaluate(frame.getTailFrame());
+		}
+		if (frame.isReturning())
+		{
+			return frame.getReturned();
+		}
+		return val;
+	}
+}
@@ -0,0 +1,109 @@
+package engine;
+
+import expression.Expression;
+import parser.Footle;
+import parser.ParseException;
+import staticpass.StaticPass;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+/**
+ * The way into Footle for a program that embeds it. compile parses a
+ * script and puts it through the static pass once, and the CompiledScript
+ * it gives back can be run as often as wanted, each run starting from
+ * nothing, so none of that is paid for again. An engine given a
+ * ScriptCache looks there first for the tree of a file or string it's
+ * asked to compile, and saves the trees it has to make; a Reader is always
+ * parsed, as there's no knowing what's in it before that.
+ */
+public class FootleEngine {
+	public static final int TREE = 0;
+	public static final int VM = 1;
+	public static final int JVM = 2;
+
+	private int backend;
+	private ScriptCache cache;
+
+    public FootleEngine()
+	{
+		this(TREE);
+	}
+
+    public FootleEngine(int backend)
+	{
+		this(backend, null);
+	}
+
+    public FootleEngine(int backend, ScriptCache cache)
+	{
+		// which engine the scripts compiled here run on
+		if (backend < TREE || backend > JVM)
+		{
+			throw new IllegalArgumentException("no backend " + backend);
+		}
+		this.backend = backend;
+		this.cache = cache;
+	}
+
+    public int getBackend()
+	{
+		return backend;
+	}
+
+    public ScriptCache getCache()
+	{
+		return cache;
+	}
+
+    public CompiledScript compile(String source) throws ParseException
+	{
+		if (cache == null)
+		{
+			return compile(new StringReader(source));
+		}
+		Expression program = cache.load(source);
+		if (program == null)
+		{
+			program = new StaticPass(read(new StringReader(source))).runStaticPass();
+			cache.store(source, program);
+		}
+		return new CompiledScript(program, backend);
+	}
+
+    public CompiledScript compile(File file) throws ParseException, IOException
+	{
+		if (cache == null)
+		{
+			BufferedReader source = new BufferedReader(new FileReader(file));
+			try
+			{
+				return compile(source);
+			}
+			finally
+			{
+				source.close();
+			}
+		}
+		return compile(new String(Files.readAllBytes(file.toPath()), Charset.defaultCharset()));
+	}
+
+    public CompiledScript compile(Reader source) throws ParseException
+	{
+		Expression program = new StaticPass(read(source)).runStaticPass();
+		return new CompiledScript(program, backend);
+	}
+
+    public static Expression read(Reader source) throws ParseException
+	{
+		// the tree as parsed, before the static pass. Each source gets a
+		// parser of its own, so any number can be read at once
+		return new Footle(source).Input();
+	}
+}
@@ -0,0 +1,135 @@
+package engine;
+
+import parser.ParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compiles a batch of source files on a pool of threads, one file to a
+ * thread at a time, with every file parsed and put through the static pass
+ * by an engine's compile, or read back from its cache. Nothing the parser
+ * or the static pass uses is shared between files, so a directory of
+ * scripts is done about as many times faster as there are cores to do it.
+ */
+public class ParseDriver {
+	private FootleEngine engine;
+	private int threads;
+
+    public ParseDriver(FootleEngine engine)
+	{
+		this(engine, Runtime.getRuntime().availableProcessors());
+	}
+
+    public ParseDriver(FootleEngine engine, int threads)
+	{
+		if (threads < 1)
+		{
+			throw new IllegalArgumentException("no threads to parse on");
+		}
+		this.engine = engine;
+		this.threads = threads;
+	}
+
+    public int getThreads()
+	{
+		return threads;
+	}
+
+    public List<CompiledScript> compileDirectory(File directory)
+			throws ParseException, IOException
+	{
+		// every file in directory, in order of name
+		File[] listed = directory.listFiles();
+		if (listed == null)
+		{
+			throw new IOException(directory + " is not a directory");
+		}
+		Arrays.sort(listed);
+		List<File> files = new ArrayList<File>();
+		for (File file : listed)
+		{
+			if (file.isFile())
+			{
+				files.add(file);
+			}
+		}
+		return compile(files);
+	}
+
+    public List<CompiledScript> compile(List<File> files)
+			throws ParseException, IOException
+	{
+		// the scripts in the order of files. The first file that fails, in
+		// that order, is the one whose exception is thrown
+		List<CompiledScript> scripts = new ArrayList<CompiledScript>();
+		if (files.isEmpty())
+		{
+			return scripts;
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+		try
+		{
+			List<Future<CompiledScript>> pending = new ArrayList<Future<CompiledScript>>();
+			for (final File file : files)
+			{
+				pending.add(pool.submit(new Callable<CompiledScript>() {
+					public CompiledScript call() throws ParseException, IOException
+					{
+						return engine.compile(file);
+					}
+				}));
+			}
+			for (Future<CompiledScript> script : pending)
+			{
+				scripts.add(result(script));
+			}
+			return scripts;
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+	}
+
+    private static CompiledScript result(Future<CompiledScript> script)
+			throws ParseException, IOException
+	{
+		// what the compile came to, thrown as it was thrown on the pool
+		try
+		{
+			return script.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted waiting for a parse");
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof ParseException)
+			{
+				throw (ParseException) cause;
+			}
+			if (cause instanceof IOException)
+			{
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			throw (Error) cause;
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package engine;
+
+import expression.Expression;
+import staticpass.StaticPass;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A directory of trees the static pass has been over, so a script that
+ * hasn't changed is read back instead of parsed and analysed again. Each
+ * is kept under a hash of its source, TreeFormat.VERSION and
+ * StaticPass.VERSION, so a change to either is a miss, and mapped
+ * into memory to be read. A saved tree that can't be read, for whatever
+ * reason, counts as not being there: the script is parsed again and saved
+ * over it. Any number of threads can share one.
+ */
+public class ScriptCache {
+	private static final String SUFFIX = ".ftc";
+
+	private File directory;
+	private AtomicLong hits;
+	private AtomicLong misses;
+
+    public ScriptCache(File directory) throws IOException
+	{
+		if (!directory.isDirectory() && !directory.mkdirs())
+		{
+			throw new IOException("can't make " + directory);
+		}
+		this.directory = directory;
+		hits = new AtomicLong();
+		misses = new AtomicLong();
+	}
+
+    public File getDirectory()
+	{
+		return directory;
+	}
+
+    public long getHits()
+	{
+		return hits.get();
+	}
+
+    public long getMisses()
+	{
+		return misses.get();
+	}
+
+    public Expression load(String source)
+	{
+		// the tree saved for source, or null to parse it
+		byte[] key = key(source);
+		File file = file(key);
+		Expression program = null;
+		if (file.isFile())
+		{
+			try
+			{
+				program = TreeReader.read(map(file), key);
+			}
+			catch (IOException e)
+			{
+				program = null;
+			}
+		}
+		if (program == null)
+		{
+			misses.incrementAndGet();
+		}
+		else
+		{
+			hits.incrementAndGet();
+		}
+		return program;
+	}
+
+    public void store(String source, Expression program)
+	{
+		// saving is only ever a help, so a tree that can't be saved, or a
+		// directory that can't be written, just leaves source to be parsed
+		// next time as well
+		byte[] key = key(source);
+		byte[] bytes;
+		try
+		{
+			bytes = TreeWriter.write(program, key);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return;
+		}
+		File file = file(key);
+		File temp = null;
+		try
+		{
+			// written aside and moved into place whole, so no one maps half
+			temp = File.createTempFile(file.getName(), ".tmp", directory);
+			FileOutputStream out = new FileOutputStream(temp);
+			try
+			{
+				out.write(bytes);
+			}
+			finally
+			{
+				out.close();
+			}
+			Files.move(temp.toPath(), file.toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			if (temp != null)
+			{
+				temp.delete();
+			}
+		}
+	}
+
+    private static MappedByteBuffer map(File file) throws IOException
+	{
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try
+		{
+			// the mapping outlives the channel it came from
+			FileChannel channel = in.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		finally
+		{
+			in.close();
+		}
+	}
+
+    private File file(byte[] key)
+	{
+		StringBuilder name = new StringBuilder();
+		for (byte b : key)
+		{
+			name.append(Character.forDigit((b >> 4) & 0xf, 16));
+			name.append(Character.forDigit(b & 0xf, 16));
+		}
+		return new File(directory, name.append(SUFFIX).toString());
+	}
+
+    private static byte[] key(String source)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (int version : new int[] { TreeFormat.VERSION, StaticPass.VERSION })
+			{
+				digest.update(new byte[] { (byte) (version >>> 24), (byte) (version >>> 16),
+						(byte) (version >>> 8), (byte) version });
+			}
+			return digest.digest(source.getBytes("UTF-8"));
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new RuntimeException(e);
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+}
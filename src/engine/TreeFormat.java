@@ -0,0 +1,121 @@
+package engine;
+
+import value.ClosureValue;
+import value.FloatValue;
+import value.IntValue;
+import value.PlainObject;
+import value.StringValue;
+import value.Value;
+import value.VoidValue;
+
+/**
+ * The layout of a tree saved by TreeWriter. A saved tree is the header, the
+ * table of strings its nodes use, and then its nodes in pre-order, each a
+ * tag followed by what that kind of node holds: ints as varints, zigzagged
+ * where they can be negative, strings as indexes into the table, children
+ * as nodes. Every node gets the next number as it's started, and a node
+ * met again is written as a REF to its number, so what the static pass
+ * shares (hoisted invariants, the function a loop is in) stays shared.
+ * Literals are the exception, written out again wherever they're met.
+ */
+public class TreeFormat {
+	public static final int MAGIC = 0x46544c43;
+	// goes up whenever a tree, or what the static pass leaves in it, changes
+	// in a way the format has to know about; a saved tree of another version
+	// is never read
+	public static final int VERSION = 2;
+
+	// no node, where a child is optional
+	public static final int NULL = 0;
+	// a node written already: its number
+	public static final int REF = 1;
+	// count, then that many nodes
+	public static final int SEQUENCE = 2;
+	// frame size, node
+	public static final int SCOPE = 3;
+	// count, then that many parameter names, frame size, captures (count
+	// plus one, none for 0, then depth and slot pairs), body
+	public static final int FUNCTION = 4;
+	// function id, function
+	public static final int CLOSURE = 5;
+	// name, slot, function
+	public static final int FUNC_DECL = 6;
+	// name, frame count, slot
+	public static final int VAR_DECL = 7;
+	public static final int ID = 8;
+	// the value: a zigzag int, the four bytes of a float, a byte, a string
+	public static final int INT = 9;
+	public static final int FLOAT = 10;
+	public static final int BOOL = 11;
+	public static final int STRING = 12;
+	public static final int VOID = 13;
+	// both operands
+	public static final int AND = 14;
+	public static final int OR = 15;
+	public static final int ADD = 16;
+	public static final int SUB = 17;
+	public static final int MULT = 18;
+	public static final int DIVIDE = 19;
+	public static final int LESS = 20;
+	public static final int GREATER = 21;
+	public static final int LTE = 22;
+	public static final int GTE = 23;
+	public static final int EQUALS = 24;
+	public static final int STRING_EQUAL = 25;
+	public static final int STRING_LESS = 26;
+	// the one operand
+	public static final int NOT = 27;
+	public static final int PRINT = 28;
+	public static final int RETURN = 29;
+	public static final int STRING_LENGTH = 30;
+	// the value class's place in TYPES, node
+	public static final int IS_TYPE = 31;
+	// target, value
+	public static final int ASSIGN = 32;
+	// object, field name
+	public static final int FIELD = 33;
+	// a byte for a tail call, name, count, then that many arguments
+	public static final int CALL = 34;
+	// name, count, then that many arguments
+	public static final int NEW = 35;
+	// test, then, else
+	public static final int IF = 36;
+	// test, body, the function the loop is in, count, then that many
+	// invariants
+	public static final int WHILE = 37;
+	// string, start, end
+	public static final int SUBSTRING = 38;
+	// slot, node
+	public static final int HOISTED = 39;
+	public static final int READ_LINE = 40;
+
+	// the value classes a type test can be for, saved as their place here;
+	// add to the end only, anything else needs a new VERSION
+	private static final Class<?>[] TYPES = {
+		IntValue.class, FloatValue.class, StringValue.class, VoidValue.class,
+		ClosureValue.class, PlainObject.class,
+	};
+
+    public static int typeTag(Class<? extends Value> type)
+	{
+		// -1 for a class there's no tag for
+		for (int i = 0; i < TYPES.length; i++)
+		{
+			if (TYPES[i] == type)
+			{
+				return i;
+			}
+		}
+		return -1;
+	}
+
+    public static Class<? extends Value> type(int tag)
+	{
+		// null for a tag there's no class for
+		if (tag < 0 || tag >= TYPES.length)
+		{
+			return null;
+		}
+		return TYPES[tag].asSubclass(Value.class);
+	}
+}
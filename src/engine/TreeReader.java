@@ -0,0 +1,391 @@
+package engine;
+
+import expression.*;
+import staticpass.Scope;
+import value.BoolValue;
+import value.ClosureValue;
+import value.FloatValue;
+import value.Function;
+import value.IdValue;
+import value.IntValue;
+import value.StringValue;
+import value.Value;
+import value.VoidValue;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads back a tree TreeWriter saved, straight out of a buffer, which is
+ * usually a file mapped into memory. Anything that isn't a whole tree of
+ * this version saved under the key asked for is an IOException, and so is
+ * a buffer that runs out early.
+ */
+public class TreeReader {
+	private ByteBuffer in;
+	private String[] strings;
+	private List<Expression> read;
+
+    private TreeReader(ByteBuffer in)
+	{
+		this.in = in;
+		read = new ArrayList<Expression>();
+	}
+
+    public static Expression read(ByteBuffer in, byte[] key) throws IOException
+	{
+		try
+		{
+			return new TreeReader(in).program(key);
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IOException("saved tree cut short");
+		}
+		catch (ClassCastException e)
+		{
+			throw new IOException("saved tree has a node where it can't be");
+		}
+	}
+
+    private Expression program(byte[] key) throws IOException
+	{
+		if (in.getInt() != TreeFormat.MAGIC)
+		{
+			throw new IOException("not a saved tree");
+		}
+		if (in.getInt() != TreeFormat.VERSION)
+		{
+			throw new IOException("saved tree of another version");
+		}
+		byte[] saved = new byte[count()];
+		in.get(saved);
+		if (!Arrays.equals(saved, key))
+		{
+			throw new IOException("saved tree of another source");
+		}
+		strings = new String[count()];
+		for (int i = 0; i < strings.length; i++)
+		{
+			byte[] bytes = new byte[count()];
+			in.get(bytes);
+			strings[i] = utf8(bytes);
+		}
+		Expression program = node();
+		if (in.hasRemaining())
+		{
+			throw new IOException("saved tree runs on past its end");
+		}
+		return program;
+	}
+
+    private Expression node() throws IOException
+	{
+		int tag = varint();
+		if (tag == TreeFormat.NULL)
+		{
+			return null;
+		}
+		if (tag == TreeFormat.REF)
+		{
+			int number = natural();
+			if (number >= read.size() || read.get(number) == null)
+			{
+				throw new IOException("saved tree refers to node " + number + " before it's read");
+			}
+			return read.get(number);
+		}
+		// numbered before its children, the order they were written in
+		int number = read.size();
+		read.add(null);
+		Expression exp;
+
+		switch (tag)
+		{
+		case TreeFormat.SEQUENCE:
+			exp = new Sequence(nodes());
+			break;
+		case TreeFormat.SCOPE:
+		{
+			int size = natural();
+			Scope scope = new Scope(node());
+			scope.setFrameSize(size);
+			exp = scope;
+			break;
+		}
+		case TreeFormat.FUNCTION:
+		{
+			List<String> params = new ArrayList<String>();
+			for (int i = count(); i > 0; i--)
+			{
+				params.add(string());
+			}
+			Function function = new Function(params, null);
+			function.setFrameSize(natural());
+			int captures = count();
+			if (captures > 0)
+			{
+				int[] depths = new int[captures - 1];
+				int[] slots = new int[captures - 1];
+				for (int i = 0; i < depths.length; i++)
+				{
+					depths[i] = natural();
+					slots[i] = natural();
+				}
+				function.setCaptures(depths, slots);
+			}
+			// the loops in the body point back at it
+			read.set(number, function);
+			function.setBody(node());
+			exp = function;
+			break;
+		}
+		case TreeFormat.CLOSURE:
+		{
+			int id = signed();
+			ClosureValue closure = new ClosureValue((Function) node());
+			closure.setFuncId(id);
+			exp = closure;
+			break;
+		}
+		case TreeFormat.FUNC_DECL:
+		{
+			String name = string();
+			int slot = signed();
+			OpFuncDecl declaration = new OpFuncDecl((Function) node(), name);
+			declaration.setFrameNum(slot);
+			exp = declaration;
+			break;
+		}
+		case TreeFormat.VAR_DECL:
+		{
+			OpVarDecl declaration = new OpVarDecl(string());
+			declaration.setFrameCnt(signed());
+			declaration.setFrameNum(signed());
+			exp = declaration;
+			break;
+		}
+		case TreeFormat.ID:
+		{
+			IdValue id = new IdValue(string());
+			id.setFrameCnt(signed());
+			id.setFrameNum(signed());
+			exp = id;
+			break;
+		}
+		case TreeFormat.INT:
+			exp = IntValue.valueOf(signed());
+			break;
+		case TreeFormat.FLOAT:
+			exp = new FloatValue(Float.intBitsToFloat(in.getInt()));
+			break;
+		case TreeFormat.BOOL:
+			exp = BoolValue.valueOf(varint() != 0);
+			break;
+		case TreeFormat.STRING:
+			exp = StringValue.valueOf(string());
+			break;
+		case TreeFormat.VOID:
+			exp = VoidValue.VOID;
+			break;
+		case TreeFormat.AND:
+			exp = new And(node(), node());
+			break;
+		case TreeFormat.OR:
+			exp = new Or(node(), node());
+			break;
+		case TreeFormat.ADD:
+			exp = new OpAdd(node(), node());
+			break;
+		case TreeFormat.SUB:
+			exp = new OpSub(node(), node());
+			break;
+		case TreeFormat.MULT:
+			exp = new OpMult(node(), node());
+			break;
+		case TreeFormat.DIVIDE:
+			exp = new OpDivide(node(), node());
+			break;
+		case TreeFormat.LESS:
+			exp = new OpLessThan(node(), node());
+			break;
+		case TreeFormat.GREATER:
+			exp = new OpGreaterThan(node(), node());
+			break;
+		case TreeFormat.LTE:
+			exp = new OpLTE(node(), node());
+			break;
+		case TreeFormat.GTE:
+			exp = new OpGTE(node(), node());
+			break;
+		case TreeFormat.EQUALS:
+			exp = new OpEquals(node(), node());
+			break;
+		case TreeFormat.STRING_EQUAL:
+			exp = new OpStringEqual(node(), node());
+			break;
+		case TreeFormat.STRING_LESS:
+			exp = new OpStringLess(node(), node());
+			break;
+		case TreeFormat.NOT:
+			exp = new Not(node());
+			break;
+		case TreeFormat.PRINT:
+			exp = new Print(node());
+			break;
+		case TreeFormat.RETURN:
+			exp = new Return(node());
+			break;
+		case TreeFormat.STRING_LENGTH:
+			exp = new StringLength(node());
+			break;
+		case TreeFormat.IS_TYPE:
+			exp = new IsType(type(natural()), node());
+			break;
+		case TreeFormat.ASSIGN:
+			exp = new OpAssign(node(), node());
+			break;
+		case TreeFormat.FIELD:
+			exp = new OpField(node(), node());
+			break;
+		case TreeFormat.CALL:
+		{
+			boolean tail = varint() != 0;
+			OpFunctionCall call = new OpFunctionCall((IdValue) node(), nodes());
+			call.setTailCall(tail);
+			exp = call;
+			break;
+		}
+		case TreeFormat.NEW:
+			exp = new OpNew((IdValue) node(), nodes());
+			break;
+		case TreeFormat.IF:
+			exp = new OpIfElse(node(), node(), node());
+			break;
+		case TreeFormat.WHILE:
+		{
+			OpWhile loop = new OpWhile(node(), node());
+			loop.setFunction((Function) node());
+			for (Expression invariant : nodes())
+			{
+				loop.addInvariant((Hoisted) invariant);
+			}
+			exp = loop;
+			break;
+		}
+		case TreeFormat.SUBSTRING:
+			exp = new SubString(node(), node(), node());
+			break;
+		case TreeFormat.HOISTED:
+		{
+			int slot = natural();
+			exp = new Hoisted(node(), slot);
+			break;
+		}
+		case TreeFormat.READ_LINE:
+			exp = new ReadLine();
+			break;
+		default:
+			throw new IOException("saved tree has no node tagged " + tag);
+		}
+		read.set(number, exp);
+		return exp;
+	}
+
+    private List<Expression> nodes() throws IOException
+	{
+		int count = count();
+		List<Expression> list = new ArrayList<Expression>(count);
+		for (int i = 0; i < count; i++)
+		{
+			list.add(node());
+		}
+		return list;
+	}
+
+    private String string() throws IOException
+	{
+		int index = natural();
+		if (index >= strings.length)
+		{
+			throw new IOException("saved tree has no string " + index);
+		}
+		return strings[index];
+	}
+
+    private static Class<? extends Value> type(int tag) throws IOException
+	{
+		Class<? extends Value> type = TreeFormat.type(tag);
+		if (type == null)
+		{
+			throw new IOException("saved tree tests for a type there isn't: " + tag);
+		}
+		return type;
+	}
+
+    private int varint() throws IOException
+	{
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7)
+		{
+			byte b = in.get();
+			if (shift == 28 && (b & 0xf0) != 0)
+			{
+				// only four bits of the fifth byte fit in an int
+				throw new IOException("saved tree has a number too big");
+			}
+			value |= (b & 0x7f) << shift;
+			if (b >= 0)
+			{
+				return value;
+			}
+		}
+		throw new IOException("saved tree has a number too long");
+	}
+
+    private int natural() throws IOException
+	{
+		// a size, slot or index, which an int too big comes out below zero
+		int value = varint();
+		if (value < 0)
+		{
+			throw new IOException("saved tree has a negative number " + value);
+		}
+		return value;
+	}
+
+    private int count() throws IOException
+	{
+		// how many of something follow, each at least a byte long, so never
+		// more than there are bytes left
+		int value = natural();
+		if (value > in.remaining())
+		{
+			throw new IOException("saved tree has " + value + " things in " + in.remaining() + " bytes");
+		}
+		return value;
+	}
+
+    private int signed() throws IOException
+	{
+		int value = varint();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+    private static String utf8(byte[] bytes)
+	{
+		try
+		{
+			return new String(bytes, "UTF-8");
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,388 @@
+package engine;
+
+import expression.*;
+import staticpass.Scope;
+import value.BoolValue;
+import value.ClosureValue;
+import value.FloatValue;
+import value.Function;
+import value.IdValue;
+import value.IntValue;
+import value.StringValue;
+import value.VoidValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves a tree the static pass has been over, in the layout TreeFormat
+ * describes, with everything the pass worked out: slots, frame sizes,
+ * captures, tail calls and hoisted invariants. What the engines learn while
+ * running it, the caches and the heat, is left out, so a tree read back is
+ * the tree as it was before its first run. A tree holding a node the format
+ * has no tag for can't be saved, and write throws IllegalArgumentException.
+ */
+public class TreeWriter {
+	private ByteArrayOutputStream nodes;
+	private Map<Expression, Integer> written;
+	private int count;
+	private Map<String, Integer> strings;
+	private List<String> table;
+
+    private TreeWriter()
+	{
+		nodes = new ByteArrayOutputStream();
+		written = new IdentityHashMap<Expression, Integer>();
+		strings = new HashMap<String, Integer>();
+		table = new ArrayList<String>();
+	}
+
+    public static byte[] write(Expression program, byte[] key)
+	{
+		// program saved under key, which TreeReader wants to see again
+		TreeWriter writer = new TreeWriter();
+		writer.node(program);
+		ByteArrayOutputStream out = new ByteArrayOutputStream(writer.nodes.size() + 256);
+		writeInt(out, TreeFormat.MAGIC);
+		writeInt(out, TreeFormat.VERSION);
+		writeVarint(out, key.length);
+		out.write(key, 0, key.length);
+		writeVarint(out, writer.table.size());
+		for (String string : writer.table)
+		{
+			byte[] bytes = utf8(string);
+			writeVarint(out, bytes.length);
+			out.write(bytes, 0, bytes.length);
+		}
+		byte[] body = writer.nodes.toByteArray();
+		out.write(body, 0, body.length);
+		return out.toByteArray();
+	}
+
+    private void node(Expression exp)
+	{
+		if (exp == null)
+		{
+			varint(TreeFormat.NULL);
+			return;
+		}
+		if (!isLiteral(exp))
+		{
+			Integer number = written.get(exp);
+			if (number != null)
+			{
+				varint(TreeFormat.REF);
+				varint(number);
+				return;
+			}
+			written.put(exp, count);
+		}
+		count++;
+
+		if (exp instanceof Sequence)
+		{
+			varint(TreeFormat.SEQUENCE);
+			nodes(((Sequence) exp).getExpressions());
+		}
+		else if (exp instanceof Scope)
+		{
+			varint(TreeFormat.SCOPE);
+			varint(((Scope) exp).getFrameSize());
+			node(((Scope) exp).getExpression());
+		}
+		else if (exp instanceof Function)
+		{
+			Function function = (Function) exp;
+			varint(TreeFormat.FUNCTION);
+			varint(function.getParamList().size());
+			for (String param : function.getParamList())
+			{
+				string(param);
+			}
+			varint(function.getFrameSize());
+			int[] depths = function.getCaptureDepths();
+			int[] slots = function.getCaptureSlots();
+			varint((depths == null) ? 0 : depths.length + 1);
+			for (int i = 0; depths != null && i < depths.length; i++)
+			{
+				varint(depths[i]);
+				varint(slots[i]);
+			}
+			node(function.getBody());
+		}
+		else if (exp instanceof ClosureValue)
+		{
+			varint(TreeFormat.CLOSURE);
+			signed(((ClosureValue) exp).getFuncId());
+			node(((ClosureValue) exp).getIntFunc());
+		}
+		else if (exp instanceof OpFuncDecl)
+		{
+			varint(TreeFormat.FUNC_DECL);
+			string(((OpFuncDecl) exp).getFuncName());
+			signed(((OpFuncDecl) exp).getFrameNum());
+			node(((OpFuncDecl) exp).getFunction());
+		}
+		else if (exp instanceof OpVarDecl)
+		{
+			varint(TreeFormat.VAR_DECL);
+			string(((OpVarDecl) exp).getName());
+			signed(((OpVarDecl) exp).getFrameCnt());
+			signed(((OpVarDecl) exp).getFrameNum());
+		}
+		else if (exp instanceof IdValue)
+		{
+			varint(TreeFormat.ID);
+			string(((IdValue) exp).getInternalValue());
+			signed(((IdValue) exp).getFrameCnt());
+			signed(((IdValue) exp).getFrameNum());
+		}
+		else if (exp instanceof IntValue)
+		{
+			varint(TreeFormat.INT);
+			signed(((IntValue) exp).getInternalValue());
+		}
+		else if (exp instanceof FloatValue)
+		{
+			varint(TreeFormat.FLOAT);
+			writeInt(nodes, Float.floatToIntBits(((FloatValue) exp).getInternalValue()));
+		}
+		else if (exp instanceof BoolValue)
+		{
+			varint(TreeFormat.BOOL);
+			varint(((BoolValue) exp).getInternalValue() ? 1 : 0);
+		}
+		else if (exp instanceof StringValue)
+		{
+			varint(TreeFormat.STRING);
+			string(((StringValue) exp).getInternalValue());
+		}
+		else if (exp instanceof VoidValue)
+		{
+			varint(TreeFormat.VOID);
+		}
+		else if (exp instanceof And)
+		{
+			operands(TreeFormat.AND, ((And) exp).getOne(), ((And) exp).getTwo());
+		}
+		else if (exp instanceof Or)
+		{
+			operands(TreeFormat.OR, ((Or) exp).getOne(), ((Or) exp).getTwo());
+		}
+		else if (exp instanceof OpAdd)
+		{
+			operands(TreeFormat.ADD, ((OpAdd) exp).getOne(), ((OpAdd) exp).getTwo());
+		}
+		else if (exp instanceof OpSub)
+		{
+			operands(TreeFormat.SUB, ((OpSub) exp).getOne(), ((OpSub) exp).getTwo());
+		}
+		else if (exp instanceof OpMult)
+		{
+			operands(TreeFormat.MULT, ((OpMult) exp).getOne(), ((OpMult) exp).getTwo());
+		}
+		else if (exp instanceof OpDivide)
+		{
+			operands(TreeFormat.DIVIDE, ((OpDivide) exp).getOne(), ((OpDivide) exp).getTwo());
+		}
+		else if (exp instanceof OpLessThan)
+		{
+			operands(TreeFormat.LESS, ((OpLessThan) exp).getOne(), ((OpLessThan) exp).getTwo());
+		}
+		else if (exp instanceof OpGreaterThan)
+		{
+			operands(TreeFormat.GREATER, ((OpGreaterThan) exp).getOne(), ((OpGreaterThan) exp).getTwo());
+		}
+		else if (exp instanceof OpLTE)
+		{
+			operands(TreeFormat.LTE, ((OpLTE) exp).getOne(), ((OpLTE) exp).getTwo());
+		}
+		else if (exp instanceof OpGTE)
+		{
+			operands(TreeFormat.GTE, ((OpGTE) exp).getOne(), ((OpGTE) exp).getTwo());
+		}
+		else if (exp instanceof OpEquals)
+		{
+			operands(TreeFormat.EQUALS, ((OpEquals) exp).getLeft(), ((OpEquals) exp).getRight());
+		}
+		else if (exp instanceof OpStringEqual)
+		{
+			operands(TreeFormat.STRING_EQUAL, ((OpStringEqual) exp).getLeft(), ((OpStringEqual) exp).getRight());
+		}
+		else if (exp instanceof OpStringLess)
+		{
+			operands(TreeFormat.STRING_LESS, ((OpStringLess) exp).getLeft(), ((OpStringLess) exp).getRight());
+		}
+		else if (exp instanceof Not)
+		{
+			varint(TreeFormat.NOT);
+			node(((Not) exp).getOne());
+		}
+		else if (exp instanceof Print)
+		{
+			varint(TreeFormat.PRINT);
+			node(((Print) exp).getValue());
+		}
+		else if (exp instanceof Return)
+		{
+			varint(TreeFormat.RETURN);
+			node(((Return) exp).getExp());
+		}
+		else if (exp instanceof StringLength)
+		{
+			varint(TreeFormat.STRING_LENGTH);
+			node(((StringLength) exp).getString());
+		}
+		else if (exp instanceof IsType)
+		{
+			int type = TreeFormat.typeTag(((IsType) exp).getType());
+			if (type < 0)
+			{
+				throw new IllegalArgumentException("no tag for a test of " + ((IsType) exp).getType());
+			}
+			varint(TreeFormat.IS_TYPE);
+			varint(type);
+			node(((IsType) exp).getExp());
+		}
+		else if (exp instanceof OpAssign)
+		{
+			operands(TreeFormat.ASSIGN, ((OpAssign) exp).getLVal(), ((OpAssign) exp).getRVal());
+		}
+		else if (exp instanceof OpField && ((OpField) exp).getRight() instanceof IdValue)
+		{
+			operands(TreeFormat.FIELD, ((OpField) exp).getLeft(), ((OpField) exp).getRight());
+		}
+		else if (exp instanceof OpFunctionCall)
+		{
+			varint(TreeFormat.CALL);
+			varint(((OpFunctionCall) exp).isTailCall() ? 1 : 0);
+			node(((OpFunctionCall) exp).getName());
+			nodes(((OpFunctionCall) exp).getArgs());
+		}
+		else if (exp instanceof OpNew)
+		{
+			varint(TreeFormat.NEW);
+			node(((OpNew) exp).getName());
+			nodes(((OpNew) exp).getArgs());
+		}
+		else if (exp instanceof OpIfElse)
+		{
+			varint(TreeFormat.IF);
+			node(((OpIfElse) exp).getTest());
+			node(((OpIfElse) exp).getFirst());
+			node(((OpIfElse) exp).getSecond());
+		}
+		else if (exp instanceof OpWhile)
+		{
+			OpWhile loop = (OpWhile) exp;
+			varint(TreeFormat.WHILE);
+			node(loop.getTest());
+			node(loop.getBody());
+			node(loop.getFunction());
+			nodes(loop.getInvariants());
+		}
+		else if (exp instanceof SubString)
+		{
+			varint(TreeFormat.SUBSTRING);
+			node(((SubString) exp).getString());
+			node(((SubString) exp).getStart());
+			node(((SubString) exp).getEnd());
+		}
+		else if (exp instanceof Hoisted)
+		{
+			varint(TreeFormat.HOISTED);
+			varint(((Hoisted) exp).getSlot());
+			node(((Hoisted) exp).getExpression());
+		}
+		else if (exp instanceof ReadLine)
+		{
+			varint(TreeFormat.READ_LINE);
+		}
+		else
+		{
+			throw new IllegalArgumentException("no tag for " + exp.getClass().getName());
+		}
+	}
+
+    private static boolean isLiteral(Expression exp)
+	{
+		// nothing changes a literal, so which copy a tree holds doesn't
+		// matter, and it's written out every time it's met
+		return exp instanceof IntValue || exp instanceof FloatValue || exp instanceof BoolValue
+				|| exp instanceof StringValue || exp instanceof VoidValue;
+	}
+
+    private void operands(int tag, Expression one, Expression two)
+	{
+		varint(tag);
+		node(one);
+		node(two);
+	}
+
+    private void nodes(List<? extends Expression> list)
+	{
+		varint(list.size());
+		for (Expression exp : list)
+		{
+			node(exp);
+		}
+	}
+
+    private void string(String string)
+	{
+		Integer index = strings.get(string);
+		if (index == null)
+		{
+			index = table.size();
+			strings.put(string, index);
+			table.add(string);
+		}
+		varint(index);
+	}
+
+    private void varint(int value)
+	{
+		writeVarint(nodes, value);
+	}
+
+    private void signed(int value)
+	{
+		// zigzag, so the -1 of a slot not given is one byte
+		writeVarint(nodes, (value << 1) ^ (value >> 31));
+	}
+
+    private static void writeVarint(ByteArrayOutputStream out, int value)
+	{
+		while ((value & ~0x7f) != 0)
+		{
+			out.write((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+    private static void writeInt(ByteArrayOutputStream out, int value)
+	{
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+
+    private static byte[] utf8(String string)
+	{
+		try
+		{
+			return string.getBytes("UTF-8");
+		}
+		catch (UnsupportedEncodingException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+}
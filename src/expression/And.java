@@ -1,12 +1,12 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
 import test.Testable;
 import value.BoolValue;
-import value.IdValue;
 import value.Value;
 
 public class And implements Expression {
@@ -25,61 +25,42 @@ public class And implements Expression {
         return one;
     }
 
+    public void setOne(Expression one) {
+        this.one = one;
+    }
+
     public Expression getTwo() {
         return two;
     }
 
+    public void setTwo(Expression two) {
+        this.two = two;
+    }
+
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException {
-		Environment nEnv = one.getValue(environment);
-		Value leftSide = nEnv.value;
-		nEnv = nEnv.next;
-		
-		nEnv = two.getValue(nEnv);
-		Value rightSide = nEnv.value;
-		nEnv = nEnv.next;
-		
-		// check to see if one of them is an ID
-		if (leftSide instanceof IdValue)
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, TypeException, UnboundIdentifierException {
+		Value leftSide = one.evaluate(frame);
+		if (!(leftSide instanceof BoolValue))
 		{
-			String name = ((IdValue)leftSide).getInternalValue();
-			Environment environ = Environment.findIDInList(name, nEnv);
-			// check for null
-			if (environ != null)
-			{
-				leftSide = environ.value;
-			}
-			else
-			{
-				throw new UnboundIdentifierException();
-			}
+			throw new TypeException();
 		}
-		if (rightSide instanceof IdValue)
+		
+		// the right side only runs if the left doesn't settle it
+		if (!((BoolValue)leftSide).getInternalValue())
 		{
-			String name = ((IdValue)rightSide).getInternalValue();
-			Environment environ = Environment.findIDInList(name, nEnv);
-			// check for null
-			if (environ != null)
-			{
-				rightSide = environ.value;
-			}
-			else
-			{
-				throw new UnboundIdentifierException();
-			}
+			return leftSide;
 		}
-		
-		// now check to make sure both are bool types
-		if (!(leftSide instanceof BoolValue) 
-			|| !(rightSide instanceof BoolValue))
+		Value rightSide = two.evaluate(frame);
+		if (!(rightSide instanceof BoolValue))
 		{
 			throw new TypeException();
 		}
-		
-		boolean ls = ((BoolValue)leftSide).getInternalValue();
-		boolean rs = ((BoolValue)rightSide).getInternalValue();
-			
-		return new Environment(environment, null, new BoolValue(ls && rs));
+		return rightSide;
 	}
 
     public String toString()
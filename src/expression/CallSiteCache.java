@@ -0,0 +1,131 @@
+package expression;
+
+import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.TypeException;
+import value.ClosureValue;
+import value.Function;
+import value.IdValue;
+import value.Value;
+
+/**
+ * Inline cache for one call site. Remembers the last few callees seen there
+ * and the function each one runs, so a repeat call skips the type checks,
+ * and remembers where a callee bound by name was found, so a call made from
+ * the same environment skips the search. Once more than LIMIT different
+ * callees turn up the site is megamorphic and stops caching targets.
+ */
+public class CallSiteCache {
+	public static final int LIMIT = 4;
+
+	private Value[] callees;
+	private Function[] functions;
+	private int entries;
+	private boolean megamorphic;
+	private Environment dynamicHead;
+	private Environment dynamicBinding;
+
+    public CallSiteCache()
+	{
+		callees = new Value[LIMIT];
+		functions = new Function[LIMIT];
+		entries = 0;
+		megamorphic = false;
+	}
+
+    public void clear()
+	{
+		// forget everything one run of a program has left here, so the next
+		// doesn't keep its values alive or find the site full of them
+		for (int i = 0; i < entries; i++)
+		{
+			callees[i] = null;
+			functions[i] = null;
+		}
+		entries = 0;
+		megamorphic = false;
+		dynamicHead = null;
+		dynamicBinding = null;
+	}
+
+    public int size()
+	{
+		return entries;
+	}
+
+    public boolean isMegamorphic()
+	{
+		return megamorphic;
+	}
+
+    public Frame home(IdValue name, Frame frame)
+	{
+		// the frame holding the callee's slot, or null when it's bound by name
+		if (name.getFrameCnt() >= 0)
+		{
+			Frame home = frame.getFrame(name.getFrameCnt());
+			if (home != null && name.getFrameNum() < home.size()
+					&& home.get(name.getFrameNum()) != null)
+			{
+				return home;
+			}
+		}
+		return null;
+	}
+
+    public Value callee(IdValue name, Frame frame, Frame home)
+	{
+		if (home != null)
+		{
+			return home.get(name.getFrameNum());
+		}
+		// the same environment as last time holds the same binding
+		Environment dynamic = frame.getDynamic();
+		if (dynamic != dynamicHead || dynamicBinding == null)
+		{
+			dynamicHead = dynamic;
+			dynamicBinding = Environment.findIDInList(name.getInternalValue(), dynamic);
+		}
+		return (dynamicBinding != null) ? dynamicBinding.value : null;
+	}
+
+    public Function target(Value callee) throws TypeException
+	{
+		if (!megamorphic)
+		{
+			for (int i = 0; i < entries; i++)
+			{
+				if (callees[i] == callee)
+				{
+					return functions[i];
+				}
+			}
+		}
+
+		// miss, work it out and remember it if there's room
+		Function function;
+		if (callee instanceof ClosureValue)
+		{
+			function = ((ClosureValue)callee).getIntFunc();
+		}
+		else if (callee instanceof Function)
+		{
+			function = (Function)callee;
+		}
+		else
+		{
+			throw new TypeException();
+		}
+		if (entries < LIMIT)
+		{
+			callees[entries] = callee;
+			functions[entries] = function;
+			entries++;
+		}
+		else
+		{
+			megamorphic = true;
+		}
+		return function;
+	}
+}
@@ -1,10 +1,19 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
+import value.Value;
 
 public interface Expression {
 	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException;
+	
+	/**
+	 * Evaluates straight to a value. Bindings go in frame rather than being
+	 * threaded back through the result, so nothing gets allocated just to
+	 * carry the answer.
+	 */
+	public Value evaluate(Frame frame) throws ReturnException, TypeException, UnboundIdentifierException;
 }
@@ -0,0 +1,93 @@
+package expression;
+
+import value.Shape;
+
+/**
+ * Inline cache for one field access. Remembers the slot the field was in
+ * for the last few object shapes seen there, so a repeat access to an
+ * object of one of those shapes goes straight to its slot without looking
+ * the name up. Once more than LIMIT different shapes turn up the site is
+ * megamorphic and stops caching. Hits and misses are counted, to show up
+ * the sites that see too many shapes.
+ */
+public class FieldCache {
+	public static final int LIMIT = 4;
+
+	private Shape[] shapes;
+	private int[] slots;
+	private int entries;
+	private boolean megamorphic;
+	private long hits;
+	private long misses;
+
+    public FieldCache()
+	{
+		shapes = new Shape[LIMIT];
+		slots = new int[LIMIT];
+		entries = 0;
+		megamorphic = false;
+		hits = 0;
+		misses = 0;
+	}
+
+    public int size()
+	{
+		return entries;
+	}
+
+    public boolean isMegamorphic()
+	{
+		return megamorphic;
+	}
+
+    public long getHits()
+	{
+		return hits;
+	}
+
+    public long getMisses()
+	{
+		return misses;
+	}
+
+    public int slot(Shape shape, String name)
+	{
+		// the slot name is in for objects of shape, -1 when they haven't got it
+		if (!megamorphic)
+		{
+			for (int i = 0; i < entries; i++)
+			{
+				if (shapes[i] == shape)
+				{
+					hits++;
+					return slots[i];
+				}
+			}
+		}
+
+		// miss, look it up and remember it if there's room
+		misses++;
+		int slot = shape.indexOf(name);
+		if (slot < 0)
+		{
+			return slot;
+		}
+		if (entries < LIMIT)
+		{
+			shapes[entries] = shape;
+			slots[entries] = slot;
+			entries++;
+		}
+		else
+		{
+			megamorphic = true;
+		}
+		return slot;
+	}
+
+    public String toString()
+    {
+        return "(FieldCache " + entries + " shapes, " + hits + " hits, " + misses + " misses"
+                + (megamorphic ? ", megamorphic)" : ")");
+    }
+}
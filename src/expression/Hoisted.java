@@ -0,0 +1,135 @@
+package expression;
+
+import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.ReturnException;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
+import value.Value;
+
+/**
+ * A loop invariant expression moved out of its loop. The loop works it out
+ * once into a slot of its frame before the first test, and this reads it
+ * from there in place of working it out every iteration. If working it out
+ * fails the slot holds the error instead, and it is thrown from here the
+ * first time the loop reads the slot, so it comes when and where it always
+ * would have, and not at all if nothing reads it.
+ */
+public class Hoisted implements Expression {
+
+	private Expression exp;
+	private int slot;
+
+    public Hoisted(Expression exp, int slot)
+	{
+		this.exp = exp;
+		this.slot = slot;
+	}
+
+    public Expression getExpression() {
+        return exp;
+    }
+
+    public void setExpression(Expression exp) {
+        this.exp = exp;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public String getName() {
+        // never a Footle identifier, so it can't clash with one
+        return "$invariant" + slot;
+    }
+
+    public void hoist(Frame frame) throws ReturnException
+	{
+		// only what a pure expression can fail with is put off, anything
+		// else is a fault in the interpreter and goes on up as it is
+		Value val;
+		try
+		{
+			val = exp.evaluate(frame);
+		}
+		catch (TypeException e)
+		{
+			val = new Deferred(e);
+		}
+		catch (UnboundIdentifierException e)
+		{
+			val = new Deferred(e);
+		}
+		catch (IndexOutOfBoundsException e)
+		{
+			val = new Deferred(e);
+		}
+		frame.set(slot, val);
+	}
+
+	public Environment getValue(Environment environment) throws ReturnException,
+		TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+	public Value evaluate(Frame frame) throws ReturnException,
+		TypeException, UnboundIdentifierException {
+		Value val = frame.get(slot);
+		if (val instanceof Deferred)
+		{
+			((Deferred)val).rethrow();
+		}
+		if (val != null)
+		{
+			return val;
+		}
+		return exp.evaluate(frame);
+	}
+
+    public String toString()
+    {
+        return "(Hoisted " + slot + " " + exp + ")";
+    }
+
+    /**
+     * What a slot holds when working its expression out failed: the error,
+     * kept to be thrown again by the first read.
+     */
+    private static class Deferred implements Value {
+
+		private Exception error;
+
+	    public Deferred(Exception error)
+		{
+			this.error = error;
+		}
+
+	    public void rethrow() throws TypeException, UnboundIdentifierException
+		{
+			if (error instanceof TypeException)
+			{
+				throw (TypeException)error;
+			}
+			if (error instanceof UnboundIdentifierException)
+			{
+				throw (UnboundIdentifierException)error;
+			}
+			throw (RuntimeException)error;
+		}
+
+		public boolean isType(Value val) {
+			return val instanceof Deferred;
+		}
+
+		public Environment getValue(Environment environment) throws TypeException,
+			UnboundIdentifierException {
+			rethrow();
+			return environment;
+		}
+
+		public Value evaluate(Frame frame) throws TypeException, UnboundIdentifierException {
+			rethrow();
+			return this;
+		}
+    }
+}
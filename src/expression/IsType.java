@@ -2,8 +2,8 @@ package expression;
 
 import value.BoolValue;
 import value.Value;
-import value.IdValue;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -21,28 +21,30 @@ public class IsType implements Expression {
 		this.value = exp;
 	}
 
+    public Class<? extends Value> getType() {
+        return type;
+    }
+
+    public Expression getExp() {
+        return value;
+    }
+
+    public void setExp(Expression value) {
+        this.value = value;
+    }
+
     @Testable
 	public Environment getValue(Environment environment)
 			throws ReturnException, TypeException, UnboundIdentifierException {
-		if(value instanceof IdValue)
-        {
-            String name = ((IdValue)value).getInternalValue();
-			Environment environ = Environment.findIDInList(name, environment);
-			// check for null
-			if (environ != null)
-			{
-				value = environ.value;
-			}
-			else
-			{
-				throw new UnboundIdentifierException();
-			}
-        }
-        Environment nEnv = value.getValue(environment);
-		Value val = nEnv.value;
-		nEnv = nEnv.next;
-
-		return new Environment(nEnv, null, new BoolValue(val.getClass() == type));
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
+		Value val = value.evaluate(frame);
+
+		return BoolValue.valueOf(val.getClass() == type);
 	}
 
     public String toString()
@@ -1,12 +1,12 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
 import test.Testable;
 import value.BoolValue;
-import value.IdValue;
 import value.Value;
 
 public class Not implements Expression {
@@ -23,27 +23,19 @@ public class Not implements Expression {
         return one;
     }
 
+    public void setOne(Expression one) {
+        this.one = one;
+    }
+
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException {
-		Environment nEnv = one.getValue(environment);
-		Value leftSide = nEnv.value;
-		nEnv = nEnv.next;
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, TypeException, UnboundIdentifierException {
+		Value leftSide = one.evaluate(frame);
 		
-		// check to see if one of them is an ID
-		if (leftSide instanceof IdValue)
-		{
-			String name = ((IdValue)leftSide).getInternalValue();
-			Environment environ = Environment.findIDInList(name, nEnv);
-			// check for null
-			if (environ != null)
-			{
-				leftSide = environ.value;
-			}
-			else
-			{
-				throw new UnboundIdentifierException();
-			}
-		}
 		// now check to make sure its a bool
 		if (!(leftSide instanceof BoolValue))
 		{
@@ -52,7 +44,7 @@ public class Not implements Expression {
 		
 		boolean ls = ((BoolValue)leftSide).getInternalValue();
 			
-		return new Environment(environment, null, new BoolValue(!ls));
+		return BoolValue.valueOf(!ls);
 	}
 
     public String toString()
@@ -1,9 +1,9 @@
 package expression;
 
-import value.ClosureValue;
 import value.IdValue;
 import value.Value;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -28,53 +28,40 @@ public class OpAssign implements Expression{
     public Expression getRVal() {
     	return right;
     }
+
+    public void setRVal(Expression right) {
+    	this.right = right;
+    }
     
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException {
-		// the returned value for the left should be an ID
-		Environment newEnv = left.getValue(environment);
-		Value leftVal = newEnv.value;
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, TypeException, UnboundIdentifierException {
+		// fields are assigned straight into the object's slot
+		if (left instanceof OpField)
+		{
+			return ((OpField)left).assign(frame, right);
+		}
 		
-		// pop top off
-		newEnv = newEnv.next;
+		// the left should give back an ID, a bare one is already a reference
+		Value leftVal = (left instanceof IdValue) ? (IdValue)left : left.evaluate(frame);
 		
 		// if type isn't ID then error
-		
 		if (!(leftVal instanceof IdValue))
 		{
-			//throw new TypeException();
-			// assign directly to the value
-			// mutate the value and return
-			Environment nEnv = right.getValue(newEnv.next);
-			newEnv.value = nEnv.value;
-			// return a reference to what we assigned...
-			return new Environment(environment, "", newEnv.value);
+			throw new TypeException();
 		}
 		
-		
-		
-		String name = ((IdValue)leftVal).getInternalValue();
-		Environment environ = Environment.findIDInList(name, newEnv);
-		if (environ != null)
-		{
-			// mutate the value and return
-			newEnv = right.getValue(newEnv);
-			environ.value = newEnv.value;
-			
-			// check to see if its a closure
-			if (environ.value instanceof ClosureValue)
-			{
-				((ClosureValue)environ.value).setEnvironment(newEnv.next);
-			}
-			
-			// return a reference to what we assigned...
-			return new Environment(newEnv.next, name, new IdValue(name));
-		}
-		else
+		// mutate the value and return what we assigned
+		Value val = right.evaluate(frame);
+		if (!frame.assign((IdValue)leftVal, val))
 		{
 			throw new UnboundIdentifierException();
 		}
-
+		return val;
 	}
 
     public String toString()
@@ -8,6 +8,7 @@ public class OpDivide implements Expression {
 	
 	private Expression one;
 	private Expression two;
+	private int state = Specialization.UNINITIALIZED;
 
     @Testable
 	public OpDivide()
@@ -26,50 +27,70 @@ public class OpDivide implements Expression {
         return one;
     }
 
+    public void setOne(Expression one) {
+        this.one = one;
+    }
+
     public Expression getTwo() {
         return two;
     }
 
+    public void setTwo(Expression two) {
+        this.two = two;
+    }
+
+    public int getState() {
+        return state;
+    }
+
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException {
-		Environment nEnv = one.getValue(environment);
-		Value leftSide = nEnv.value;
-		nEnv = nEnv.next;
-
-		nEnv = two.getValue(nEnv);
-		Value rightSide = nEnv.value;
-		nEnv = nEnv.next;
+		return Frame.adapt(this, environment);
+	}
 
-		// check to see if one of them is an ID
-		if (leftSide instanceof IdValue)
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, TypeException, UnboundIdentifierException {
+		Value leftSide = one.evaluate(frame);
+		Value rightSide = two.evaluate(frame);
+		
+		// once specialized, a guard and the primitive op is all it takes
+		switch (state)
 		{
-			String name = ((IdValue)leftSide).getInternalValue();
-			Environment environ = Environment.findIDInList(name, nEnv);
-			// check for null
-			if (environ != null)
-			{
-				leftSide = environ.value;
-            }
-			else
+		case Specialization.INT:
+			if (leftSide instanceof IntValue && rightSide instanceof IntValue)
 			{
-				throw new UnboundIdentifierException();
+				int rs = ((IntValue)rightSide).getInternalValue();
+				if (rs == 0)
+				{
+					throw new TypeException();
+				}
+				return new FloatValue(((IntValue)leftSide).getInternalValue() / rs);
 			}
-		}
-		if (rightSide instanceof IdValue)
-		{
-			String name = ((IdValue)rightSide).getInternalValue();
-			Environment environ = Environment.findIDInList(name, nEnv);
-			// check for null
-			if (environ != null)
+			break;
+		case Specialization.FLOAT:
+			if (leftSide instanceof FloatValue && rightSide instanceof FloatValue)
 			{
-				rightSide = environ.value;
-            }
-			else
-			{
-				throw new UnboundIdentifierException();
+				float rs = ((FloatValue)rightSide).getInternalValue();
+				if (rs == 0)
+				{
+					throw new TypeException();
+				}
+				return new FloatValue(((FloatValue)leftSide).getInternalValue() / rs);
 			}
+			break;
+		case Specialization.UNINITIALIZED:
+			state = Specialization.select(leftSide, rightSide);
+			return generic(leftSide, rightSide);
+		default:
+			return generic(leftSide, rightSide);
 		}
+		
+		// the guard failed, so stop guessing
+		state = Specialization.GENERIC;
+		return generic(leftSide, rightSide);
+	}
 
+    public static Value generic(Value leftSide, Value rightSide) throws TypeException {
 		// now do the op
 		if (leftSide instanceof FloatValue || rightSide instanceof FloatValue)
 		{
@@ -109,7 +130,7 @@ public class OpDivide implements Expression {
             }
             else
             {
-                return new Environment(environment, null, new FloatValue(ls / rs));
+                return new FloatValue(ls / rs);
             }
         }
 		else if (leftSide instanceof IntValue && rightSide instanceof IntValue)
@@ -122,7 +143,7 @@ public class OpDivide implements Expression {
             }
             else
             {
-                return new Environment(environment, null, new FloatValue(ls / rs));
+                return new FloatValue(ls / rs);
             }
 		}
 		else
@@ -5,6 +5,7 @@ import value.IntValue;
 import value.StringValue;
 import value.Value;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -26,29 +27,40 @@ public class OpEquals implements Expression {
         return left;
     }
 
+    public void setLeft(Expression left) {
+        this.left = left;
+    }
+
     public Expression getRight() {
         return right;
     }
 
+    public void setRight(Expression right) {
+        this.right = right;
+    }
+
     @Testable
 	public Environment getValue(Environment environment)
 			throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
 		
-		Environment nEnv = left.getValue(environment);
-		Value leftVal = nEnv.value;
-		nEnv = nEnv.next;
-		
-		nEnv = right.getValue(environment);
-		Value rightVal = nEnv.value;
-		nEnv = nEnv.next;
-		
-		leftVal = Environment.checkForID(leftVal, nEnv);
-		rightVal = Environment.checkForID(rightVal, nEnv);
+		Value leftVal = left.evaluate(frame);
+		Value rightVal = right.evaluate(frame);
 		
+		return equal(leftVal, rightVal);
+	}
+
+    public static Value equal(Value leftVal, Value rightVal)
+	{
 		// check to make sure its not a string
 		if (leftVal instanceof StringValue)
 		{
-			return new Environment(nEnv, null, new BoolValue(false));
+			return BoolValue.valueOf(false);
 		}
 		
 		// check to make sure the values are the same type
@@ -62,11 +74,11 @@ public class OpEquals implements Expression {
 				int two = ((IntValue)rightVal).getInternalValue();
 				val = (one == two);
 			}
-			return new Environment(nEnv, null, new BoolValue(val));
+			return BoolValue.valueOf(val);
 		}
 		else
 		{
-			return new Environment(nEnv, null, new BoolValue(false));
+			return BoolValue.valueOf(false);
 		}
 		
 	}
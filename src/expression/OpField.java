@@ -1,6 +1,7 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -15,6 +16,7 @@ public class OpField implements Expression {
 	private Expression assign;
 	private Expression left;
 	private Expression right;
+	private FieldCache cache;
 
     @Testable
     public OpField(Expression obj, String name, Expression assign)
@@ -22,91 +24,75 @@ public class OpField implements Expression {
 		object = obj;
 		this.name = name;
 		this.assign = assign;
+		cache = new FieldCache();
 	}
     
     public OpField(Expression left, Expression right)
     {
     	this.left = left;
     	this.right = right;
+    	cache = new FieldCache();
+    }
+
+    public Expression getLeft() {
+        return left;
+    }
+
+    public void setLeft(Expression left) {
+        this.left = left;
+    }
+
+    public Expression getRight() {
+        return right;
+    }
+
+    public FieldCache getCache() {
+        return cache;
     }
 
     @Testable
 	public Environment getValue(Environment environment)
 			throws ReturnException, TypeException, UnboundIdentifierException {
-    	
-    	Environment newEnv = left.getValue( environment);
-		Value obj = newEnv.value;
-		obj = Environment.checkForID(obj, newEnv.next);
-		
-		newEnv = right.getValue(environment);
-		Value rightSide = newEnv.value;
-		//rightSide = Environment.checkForID(rightSide, newEnv.next);
-		
-		if (obj instanceof value.Object && rightSide instanceof IdValue)
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
+		value.Object refObject = target(frame);
+		int slot = cache.slot(refObject.getShape(), ((IdValue)right).getInternalValue());
+		if (slot >= 0)
 		{
-			value.Object refObject= (value.Object)obj;
-			Environment env = refObject.getField(((IdValue)rightSide).getInternalValue());
-			if (env != null)
-			{
-				// hope it works?
-				return new Environment(env, null, env.value);
-			}
-			else
-			{
-				throw new TypeException();
-			}
+			return refObject.getSlot(slot);
 		}
-		else
+		return refObject.getField(((IdValue)right).getInternalValue());
+	}
+
+    public Value assign(Frame frame, Expression val)
+			throws ReturnException, TypeException, UnboundIdentifierException {
+		// the object is worked out before the value, as it always has been
+		value.Object refObject = target(frame);
+		Value assigned = val.evaluate(frame);
+		int slot = cache.slot(refObject.getShape(), ((IdValue)right).getInternalValue());
+		if (slot >= 0)
 		{
-			throw new TypeException();
+			refObject.setSlot(slot, assigned);
 		}
-		
-		/*
-		Environment newEnv = object.getValue(environment);
-		Value obj = newEnv.value;
-		
-		obj = Environment.checkForID(obj, newEnv.next);
-		
-		//check to make sure its an object
-		if (obj instanceof value.Object)
+		else
 		{
-			value.Object refObject = (value.Object)obj;
-			// check to see if this is a ref, or a mutate
-			if (assign == null)
-			{
-				// ref, return value
-				Environment env = refObject.getField(name);
-				if (env != null)
-				{
-					// hope it works?
-					return new Environment(env, null, env.value);
-				}
-				else
-				{
-					throw new TypeException();
-				}
-			}
-			else
-			{
-				// mutate
-				newEnv = assign.getValue(newEnv);
-				Environment env = refObject.getField(name);
-				if (env != null)
-				{
-					env.value = newEnv.value;
-					return new Environment(newEnv.next, null, newEnv.value);
-				}
-				else
-				{
-					throw new TypeException();
-				}
-			}
+			refObject.addField(((IdValue)right).getInternalValue(), assigned);
 		}
-		else
+		return assigned;
+	}
+
+    private value.Object target(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
+		Value obj = left.evaluate(frame);
+		if (obj instanceof value.Object && right instanceof IdValue)
 		{
-			throw new TypeException();
+			return (value.Object)obj;
 		}
-		*/
+		throw new TypeException();
 	}
 
     public String toString()
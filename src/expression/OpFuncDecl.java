@@ -1,21 +1,28 @@
 package expression;
 
 import value.Function;
+import value.Value;
 import value.VoidValue;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
+import Interpreter.Symbols;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
 import test.Testable;
 
 public class OpFuncDecl implements Expression {
 	
 	private Function func;
 	private String name;
+	private int framenum;
 
     @Testable
     public OpFuncDecl(Function func, String name)
 	{
 		this.func = func;
-		this.name = name;
+		this.name = Symbols.intern(name);
+		framenum = -1;
 	}
     
     public String getFuncName() {
@@ -30,13 +37,33 @@ public class OpFuncDecl implements Expression {
         this.func = func;
     }
 
+    public void setFrameNum(int num) {
+    	framenum = num;
+    }
+    
+    public int getFrameNum() {
+    	return framenum;
+    }
+
+    @Testable
+	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
     @Testable
-	public Environment getValue(Environment environment) throws ReturnException {
-		// add the function to the environment
-		Environment nEnv = new Environment(environment, name, func);
+	public Value evaluate(Frame frame) throws ReturnException {
+		// add the function to the frame
+		if (framenum >= 0 && framenum < frame.size())
+		{
+			frame.set(framenum, func);
+		}
+		else
+		{
+			frame.bind(name, func);
+		}
 		
 		// add dummy val
-		return new Environment(nEnv, null, new VoidValue());
+		return VoidValue.VOID;
 	}
 
     public String toString()
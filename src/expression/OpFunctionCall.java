@@ -1,6 +1,7 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -9,19 +10,24 @@ import value.ClosureValue;
 import value.Function;
 import value.IdValue;
 import value.Value;
+import value.VoidValue;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class OpFunctionCall implements Expression {
 	
 	private IdValue name;
 	private List<Expression> args;
+	private CallSiteCache cache;
+	private boolean tailCall;
 
     @Testable
     public OpFunctionCall(IdValue name, List<Expression> args)
 	{
 		this.name = name;
 		this.args = args;
+		cache = new CallSiteCache();
 	}
 
     public IdValue getName() {
@@ -40,49 +46,66 @@ public class OpFunctionCall implements Expression {
         this.args = args;
     }
 
+    public CallSiteCache getCache() {
+        return cache;
+    }
+
+    public boolean isTailCall() {
+        return tailCall;
+    }
+
+    public void setTailCall(boolean tailCall) {
+        this.tailCall = tailCall;
+    }
+
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, 
 		TypeException, UnboundIdentifierException {
-		// Get Function
-		Environment func = Environment.findIDInList(name.getInternalValue(), 
-				environment);
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, 
+		TypeException, UnboundIdentifierException {
+		// Get Function, through the cache for this call site
+		Frame home = cache.home(name, frame);
+		Value func = cache.callee(name, frame, home);
 		// check for null
 		if (func == null)
 		{
 			throw new TypeException();
 		}
-		// check to make sure its a function
-		if (!(func.value instanceof Function) && !(func.value instanceof ClosureValue))
-		{
-			throw new TypeException();
-		}
-		Function function;
-		Environment nEnv;
-		if (func.value instanceof ClosureValue)
+		Function function = cache.target(func);
+		function.warm();
+		Environment dynamic;
+		Frame definition;
+		if (func instanceof ClosureValue)
 		{
-			function = ((ClosureValue)func.value).getIntFunc();
-			nEnv = ((ClosureValue)func.value).getEnvironment();
+			dynamic = ((ClosureValue)func).getEnvironment();
+			definition = ((ClosureValue)func).getFrame();
 		}
 		else
 		{
-			function = (Function)func.value;
-			nEnv = environment;
+			dynamic = frame.getDynamic();
+			// a declared function's body hangs off the frame it was declared in
+			definition = (home != null) ? home : frame;
 		}
-		// Add args to environment
-		List<String> argNames = function.getParamList();
-		for (int i = 0; i < args.size(); i++)
+		// Evaluate args in the caller's frame
+		List<Value> argVals = new ArrayList<Value>(args.size());
+		for (Expression arg : args)
 		{
-			nEnv = args.get(i).getValue(nEnv);
-			Value temp = nEnv.value;
-			nEnv = nEnv.next;
-			nEnv = new Environment(nEnv, argNames.get(i), temp);
+			argVals.add(arg.evaluate(frame));
 		}
 		
-		// now call the function
-		nEnv = function.getValue(nEnv);
-		
-		/// pull off the return type
-		return new Environment(environment, null, nEnv.value);
+		// now call the function, or in tail position leave the call for the
+		// Function.evaluate below us to make
+		Frame activation = function.newActivation(definition, dynamic, argVals);
+		if (tailCall)
+		{
+			frame.setTailCall(function, activation);
+			return VoidValue.VOID;
+		}
+		return function.evaluate(activation);
 	}
 
     public String toString()
@@ -2,6 +2,7 @@ package expression;
 
 import value.*;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -11,6 +12,7 @@ public class OpGTE implements Expression {
 	
 	private Expression one;
 	private Expression two;
+	private int state = Specialization.UNINITIALIZED;
 
     @Testable
     public OpGTE()
@@ -29,50 +31,62 @@ public class OpGTE implements Expression {
         return one;
     }
 
+    public void setOne(Expression one) {
+        this.one = one;
+    }
+
     public Expression getTwo() {
         return two;
     }
 
+    public void setTwo(Expression two) {
+        this.two = two;
+    }
+
+    public int getState() {
+        return state;
+    }
+
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException {
-		Environment nEnv = one.getValue(environment);
-		Value leftSide = nEnv.value;
-		nEnv = nEnv.next;
-
-		nEnv = two.getValue(nEnv);
-		Value rightSide = nEnv.value;
-		nEnv = nEnv.next;
+		return Frame.adapt(this, environment);
+	}
 
-		// check to see if one of them is an ID
-		if (leftSide instanceof IdValue)
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, TypeException, UnboundIdentifierException {
+		Value leftSide = one.evaluate(frame);
+		Value rightSide = two.evaluate(frame);
+		
+		// once specialized, a guard and the primitive op is all it takes
+		switch (state)
 		{
-			String name = ((IdValue)leftSide).getInternalValue();
-			Environment environ = Environment.findIDInList(name, nEnv);
-			// check for null
-			if (environ != null)
-			{
-				leftSide = environ.value;
-            }
-			else
+		case Specialization.INT:
+			if (leftSide instanceof IntValue && rightSide instanceof IntValue)
 			{
-				throw new UnboundIdentifierException();
+				return BoolValue.valueOf(((IntValue)leftSide).getInternalValue()
+						>= ((IntValue)rightSide).getInternalValue());
 			}
-		}
-		if (rightSide instanceof IdValue)
-		{
-			String name = ((IdValue)rightSide).getInternalValue();
-			Environment environ = Environment.findIDInList(name, nEnv);
-			// check for null
-			if (environ != null)
+			break;
+		case Specialization.FLOAT:
+			if (leftSide instanceof FloatValue && rightSide instanceof FloatValue)
 			{
-				rightSide = environ.value;
-            }
-			else
-			{
-				throw new UnboundIdentifierException();
+				return BoolValue.valueOf(((FloatValue)leftSide).getInternalValue()
+						>= ((FloatValue)rightSide).getInternalValue());
 			}
+			break;
+		case Specialization.UNINITIALIZED:
+			state = Specialization.select(leftSide, rightSide);
+			return generic(leftSide, rightSide);
+		default:
+			return generic(leftSide, rightSide);
 		}
+		
+		// the guard failed, so stop guessing
+		state = Specialization.GENERIC;
+		return generic(leftSide, rightSide);
+	}
 
+    public static Value generic(Value leftSide, Value rightSide) throws TypeException {
 		// now do the op
 		if (leftSide instanceof FloatValue || rightSide instanceof FloatValue)
 		{
@@ -107,14 +121,14 @@ public class OpGTE implements Expression {
                 throw new TypeException();
             }
 
-            return new Environment(environment, null, new BoolValue(ls >= rs));
+            return BoolValue.valueOf(ls >= rs);
 		}
 		else if (leftSide instanceof IntValue && rightSide instanceof IntValue)
 		{
 			int ls = ((IntValue)leftSide).getInternalValue();
 			int rs = ((IntValue)rightSide).getInternalValue();
 
-			return new Environment(environment, null, new BoolValue(ls >= rs));
+			return BoolValue.valueOf(ls >= rs);
 		}
 		else
         {
@@ -1,10 +1,10 @@
 package expression;
 
 import value.BoolValue;
-import value.IdValue;
 import value.Value;
 import value.VoidValue;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -28,56 +28,54 @@ public class OpIfElse implements Expression {
         return test;
     }
 
+    public void setTest(Expression test) {
+        this.test = test;
+    }
+
     public Expression getFirst() {
         return first;
     }
 
+    public void setFirst(Expression first) {
+        this.first = first;
+    }
+
     public Expression getSecond() {
         return second;
     }
 
+    public void setSecond(Expression second) {
+        this.second = second;
+    }
+
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, 
 		TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, 
+		TypeException, UnboundIdentifierException {
     	
 		// Test the expression to see if its true or false
-		Environment tempEnv = test.getValue(environment);
-		Value check = tempEnv.value;
-		tempEnv = tempEnv.next;
-		
-		// check for ID
-		if (check instanceof IdValue)
-		{
-			String name = ((IdValue)check).getInternalValue();
-			Environment environ = Environment.findIDInList(name, tempEnv);
-			// check for null
-			if (environ != null)
-			{
-				check = environ.value;
-			}
-			else
-			{
-				throw new UnboundIdentifierException();
-			}
-		}
+		Value check = test.evaluate(frame);
 		
 		// now do if check
 		if (((BoolValue)check).getInternalValue())
 		{
-			tempEnv = first.getValue(tempEnv);
-			tempEnv = tempEnv.next;
+			first.evaluate(frame);
 		}
 		else
 		{
 			// if the second seq is a null, only and if check
 			if (second != null)
 			{
-				tempEnv = second.getValue(tempEnv);
-				tempEnv = tempEnv.next;
+				second.evaluate(frame);
 			}
 		}
 		
-		return new Environment(tempEnv, null, new VoidValue());
+		return VoidValue.VOID;
 	}
 
     public String toString()
@@ -3,6 +3,7 @@ package expression;
 import value.BoolValue;
 import value.Value;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -23,16 +24,22 @@ public class OpInstanceOf implements Expression {
     @Testable
 	public Environment getValue(Environment environment)
 			throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
 		
 		// check for an constructor
 		if (obj.doesFieldExist("constructor") 
-				&& val.equals(obj.getField("constructor").value))
+				&& val.equals(obj.getField("constructor")))
 		{
 			// TRUE
-			return new Environment(environment, null, new BoolValue(true));
+			return BoolValue.valueOf(true);
 		}
 		// return false
-		return new Environment(environment, null, new BoolValue(false));
+		return BoolValue.valueOf(false);
 	}
 
     public String toString()
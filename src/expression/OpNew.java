@@ -1,32 +1,49 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
 import test.Testable;
 import value.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class OpNew implements Expression {
 	
 	private List<Expression> args;
 	private IdValue fnc;
+	private CallSiteCache cache;
+	// the shape the last object made here ended up with
+	private Shape built;
 
     @Testable
     public OpNew(IdValue func, List<Expression> args)
 	{
 		this.fnc = func;
 		this.args = args;
+		cache = new CallSiteCache();
+		built = Shape.EMPTY;
 	}
 
     @Testable
 	public Environment getValue(Environment environment)
 			throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
 		
-    	Environment env = Environment.findIDInList(fnc.getInternalValue(), environment);
-    	Value funcval = env.value;
+    	Frame home = cache.home(fnc, frame);
+    	Value funcval = cache.callee(fnc, frame, home);
+    	if (funcval == null)
+    	{
+    		throw new UnboundIdentifierException();
+    	}
 
     	// check to see if it is a function
 		if (!(funcval instanceof Function))
@@ -36,21 +53,17 @@ public class OpNew implements Expression {
 		
 		
 		
-		// Add args to environment
-		Environment nEnv = environment;
-		List<String> argNames = ((Function)funcval).getParamList();
-		for (int i = 0; i < args.size(); i++)
+		// Evaluate args in the caller's frame
+		List<Value> argVals = new ArrayList<Value>(args.size());
+		for (Expression arg : args)
 		{
-			nEnv = args.get(i).getValue(nEnv);
-			Value temp = nEnv.value;
-			nEnv = nEnv.next;
-			nEnv = new Environment(nEnv, argNames.get(i), temp);
+			argVals.add(arg.evaluate(frame));
 		}
 		
 		// now call the function
-		nEnv = ((Function)funcval).getValue(nEnv);
-		Value val = nEnv.value;
-		nEnv = environment;
+		Function func = (Function)funcval;
+		Value val = func.evaluate(func.newActivation((home != null) ? home : frame,
+				frame.getDynamic(), argVals));
 		
 		// check to see if its a closure
 		if (!(val instanceof ClosureValue))
@@ -59,18 +72,34 @@ public class OpNew implements Expression {
 		}
 		
 		
-		PlainObject obj = new PlainObject();
+		// the constructor most likely gives this one the same fields as the
+		// last, so it starts with room for them
+		PlainObject obj = new PlainObject(built);
 		obj.addField("constructor", val);
 		
 		// call closure
-		nEnv = ((ClosureValue)val).getEnvironment();
-		nEnv = new Environment(nEnv, "this", obj);
-		//nEnv = val.getValue(nEnv);
-		nEnv = ((ClosureValue)val).getIntFunc().getValue(nEnv);
+		ClosureValue closure = (ClosureValue)val;
+		Frame nFrame = closure.getIntFunc().newActivation(closure.getFrame(),
+				closure.getEnvironment(), new ArrayList<Value>());
+		nFrame.bind("this", obj);
+		closure.getIntFunc().evaluate(nFrame);
+		built = obj.getShape();
 		
-		return new Environment(environment, null, obj);
+		return obj;
 	}
 
+    public IdValue getName() {
+        return fnc;
+    }
+
+    public List<Expression> getArgs() {
+        return args;
+    }
+
+    public CallSiteCache getCache() {
+        return cache;
+    }
+
     public String toString()
     {
         String s = "(OpNew " + fnc;
@@ -4,6 +4,7 @@ import value.BoolValue;
 import value.StringValue;
 import value.Value;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -21,19 +22,34 @@ public class OpStringEqual implements Expression {
 		this.right = right;
 	}
 
+    public Expression getLeft() {
+        return left;
+    }
+
+    public void setLeft(Expression left) {
+        this.left = left;
+    }
+
+    public Expression getRight() {
+        return right;
+    }
+
+    public void setRight(Expression right) {
+        this.right = right;
+    }
+
     @Testable
 	public Environment getValue(Environment environment)
 			throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
 		
-		Environment nEnv = left.getValue(environment);
-		Value leftVal = nEnv.value;
-		nEnv = nEnv.next;
-		nEnv = right.getValue(nEnv);
-		Value rightVal = nEnv.value;
-		nEnv = nEnv.next;
-		
-		leftVal = Environment.checkForID(leftVal, nEnv);
-		rightVal = Environment.checkForID(rightVal, nEnv);
+		Value leftVal = left.evaluate(frame);
+		Value rightVal = right.evaluate(frame);
 		
 		// check to make sure they are strings
 		if (!(leftVal instanceof StringValue) 
@@ -42,10 +58,7 @@ public class OpStringEqual implements Expression {
 			throw new TypeException();
 		}
 		
-		String one = ((StringValue)leftVal).getInternalValue();
-		String two = ((StringValue)rightVal).getInternalValue();
-		
-		return new Environment(nEnv, null, new BoolValue(one.equals(two)));
+		return BoolValue.valueOf(((StringValue)leftVal).contentEquals((StringValue)rightVal));
 	}
 
     public String toString()
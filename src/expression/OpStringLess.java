@@ -4,6 +4,7 @@ import value.BoolValue;
 import value.StringValue;
 import value.Value;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -21,18 +22,33 @@ public class OpStringLess implements Expression {
 		this.right = right;
 	}
 
+    public Expression getLeft() {
+        return left;
+    }
+
+    public void setLeft(Expression left) {
+        this.left = left;
+    }
+
+    public Expression getRight() {
+        return right;
+    }
+
+    public void setRight(Expression right) {
+        this.right = right;
+    }
+
     @Testable
 	public Environment getValue(Environment environment)
 			throws ReturnException, TypeException, UnboundIdentifierException {
-		Environment nEnv = left.getValue(environment);
-		Value leftVal = nEnv.value;
-		nEnv = nEnv.next;
-		nEnv = right.getValue(nEnv);
-		Value rightVal = nEnv.value;
-		nEnv = nEnv.next;
-		
-		leftVal = Environment.checkForID(leftVal, nEnv);
-		rightVal = Environment.checkForID(rightVal, nEnv);
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
+		Value leftVal = left.evaluate(frame);
+		Value rightVal = right.evaluate(frame);
 		
 		// check to make sure they are strings
 		if (!(leftVal instanceof StringValue) 
@@ -41,8 +57,8 @@ public class OpStringLess implements Expression {
 			throw new TypeException();
 		}
 		
-		String one = ((StringValue)leftVal).getInternalValue();
-		String two = ((StringValue)rightVal).getInternalValue();
+		StringValue one = (StringValue)leftVal;
+		StringValue two = (StringValue)rightVal;
 		
 		// check using for loop
 		for (int i=0; i < one.length(); i++)
@@ -54,12 +70,12 @@ public class OpStringLess implements Expression {
 			}
 			else
 			{
-				return new Environment(nEnv, null, new BoolValue(false));
+				return BoolValue.valueOf(false);
 			}
 		}
 		
 		// If we get here the first was less tha the second
-		return new Environment(nEnv, null, new BoolValue(true));
+		return BoolValue.valueOf(true);
 	}
 
     public String toString()
@@ -1,8 +1,14 @@
 package expression;
 
 import value.IdValue;
+import value.Value;
 import value.VoidValue;
 import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.ReturnException;
+import Interpreter.Symbols;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
 import test.Testable;
 
 public class OpVarDecl implements Expression {
@@ -14,9 +20,9 @@ public class OpVarDecl implements Expression {
     @Testable
     public OpVarDecl(String name)
 	{
-		this.name = name;
-		framecnt = 0;
-		framenum = 0;
+		this.name = Symbols.intern(name);
+		framecnt = -1;
+		framenum = -1;
 	}
 
     public String getName() {
@@ -24,7 +30,7 @@ public class OpVarDecl implements Expression {
     }
 
     public void setName(String name) {
-        this.name = name;
+        this.name = Symbols.intern(name);
     }
 
     public void setFrameCnt(int cnt) {
@@ -44,15 +50,29 @@ public class OpVarDecl implements Expression {
     }
 
     @Testable
-	public Environment getValue(Environment environment) {
-		// Add the new environment, and then a reference to the value
-		Environment newEnv = new Environment(environment, name, new VoidValue());
-		
-		// now add the dummy ID ref
+	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) {
+		// resolved names live in their frame's slot, only the rest need a
+		// binding by name
 		IdValue temp = new IdValue(name);
+		if (framenum >= 0 && framenum < frame.size())
+		{
+			frame.set(framenum, VoidValue.VOID);
+			// it went in the current frame, so the ref points straight at it
+			temp.setFrameCnt(0);
+			temp.setFrameNum(framenum);
+		}
+		else
+		{
+			frame.bind(name, VoidValue.VOID);
+		}
 		
-		// now push the id ref on front and return
-		return new Environment(newEnv, null, temp);
+		// hand back the id ref for an assignment to use
+		return temp;
 	}
 
     public String toString()
@@ -1,59 +1,85 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
 import test.Testable;
 import value.BoolValue;
-import value.IdValue;
+import value.Function;
 import value.Value;
 import value.VoidValue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class OpWhile implements Expression {
 	
 	private Expression test;
 	private Expression sequence;
+	// the function the loop is in, whose heat each iteration adds to
+	private Function function;
+	// worked out once before the loop starts, the pre-header
+	private List<Hoisted> invariants;
 
     @Testable
     public OpWhile(Expression exp, Expression seq)
 	{
 		test = exp;
 		sequence = seq;
+		invariants = new ArrayList<Hoisted>();
 	}
     
     public Expression getTest() {
     	return test;
     }
+
+    public void setTest(Expression test) {
+    	this.test = test;
+    }
     
     public Expression getBody() {
     	return sequence;
     }
 
+    public void setBody(Expression sequence) {
+    	this.sequence = sequence;
+    }
+
+    public Function getFunction() {
+    	return function;
+    }
+
+    public void setFunction(Function function) {
+    	this.function = function;
+    }
+
+    public List<Hoisted> getInvariants() {
+    	return invariants;
+    }
+
+    public void addInvariant(Hoisted invariant) {
+    	invariants.add(invariant);
+    }
+
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, 
 		TypeException, UnboundIdentifierException  {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, 
+		TypeException, UnboundIdentifierException  {
 		
-		// Test the expression to see if its true or false
-		Environment tempEnv = test.getValue(environment);
-		Value check = tempEnv.value;
-		tempEnv = tempEnv.next;
-		
-		// check for ID
-		if (check instanceof IdValue)
+		for (Hoisted invariant : invariants)
 		{
-			String name = ((IdValue)check).getInternalValue();
-			Environment environ = Environment.findIDInList(name, tempEnv);
-			// check for null
-			if (environ != null)
-			{
-				check = environ.value;
-			}
-			else
-			{
-				throw new UnboundIdentifierException();
-			}
+			invariant.hoist(frame);
 		}
+
+		// Test the expression to see if its true or false
+		Value check = test.evaluate(frame);
 		
 		// if not a bool value error
 		if (!(check instanceof BoolValue))
@@ -66,33 +92,26 @@ public class OpWhile implements Expression {
 		
 		while (keepGoing)
 		{
-			tempEnv = sequence.getValue(tempEnv);
-			tempEnv = tempEnv.next;
+			sequence.evaluate(frame);
+			if (frame.isReturning())
+			{
+				break;
+			}
+			if (function != null)
+			{
+				function.warm();
+			}
 			
-			tempEnv = test.getValue(tempEnv);
-			check = tempEnv.value;
-			tempEnv = tempEnv.next;
-			//TODO: make sure this works with Sequence (re-test)
-			// check for ID
-			if (check instanceof IdValue)
+			check = test.evaluate(frame);
+			if (!(check instanceof BoolValue))
 			{
-				String name = ((IdValue)check).getInternalValue();
-				Environment environ = Environment.findIDInList(name, tempEnv);
-				// check for null
-				if (environ != null)
-				{
-					check = environ.value;
-				}
-				else
-				{
-					throw new UnboundIdentifierException();
-				}
+				throw new TypeException();
 			}
 			
 			keepGoing = ((BoolValue)check).getInternalValue();
 		}
 			
-		return new Environment(tempEnv, null, new VoidValue());
+		return VoidValue.VOID;
 	}
 
     public String toString()
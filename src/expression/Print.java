@@ -2,6 +2,8 @@ package expression;
 
 import value.*;
 import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.Output;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -28,48 +30,45 @@ public class Print implements Expression {
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, 
 		TypeException, UnboundIdentifierException {
-		// print the value and return a new void pushed on top
-		Environment nEnv = value.getValue(environment);
-		Value printVal = nEnv.value;
-		nEnv = nEnv.next;
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, 
+		TypeException, UnboundIdentifierException {
+		// print the value and return a void
+		Value printVal = value.evaluate(frame);
 		
-		// check for ID
-		if (printVal instanceof IdValue)
-		{
-			String name = ((IdValue)printVal).getInternalValue();
-			Environment environ = Environment.findIDInList(name, nEnv);
-			// check for null
-			if (environ != null)
-			{
-				printVal = environ.value;
-			}
-			else
-			{
-				throw new TypeException();
-			}
-		}
+		print(printVal);
 		
-		// check check for type and print
+		// return
+		return VoidValue.VOID;
+	}
+
+    public static void print(Value printVal)
+	{
+		// check check for type and print, into the run's buffered output
+		Output out = Output.getStandard();
 		if (printVal instanceof IntValue)
 		{
-			System.out.println(((IntValue)printVal).getInternalValue());
+			out.print(((IntValue)printVal).getInternalValue());
+			out.println();
 		}
 		else if (printVal instanceof FloatValue)
 		{
-			System.out.println(((FloatValue)printVal).getInternalValue());
+			out.print(((FloatValue)printVal).getInternalValue());
+			out.println();
 		}
 		else if (printVal instanceof StringValue)
 		{
-			System.out.println(((StringValue)printVal).getInternalValue());
+			((StringValue)printVal).printTo(out);
+			out.println();
 		}
 		else if (printVal instanceof BoolValue)
 		{
-			System.out.println(((BoolValue)printVal).getInternalValue());
+			out.print(((BoolValue)printVal).getInternalValue());
+			out.println();
 		}
-		
-		
-		// return
-		return new Environment(environment, null, new VoidValue());
 	}
 
     public String toString()
@@ -1,14 +1,17 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.Input;
+import Interpreter.Output;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
 import test.Testable;
 import value.StringValue;
+import value.Value;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 
 public class ReadLine implements Expression {
 
@@ -20,20 +23,26 @@ public class ReadLine implements Expression {
 
     @Testable
 	public Environment getValue(Environment environment)
+			throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame)
 			throws ReturnException, TypeException {
 	    
-		// read in a line
-	    BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
-	    
+		// read in a line, from the one input the whole run shares
 	    String readLine = null;
 	    
 	    try {
-	    	readLine = br.readLine() + "\n";
+	    	// whatever's been printed should be out before we wait
+	    	Output.getStandard().flush();
+	    	readLine = Input.getStandard().readLine() + "\n";
 	    } catch (IOException e) {
 	        throw new TypeException();
 	    }
 
-		return new Environment(environment, null, new StringValue(readLine));
+		return StringValue.valueOf(readLine);
 	}
 
     public String toString()
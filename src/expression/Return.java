@@ -1,10 +1,12 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
 import test.Testable;
+import value.Value;
 
 public class Return implements Expression {
 	
@@ -26,9 +28,16 @@ public class Return implements Expression {
 
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, TypeException, UnboundIdentifierException {
 		
-		// throw a new expression with the value returned
-		throw new ReturnException(exp.getValue(environment).value);
+		// flag the frame, the statements above us stop when they see it
+		Value val = exp.evaluate(frame);
+		frame.setReturned(val);
+		return val;
 	}
 
     public String toString()
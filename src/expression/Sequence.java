@@ -1,13 +1,17 @@
 package expression;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
 import test.Testable;
+import value.Value;
 import value.VoidValue;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 
 public class Sequence implements Expression {
 	
@@ -16,7 +20,9 @@ public class Sequence implements Expression {
     @Testable
     public Sequence(List<Expression> expr)
 	{
-		expressions = expr;
+		// walked by index every time it runs, so no iterator gets made;
+		// the parser's linked lists are copied into one that's quick to index
+		expressions = (expr instanceof RandomAccess) ? expr : new ArrayList<Expression>(expr);
 	}
 
     public List<Expression> getExpressions() {
@@ -25,23 +31,22 @@ public class Sequence implements Expression {
 
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, UnboundIdentifierException, TypeException {
-		Environment tempEnv = new Environment(environment, null, new VoidValue());
-        if(expressions.isEmpty())
-        {
-            return tempEnv;
-        }
-        else
-        {
-            tempEnv = environment;
-            Environment ansEnv = null;
-            Environment t = null;
-            for (Expression expression : expressions) {
-                ansEnv = expression.getValue(tempEnv);
-                tempEnv = ansEnv.next;
-            }
+		return Frame.adapt(this, environment);
+	}
 
-            return new Environment(environment, null, new VoidValue());
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, UnboundIdentifierException, TypeException {
+        // anything bound by name in here goes away with the sequence
+        Environment saved = frame.getDynamic();
+        for (int i = 0, n = expressions.size(); i < n; i++) {
+            expressions.get(i).evaluate(frame);
+            if (frame.isReturning()) {
+                break;
+            }
         }
+        frame.setDynamic(saved);
+
+        return VoidValue.VOID;
     }
 
     public String toString()
@@ -0,0 +1,30 @@
+package expression;
+
+import value.FloatValue;
+import value.IntValue;
+import value.Value;
+
+/**
+ * The operand types an arithmetic or comparison node has settled on. A node
+ * starts UNINITIALIZED, picks INT or FLOAT from the first operands it sees
+ * and drops to GENERIC for good the first time that guess turns out wrong.
+ */
+public class Specialization {
+	public static final int UNINITIALIZED = 0;
+	public static final int INT = 1;
+	public static final int FLOAT = 2;
+	public static final int GENERIC = 3;
+
+    public static int select(Value left, Value right)
+	{
+		if (left instanceof IntValue && right instanceof IntValue)
+		{
+			return INT;
+		}
+		if (left instanceof FloatValue && right instanceof FloatValue)
+		{
+			return FLOAT;
+		}
+		return GENERIC;
+	}
+}
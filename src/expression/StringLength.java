@@ -4,6 +4,7 @@ import value.IntValue;
 import value.StringValue;
 import value.Value;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -19,22 +20,28 @@ public class StringLength implements Expression {
 		string = exp;
 	}
 
-    @SuppressWarnings({"UnusedAssignment"})
+    public Expression getString() {
+        return string;
+    }
+
+    public void setString(Expression string) {
+        this.string = string;
+    }
+
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, TypeException, UnboundIdentifierException {
 		
-		Environment nEnv = string.getValue(environment);
-		Value val = nEnv.value;
-		nEnv = nEnv.next;
-		
-		// check for an ID
-		val = Environment.checkForID(val, environment);
+		Value val = string.evaluate(frame);
 		
 		// check to see if its a string type
-		if (nEnv != null && nEnv.value instanceof StringValue)
+		if (val instanceof StringValue)
 		{
-			String str = ((StringValue)nEnv.value).getInternalValue();
-			return new Environment(nEnv.next, null, new IntValue(str.length()));
+			return IntValue.valueOf(((StringValue)val).length());
 		}
 		else
 		{
@@ -4,6 +4,7 @@ import value.IntValue;
 import value.StringValue;
 import value.Value;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -23,44 +24,62 @@ public class SubString implements Expression {
 		this.end = end;
 	}
 
+    public Expression getString() {
+        return string;
+    }
+
+    public void setString(Expression string) {
+        this.string = string;
+    }
+
+    public Expression getStart() {
+        return start;
+    }
+
+    public void setStart(Expression start) {
+        this.start = start;
+    }
+
+    public Expression getEnd() {
+        return end;
+    }
+
+    public void setEnd(Expression end) {
+        this.end = end;
+    }
+
     @Testable
 	public Environment getValue(Environment environment)
 			throws ReturnException, TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
 		
-		Environment nEnv = string.getValue(environment);
-		Value val = nEnv.value;
-		nEnv = nEnv.next;
-		
-		// check for an ID
-		val = Environment.checkForID(val, nEnv);
+		Value val = string.evaluate(frame);
 		
-		// check to see if its a string or an ID
+		// check to see if its a string
 		if (!(val instanceof StringValue))
 		{
 			throw new TypeException();
 		}
 		
 		// now get the first number
-		nEnv = start.getValue(nEnv);
-		Value firstNum = nEnv.value;
-		nEnv = nEnv.next;
-		firstNum = Environment.checkForID(firstNum, nEnv);
+		Value firstNum = start.evaluate(frame);
 		
 		// now get the Second number
-		nEnv = start.getValue(nEnv);
-		Value secNum = nEnv.value;
-		nEnv = nEnv.next;
-		firstNum = Environment.checkForID(secNum, nEnv);
+		Value secNum = end.evaluate(frame);
 		
 		// make sure they are both ints
 		if (firstNum instanceof IntValue && secNum instanceof IntValue)
 		{
-			String string = ((StringValue)val).getInternalValue();
+			// a view onto the same characters, nothing copied
 			int beginIndex = ((IntValue)firstNum).getInternalValue();
 			int endIndex = ((IntValue)secNum).getInternalValue();
 			
-			return new Environment(nEnv, null, 
-					new StringValue(string.substring(beginIndex, endIndex)));
+			return ((StringValue)val).substring(beginIndex, endIndex);
 		}
 		else
 		{
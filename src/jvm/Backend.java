@@ -0,0 +1,199 @@
+package jvm;
+
+import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.ReturnException;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
+import expression.CallSiteCache;
+import expression.Expression;
+import expression.OpFunctionCall;
+import value.ClosureValue;
+import value.Function;
+import value.Value;
+import vm.Chunk;
+import vm.Compiler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a program as JVM code. Each function body is compiled to a chunk the
+ * way the VM would, the chunk is translated into a class of its own, and
+ * the class is loaded as a hidden class, so HotSpot treats it like any
+ * other code and compiles the hot ones. An eager backend gives functions
+ * their class the first time they're called, a lazy one only compiles what
+ * Tiers asks it to, and calls out of compiled code warm their callee the
+ * way OpFunctionCall does. A function whose class can't be made, because
+ * it came out too big, is left to the tree walker.
+ *
+ * An eager backend keeps the classes it makes, and is used by one thread at
+ * a time: CompiledScript has one of its own, dropped with the script, and
+ * its runs take turns. The lazy one Tiers shares between every thread keeps
+ * nothing; the code it makes hangs off the function it's for, as its
+ * compiled body, and goes when the tree does.
+ */
+public class Backend {
+	private static final AtomicInteger classes = new AtomicInteger();
+
+	private boolean eager;
+	private MethodHandles.Lookup lookup;
+	private Map<Function, CompiledChunk> compiled;
+	private Map<Expression, CompiledChunk> programs;
+
+    public Backend()
+	{
+		this(true);
+	}
+
+    public Backend(boolean eager)
+	{
+		this.eager = eager;
+		lookup = MethodHandles.lookup();
+		compiled = new IdentityHashMap<Function, CompiledChunk>();
+		programs = new IdentityHashMap<Expression, CompiledChunk>();
+	}
+
+    public Value run(Expression program)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		// a program run again runs the class it got the first time
+		if (!programs.containsKey(program))
+		{
+			programs.put(program, define(Compiler.compile(program)));
+		}
+		CompiledChunk code = programs.get(program);
+		if (code == null)
+		{
+			return program.evaluate(new Frame(0, null));
+		}
+		Frame frame = new Frame(code.getChunk().getFrameSize(), new Frame(0, null), null);
+		Value val = code.run(frame);
+		if (frame.getTailFunction() != null)
+		{
+			val = invoke(frame.getTailFunction(), frame.getTailFrame());
+		}
+		return val;
+	}
+
+    public CompiledChunk codeFor(Function function)
+	{
+		// null if the function has to stay with the tree walker
+		if (!eager)
+		{
+			return define(Compiler.compile(function));
+		}
+		if (compiled.containsKey(function))
+		{
+			return compiled.get(function);
+		}
+		CompiledChunk code = define(Compiler.compile(function));
+		compiled.put(function, code);
+		return code;
+	}
+
+    public Value invoke(Function function, Frame activation)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		// run function in its activation, and whatever it tail calls after
+		// it, without growing the Java stack
+		while (true)
+		{
+			CompiledChunk code = eager ? codeFor(function) : promoted(function);
+			if (code == null)
+			{
+				return function.evaluate(activation);
+			}
+			Value val = code.run(activation);
+			if (activation.getTailFunction() == null)
+			{
+				return val;
+			}
+			function = activation.getTailFunction();
+			activation = activation.getTailFrame();
+		}
+	}
+
+    private static CompiledChunk promoted(Function function)
+	{
+		// the code Tiers gave function, if it has been given any
+		Expression body = function.getCompiled();
+		return (body instanceof CompiledBody) ? ((CompiledBody)body).getCode() : null;
+	}
+
+    public Value call(Frame current, Expression site, Value[] args, Frame tailFrame)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		// find the callee the same way OpFunctionCall does, through the same
+		// cache. With a tailFrame the call is left on it instead of made
+		OpFunctionCall call = (OpFunctionCall)site;
+		CallSiteCache cache = call.getCache();
+		Frame home = cache.home(call.getName(), current);
+		Value callee = cache.callee(call.getName(), current, home);
+		if (callee == null)
+		{
+			throw new TypeException();
+		}
+		Function function = cache.target(callee);
+		if (!eager)
+		{
+			function.warm();
+		}
+		Frame definition;
+		Environment dynamic;
+		if (callee instanceof ClosureValue)
+		{
+			definition = ((ClosureValue)callee).getFrame();
+			dynamic = ((ClosureValue)callee).getEnvironment();
+		}
+		else
+		{
+			definition = (home != null) ? home : current;
+			dynamic = current.getDynamic();
+		}
+		if (args.length != function.getParamList().size() || args.length > function.getFrameSize())
+		{
+			// too few or too many arguments, or never analyzed: the tree
+			// walker knows what to make of those
+			return function.evaluate(function.newActivation(definition, dynamic, Arrays.asList(args)));
+		}
+		Frame activation = new Frame(function.getFrameSize(), definition, dynamic);
+		System.arraycopy(args, 0, activation.getSlots(), 0, args.length);
+		if (tailFrame != null)
+		{
+			tailFrame.setTailCall(function, activation);
+			return null;
+		}
+		return invoke(function, activation);
+	}
+
+    private CompiledChunk define(Chunk chunk)
+	{
+		try
+		{
+			byte[] bytes = Translator.translate(chunk, "jvm/Footle" + chunk.getName() + classes.getAndIncrement());
+			MethodHandles.Lookup hidden = lookup.defineHiddenClass(bytes, true);
+			MethodHandle constructor = hidden.findConstructor(hidden.lookupClass(),
+					MethodType.methodType(void.class, Backend.class, Chunk.class));
+			return (CompiledChunk)constructor.invoke(this, chunk);
+		}
+		catch (IllegalStateException e)
+		{
+			// too big for the class file
+			return null;
+		}
+		catch (Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new IllegalStateException("couldn't load " + chunk.getName(), e);
+		}
+	}
+}
@@ -0,0 +1,235 @@
+package jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Just enough of a classfile writer for the backend: a constant pool, and
+ * methods made of Code. The classes come out as version 49, the last one
+ * the JVM checks with its type inferring verifier, so no stack maps are
+ * needed for the branches.
+ */
+public class ClassWriter {
+	public static final int ACC_PUBLIC = 0x0001;
+	public static final int ACC_FINAL = 0x0010;
+	public static final int ACC_SUPER = 0x0020;
+
+	private static final int VERSION = 49;
+
+	private static final int UTF8 = 1;
+	private static final int INTEGER = 3;
+	private static final int CLASS = 7;
+	private static final int FIELD = 9;
+	private static final int METHOD = 10;
+	private static final int NAME_AND_TYPE = 12;
+
+	private ByteArrayOutputStream poolBytes;
+	private DataOutputStream pool;
+	private Map<String, Integer> entries;
+	private int poolSize;
+	private ByteArrayOutputStream methodBytes;
+	private DataOutputStream methods;
+	private int methodCount;
+	private String name;
+	private String superName;
+
+    public ClassWriter(String name, String superName)
+	{
+		poolBytes = new ByteArrayOutputStream();
+		pool = new DataOutputStream(poolBytes);
+		entries = new HashMap<String, Integer>();
+		// entry 0 is never used
+		poolSize = 1;
+		methodBytes = new ByteArrayOutputStream();
+		methods = new DataOutputStream(methodBytes);
+		methodCount = 0;
+		this.name = name;
+		this.superName = superName;
+	}
+
+    public String getName()
+	{
+		return name;
+	}
+
+    public int utf8(String text)
+	{
+		Integer index = entries.get("U" + text);
+		if (index == null)
+		{
+			index = add("U" + text);
+			write(UTF8);
+			try
+			{
+				pool.writeUTF(text);
+			}
+			catch (IOException e)
+			{
+				throw new IllegalStateException(e);
+			}
+		}
+		return index;
+	}
+
+    public int integer(int val)
+	{
+		Integer index = entries.get("I" + val);
+		if (index == null)
+		{
+			index = add("I" + val);
+			write(INTEGER);
+			writeInt(val);
+		}
+		return index;
+	}
+
+    public int classRef(String internalName)
+	{
+		return ref(CLASS, "C" + internalName, utf8(internalName), -1);
+	}
+
+    public int fieldRef(String owner, String field, String descriptor)
+	{
+		return ref(FIELD, "F" + owner + "." + field + ":" + descriptor, classRef(owner),
+				nameAndType(field, descriptor));
+	}
+
+    public int methodRef(String owner, String method, String descriptor)
+	{
+		return ref(METHOD, "M" + owner + "." + method + descriptor, classRef(owner),
+				nameAndType(method, descriptor));
+	}
+
+    public void method(int access, String method, String descriptor, Code code, int maxLocals)
+	{
+		// one method with a Code attribute and nothing else
+		byte[] bytes = code.toBytes();
+		if (bytes.length >= 65536)
+		{
+			throw new IllegalStateException("method " + method + " too large");
+		}
+		try
+		{
+			methods.writeShort(access);
+			methods.writeShort(utf8(method));
+			methods.writeShort(utf8(descriptor));
+			methods.writeShort(1);
+			methods.writeShort(utf8("Code"));
+			methods.writeInt(12 + bytes.length);
+			methods.writeShort(code.getMaxStack());
+			methods.writeShort(maxLocals);
+			methods.writeInt(bytes.length);
+			methods.write(bytes);
+			// no exception table, no attributes
+			methods.writeShort(0);
+			methods.writeShort(0);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		methodCount++;
+	}
+
+    public byte[] toBytes()
+	{
+		int thisClass = classRef(name);
+		int superClass = classRef(superName);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try
+		{
+			out.writeInt(0xCAFEBABE);
+			out.writeShort(0);
+			out.writeShort(VERSION);
+			out.writeShort(poolSize);
+			poolBytes.writeTo(out);
+			out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+			out.writeShort(thisClass);
+			out.writeShort(superClass);
+			// no interfaces, no fields
+			out.writeShort(0);
+			out.writeShort(0);
+			out.writeShort(methodCount);
+			methodBytes.writeTo(out);
+			// no attributes
+			out.writeShort(0);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+    private int nameAndType(String member, String descriptor)
+	{
+		return ref(NAME_AND_TYPE, "N" + member + ":" + descriptor, utf8(member), utf8(descriptor));
+	}
+
+    private int ref(int tag, String key, int first, int second)
+	{
+		// an entry made of one or two indexes of other entries
+		Integer index = entries.get(key);
+		if (index == null)
+		{
+			index = add(key);
+			write(tag);
+			writeShort(first);
+			if (second >= 0)
+			{
+				writeShort(second);
+			}
+		}
+		return index;
+	}
+
+    private int add(String key)
+	{
+		if (poolSize >= 65535)
+		{
+			throw new IllegalStateException("constant pool full");
+		}
+		entries.put(key, poolSize);
+		return poolSize++;
+	}
+
+    private void write(int b)
+	{
+		try
+		{
+			pool.writeByte(b);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+    private void writeShort(int s)
+	{
+		try
+		{
+			pool.writeShort(s);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+    private void writeInt(int i)
+	{
+		try
+		{
+			pool.writeInt(i);
+		}
+		catch (IOException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package jvm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The bytes of one method body, with labels for the branches. Only the
+ * instructions the translator needs have names here. Branch offsets are
+ * two bytes, so a method has to stay under 32k, which ClassWriter checks.
+ */
+public class Code {
+	public static final int ACONST_NULL = 0x01;
+	public static final int ICONST_0 = 0x03;
+	public static final int ICONST_1 = 0x04;
+	public static final int BIPUSH = 0x10;
+	public static final int SIPUSH = 0x11;
+	public static final int LDC = 0x12;
+	public static final int LDC_W = 0x13;
+	public static final int ALOAD = 0x19;
+	public static final int AALOAD = 0x32;
+	public static final int ASTORE = 0x3a;
+	public static final int AASTORE = 0x53;
+	public static final int POP = 0x57;
+	public static final int DUP = 0x59;
+	public static final int IADD = 0x60;
+	public static final int ISUB = 0x64;
+	public static final int IMUL = 0x68;
+	public static final int IAND = 0x7e;
+	public static final int IOR = 0x80;
+	public static final int IXOR = 0x82;
+	public static final int IFEQ = 0x99;
+	public static final int IFNE = 0x9a;
+	public static final int IF_ICMPLT = 0xa1;
+	public static final int IF_ICMPGE = 0xa2;
+	public static final int IF_ICMPGT = 0xa3;
+	public static final int IF_ICMPLE = 0xa4;
+	public static final int GOTO = 0xa7;
+	public static final int ARETURN = 0xb0;
+	public static final int RETURN = 0xb1;
+	public static final int GETSTATIC = 0xb2;
+	public static final int GETFIELD = 0xb4;
+	public static final int INVOKEVIRTUAL = 0xb6;
+	public static final int INVOKESPECIAL = 0xb7;
+	public static final int INVOKESTATIC = 0xb8;
+	public static final int NEW = 0xbb;
+	public static final int ANEWARRAY = 0xbd;
+	public static final int CHECKCAST = 0xc0;
+	public static final int INSTANCEOF = 0xc1;
+	public static final int WIDE = 0xc4;
+	public static final int IFNULL = 0xc6;
+	public static final int IFNONNULL = 0xc7;
+
+	/**
+	 * A place in the code. Branches to it before it is placed get patched
+	 * when it is.
+	 */
+	public static class Label {
+		private int position = -1;
+		private List<int[]> uses = new ArrayList<int[]>();
+	}
+
+	private ClassWriter classWriter;
+	private byte[] code;
+	private int length;
+	private int maxStack;
+
+    public Code(ClassWriter classWriter, int maxStack)
+	{
+		// the translator knows how deep it goes, so the stack isn't tracked
+		this.classWriter = classWriter;
+		code = new byte[256];
+		length = 0;
+		this.maxStack = maxStack;
+	}
+
+    public int getMaxStack()
+	{
+		return maxStack;
+	}
+
+    public int length()
+	{
+		return length;
+	}
+
+    public void op(int opcode)
+	{
+		put(opcode);
+	}
+
+    public void push(int val)
+	{
+		if (val >= -1 && val <= 5)
+		{
+			put(ICONST_0 + val);
+		}
+		else if (val >= Byte.MIN_VALUE && val <= Byte.MAX_VALUE)
+		{
+			put(BIPUSH);
+			put(val);
+		}
+		else if (val >= Short.MIN_VALUE && val <= Short.MAX_VALUE)
+		{
+			put(SIPUSH);
+			putShort(val);
+		}
+		else
+		{
+			constant(classWriter.integer(val));
+		}
+	}
+
+    public void aload(int local)
+	{
+		local(ALOAD, local);
+	}
+
+    public void astore(int local)
+	{
+		local(ASTORE, local);
+	}
+
+    public void type(int opcode, String internalName)
+	{
+		// new, anewarray, checkcast and instanceof
+		put(opcode);
+		putShort(classWriter.classRef(internalName));
+	}
+
+    public void field(int opcode, String owner, String name, String descriptor)
+	{
+		put(opcode);
+		putShort(classWriter.fieldRef(owner, name, descriptor));
+	}
+
+    public void invoke(int opcode, String owner, String name, String descriptor)
+	{
+		put(opcode);
+		putShort(classWriter.methodRef(owner, name, descriptor));
+	}
+
+    public void jump(int opcode, Label target)
+	{
+		int at = length;
+		put(opcode);
+		if (target.position >= 0)
+		{
+			putShort(target.position - at);
+		}
+		else
+		{
+			target.uses.add(new int[] { at, length });
+			putShort(0);
+		}
+	}
+
+    public void place(Label label)
+	{
+		label.position = length;
+		for (int[] use : label.uses)
+		{
+			int offset = length - use[0];
+			code[use[1]] = (byte)(offset >> 8);
+			code[use[1] + 1] = (byte)offset;
+		}
+		label.uses.clear();
+	}
+
+    public byte[] toBytes()
+	{
+		if (length > Short.MAX_VALUE)
+		{
+			throw new IllegalStateException("method too large for short branches");
+		}
+		byte[] bytes = new byte[length];
+		System.arraycopy(code, 0, bytes, 0, length);
+		return bytes;
+	}
+
+    private void constant(int index)
+	{
+		if (index < 256)
+		{
+			put(LDC);
+			put(index);
+		}
+		else
+		{
+			put(LDC_W);
+			putShort(index);
+		}
+	}
+
+    private void local(int opcode, int local)
+	{
+		if (local < 256)
+		{
+			put(opcode);
+			put(local);
+		}
+		else
+		{
+			put(WIDE);
+			put(opcode);
+			putShort(local);
+		}
+	}
+
+    private void put(int b)
+	{
+		if (length == code.length)
+		{
+			byte[] grown = new byte[code.length * 2];
+			System.arraycopy(code, 0, grown, 0, length);
+			code = grown;
+		}
+		code[length++] = (byte)b;
+	}
+
+    private void putShort(int s)
+	{
+		put(s >> 8);
+		put(s);
+	}
+}
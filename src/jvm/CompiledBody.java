@@ -0,0 +1,76 @@
+package jvm;
+
+import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.ReturnException;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
+import expression.Expression;
+import value.Function;
+import value.Value;
+import value.VoidValue;
+
+/**
+ * A function's compiled code dressed up as the function's body, so the tree
+ * walker can run it in place of the tree. The code assumes every parameter
+ * was passed, and a call that doesn't fit that runs the tree instead.
+ */
+public class CompiledBody implements Expression {
+	private Function function;
+	private CompiledChunk code;
+
+    public CompiledBody(Function function, CompiledChunk code)
+	{
+		this.function = function;
+		this.code = code;
+	}
+
+    public CompiledChunk getCode()
+	{
+		return code;
+	}
+
+    public Environment getValue(Environment environment) throws ReturnException,
+		TypeException, UnboundIdentifierException {
+		return Frame.adapt(this, environment);
+	}
+
+    public Value evaluate(Frame frame) throws ReturnException,
+		TypeException, UnboundIdentifierException {
+		if (!fits(frame))
+		{
+			Tiers.deopt();
+			return function.getBody().evaluate(frame);
+		}
+		// a tail call is left on the frame for Function.evaluate, anything
+		// else is the function's result
+		Value val = code.run(frame);
+		if (frame.getTailFunction() == null)
+		{
+			frame.setReturned(val);
+		}
+		return VoidValue.VOID;
+	}
+
+    private boolean fits(Frame frame)
+	{
+		int params = function.getParamList().size();
+		if (frame.size() != code.getChunk().getFrameSize() || params > frame.size())
+		{
+			return false;
+		}
+		for (int i = 0; i < params; i++)
+		{
+			if (frame.get(i) == null)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+    public String toString()
+    {
+        return "(Compiled " + function.getBody() + ")";
+    }
+}
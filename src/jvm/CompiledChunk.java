@@ -0,0 +1,117 @@
+package jvm;
+
+import Interpreter.Frame;
+import Interpreter.ReturnException;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
+import expression.Expression;
+import value.BoolValue;
+import value.IdValue;
+import value.Value;
+import vm.Chunk;
+
+/**
+ * What every class the backend generates extends. The generated run is the
+ * chunk turned into JVM code, and calls back in here for whatever is too
+ * big to be worth inlining: name lookups, calls, and the nodes left to the
+ * tree walker.
+ */
+public abstract class CompiledChunk {
+	protected final Backend backend;
+	protected final Chunk chunk;
+	protected final Expression[] constants;
+	protected final Value[] values;
+
+    protected CompiledChunk(Backend backend, Chunk chunk)
+	{
+		this.backend = backend;
+		this.chunk = chunk;
+		constants = chunk.getConstants();
+		values = chunk.getValues();
+	}
+
+    public Chunk getChunk()
+	{
+		return chunk;
+	}
+
+	// run in frame, the chunk's own. A call in tail position is left on it
+	// for Backend.invoke to make, and run gives back null
+    public abstract Value run(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException;
+
+    protected Value resolve(Frame current, int k) throws UnboundIdentifierException
+	{
+		return current.resolve((IdValue)constants[k]);
+	}
+
+    protected void assign(Frame current, int k, Value val) throws UnboundIdentifierException
+	{
+		if (!current.assign((IdValue)constants[k], val))
+		{
+			throw new UnboundIdentifierException();
+		}
+	}
+
+    protected void declare(Frame current, int slot, Value val, int k)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		if (slot < current.size())
+		{
+			current.set(slot, val);
+		}
+		else
+		{
+			constants[k].evaluate(current);
+		}
+	}
+
+    protected Value closure(Frame current, int k)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		return constants[k].evaluate(current);
+	}
+
+    protected Value eval(Frame current, int k)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		return constants[k].evaluate(current);
+	}
+
+    protected static boolean leaving(Frame current)
+	{
+		// whether what eval ran returned
+		return current.getTailFunction() != null || current.isReturning();
+	}
+
+    protected Value left(Frame current)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		if (current.getTailFunction() != null)
+		{
+			return backend.invoke(current.getTailFunction(), current.getTailFrame());
+		}
+		return current.getReturned();
+	}
+
+    protected Value call(Frame current, int k, Value[] args)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		return backend.call(current, constants[k], args, null);
+	}
+
+    protected Value tailCall(Frame frame, Frame current, int k, Value[] args)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		return backend.call(current, constants[k], args, frame);
+	}
+
+    protected static boolean bool(Value val) throws TypeException
+	{
+		if (!(val instanceof BoolValue))
+		{
+			throw new TypeException();
+		}
+		return ((BoolValue)val).getInternalValue();
+	}
+}
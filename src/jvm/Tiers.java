@@ -0,0 +1,83 @@
+package jvm;
+
+import value.Function;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * When the tree walker hands a function over to the backend. Every
+ * function counts its calls and the back edges of its loops, and once that
+ * reaches the threshold its body is compiled and the compiled body runs
+ * from then on. Cold functions stay with the tree walker. The threshold
+ * comes from the footle.tier.threshold property, and a negative one turns
+ * tiering off. The counts are kept for every thread at once; the heat is
+ * kept by each function, and a tree is only run by one thread at a time.
+ */
+public class Tiers {
+	public static final int DEFAULT_THRESHOLD = 1000;
+
+	private static volatile int threshold = Integer.getInteger("footle.tier.threshold", DEFAULT_THRESHOLD);
+	// compiles only what it's asked to, a call out of compiled code to a cold
+	// function goes back to the tree walker
+	private static final Backend backend = new Backend(false);
+	private static final AtomicLong tierUps = new AtomicLong();
+	private static final AtomicLong deopts = new AtomicLong();
+	private static final AtomicLong failures = new AtomicLong();
+
+    public static int getThreshold()
+	{
+		return threshold;
+	}
+
+    public static void setThreshold(int heat)
+	{
+		threshold = heat;
+	}
+
+    public static Backend getBackend()
+	{
+		return backend;
+	}
+
+	// functions given a compiled body
+    public static long getTierUps()
+	{
+		return tierUps.get();
+	}
+
+	// calls a compiled body handed back to the tree walker
+    public static long getDeopts()
+	{
+		return deopts.get();
+	}
+
+	// functions that were hot but couldn't be compiled
+    public static long getFailures()
+	{
+		return failures.get();
+	}
+
+    public static void reset()
+	{
+		tierUps.set(0);
+		deopts.set(0);
+		failures.set(0);
+	}
+
+    public static void promote(Function function)
+	{
+		CompiledChunk code = backend.codeFor(function);
+		if (code == null)
+		{
+			failures.incrementAndGet();
+			return;
+		}
+		function.setCompiled(new CompiledBody(function, code));
+		tierUps.incrementAndGet();
+	}
+
+    static void deopt()
+	{
+		deopts.incrementAndGet();
+	}
+}
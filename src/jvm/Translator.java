@@ -0,0 +1,547 @@
+package jvm;
+
+import value.IntValue;
+import value.Value;
+import vm.Chunk;
+import vm.Opcode;
+
+/**
+ * Turns a Chunk into the bytes of a class extending CompiledChunk, one JVM
+ * instruction sequence per VM instruction. The variables stay in the frame's
+ * slots, where closures and the tree walker can see them, but scratch
+ * registers become JVM locals, and int constants go straight into the code.
+ * Arithmetic and comparisons on two ints are done with the JVM's own int
+ * instructions, anything else goes to the same generic methods the tree
+ * walker uses.
+ */
+public class Translator {
+	// the JVM locals of run
+	private static final int THIS = 0;
+	private static final int FRAME = 1;
+	private static final int SLOTS = 2;
+	private static final int CURRENT = 3;
+	private static final int SCRATCH = 4;
+	private static final int LEFT = 5;
+	private static final int RIGHT = 6;
+	private static final int TEMPS = 7;
+	// no instruction sequence here goes deeper
+	private static final int MAX_STACK = 8;
+
+	private static final String SUPER = "jvm/CompiledChunk";
+	private static final String VALUE = "value/Value";
+	private static final String INT = "value/IntValue";
+	private static final String BOOL = "value/BoolValue";
+	private static final String FRAME_CLASS = "Interpreter/Frame";
+	private static final String V = "L" + VALUE + ";";
+	private static final String F = "L" + FRAME_CLASS + ";";
+
+	private Chunk chunk;
+	private Value[] values;
+	private int[] code;
+	private int frameSize;
+	private int firstTemp;
+	private Code out;
+	private Code.Label[] labels;
+
+    private Translator(Chunk chunk, Code out)
+	{
+		this.chunk = chunk;
+		values = chunk.getValues();
+		code = chunk.getCode();
+		frameSize = chunk.getFrameSize();
+		firstTemp = frameSize + values.length;
+		this.out = out;
+		labels = new Code.Label[code.length + 1];
+	}
+
+    public static byte[] translate(Chunk chunk, String name)
+	{
+		ClassWriter classWriter = new ClassWriter(name, SUPER);
+
+		String init = "(Ljvm/Backend;Lvm/Chunk;)V";
+		Code constructor = new Code(classWriter, 3);
+		constructor.aload(THIS);
+		constructor.aload(1);
+		constructor.aload(2);
+		constructor.invoke(Code.INVOKESPECIAL, SUPER, "<init>", init);
+		constructor.op(Code.RETURN);
+		classWriter.method(ClassWriter.ACC_PUBLIC, "<init>", init, constructor, 3);
+
+		Code run = new Code(classWriter, MAX_STACK);
+		Translator translator = new Translator(chunk, run);
+		translator.body();
+		classWriter.method(ClassWriter.ACC_PUBLIC, "run", "(" + F + ")" + V, run,
+				TEMPS + chunk.getSize() - translator.firstTemp);
+		return classWriter.toBytes();
+	}
+
+    private void body()
+	{
+		// current starts as the frame, r is its slots, and the scratch
+		// registers start out null so the verifier knows they're set
+		out.aload(FRAME);
+		out.astore(CURRENT);
+		out.aload(FRAME);
+		out.invoke(Code.INVOKEVIRTUAL, FRAME_CLASS, "getSlots", "()[" + V);
+		out.astore(SLOTS);
+		for (int local = SCRATCH; local < TEMPS + chunk.getSize() - firstTemp; local++)
+		{
+			out.op(Code.ACONST_NULL);
+			out.astore(local);
+		}
+
+		// every jump target needs a label before anything branches to it
+		int pc = 0;
+		while (pc < code.length)
+		{
+			String kinds = Opcode.KINDS[code[pc]];
+			for (int i = 0; i < kinds.length(); i++)
+			{
+				if (kinds.charAt(i) == 'j')
+				{
+					labels[code[pc + 1 + i]] = new Code.Label();
+				}
+			}
+			pc += kinds.length() + 1;
+		}
+
+		pc = 0;
+		while (pc < code.length)
+		{
+			if (labels[pc] != null)
+			{
+				out.place(labels[pc]);
+			}
+			instruction(pc);
+			pc += Opcode.KINDS[code[pc]].length() + 1;
+		}
+	}
+
+    private void instruction(int pc)
+	{
+		int a = (code.length > pc + 1) ? code[pc + 1] : 0;
+		int b = (code.length > pc + 2) ? code[pc + 2] : 0;
+		int c = (code.length > pc + 3) ? code[pc + 3] : 0;
+		switch (code[pc])
+		{
+		case Opcode.MOVE:
+			if (a != b)
+			{
+				load(b);
+				store(a);
+			}
+			break;
+		case Opcode.GETLOCAL:
+		{
+			// the slot's value, unless it's unbound or a function that has
+			// to become a closure
+			Code.Label slow = new Code.Label();
+			Code.Label done = new Code.Label();
+			load(b);
+			out.astore(LEFT);
+			out.aload(LEFT);
+			out.jump(Code.IFNULL, slow);
+			out.aload(LEFT);
+			out.type(Code.INSTANCEOF, "value/Function");
+			out.jump(Code.IFNE, slow);
+			out.aload(LEFT);
+			out.jump(Code.GOTO, done);
+			out.place(slow);
+			helper("resolve", c);
+			out.place(done);
+			store(a);
+			break;
+		}
+		case Opcode.GETVAR:
+			helper("resolve", b);
+			store(a);
+			break;
+		case Opcode.SETLOCAL:
+		{
+			Code.Label slow = new Code.Label();
+			Code.Label done = new Code.Label();
+			load(b);
+			out.jump(Code.IFNULL, slow);
+			load(a);
+			store(b);
+			out.jump(Code.GOTO, done);
+			out.place(slow);
+			assign(a, c);
+			out.place(done);
+			break;
+		}
+		case Opcode.SETVAR:
+			assign(a, b);
+			break;
+		case Opcode.DECL:
+			out.aload(THIS);
+			out.aload(CURRENT);
+			out.push(a);
+			load(b);
+			out.push(c);
+			out.invoke(Code.INVOKEVIRTUAL, SUPER, "declare", "(" + F + "I" + V + "I)V");
+			break;
+		case Opcode.ADD:
+			arithmetic(a, b, c, Code.IADD, "expression/OpAdd");
+			break;
+		case Opcode.SUB:
+			arithmetic(a, b, c, Code.ISUB, "expression/OpSub");
+			break;
+		case Opcode.MUL:
+			arithmetic(a, b, c, Code.IMUL, "expression/OpMult");
+			break;
+		case Opcode.DIV:
+			load(b);
+			load(c);
+			generic("expression/OpDivide");
+			store(a);
+			break;
+		case Opcode.LT:
+			comparison(a, b, c, Code.IF_ICMPGE, "expression/OpLessThan");
+			break;
+		case Opcode.GT:
+			comparison(a, b, c, Code.IF_ICMPLE, "expression/OpGreaterThan");
+			break;
+		case Opcode.LTE:
+			comparison(a, b, c, Code.IF_ICMPGT, "expression/OpLTE");
+			break;
+		case Opcode.GTE:
+			comparison(a, b, c, Code.IF_ICMPLT, "expression/OpGTE");
+			break;
+		case Opcode.EQ:
+			load(b);
+			load(c);
+			out.invoke(Code.INVOKESTATIC, "expression/OpEquals", "equal", "(" + V + V + ")" + V);
+			store(a);
+			break;
+		case Opcode.AND:
+		case Opcode.OR:
+			load(b);
+			bool();
+			load(c);
+			bool();
+			out.op((code[pc] == Opcode.AND) ? Code.IAND : Code.IOR);
+			box();
+			store(a);
+			break;
+		case Opcode.NOT:
+			load(b);
+			bool();
+			out.push(1);
+			out.op(Code.IXOR);
+			box();
+			store(a);
+			break;
+		case Opcode.JUMP:
+			out.jump(Code.GOTO, labels[a]);
+			break;
+		case Opcode.JUMPF:
+			load(a);
+			bool();
+			out.jump(Code.IFEQ, labels[b]);
+			break;
+		case Opcode.JNLT:
+			branch(a, b, labels[c], Code.IF_ICMPGE, "expression/OpLessThan");
+			break;
+		case Opcode.JNGT:
+			branch(a, b, labels[c], Code.IF_ICMPLE, "expression/OpGreaterThan");
+			break;
+		case Opcode.JNLTE:
+			branch(a, b, labels[c], Code.IF_ICMPGT, "expression/OpLTE");
+			break;
+		case Opcode.JNGTE:
+			branch(a, b, labels[c], Code.IF_ICMPLT, "expression/OpGTE");
+			break;
+		case Opcode.PRINT:
+			load(a);
+			out.invoke(Code.INVOKESTATIC, "expression/Print", "print", "(" + V + ")V");
+			break;
+		case Opcode.CLOSURE:
+			helper("closure", b);
+			store(a);
+			break;
+		case Opcode.CALL:
+			out.aload(THIS);
+			out.aload(CURRENT);
+			out.push(b);
+			arguments(c, code[pc + 4]);
+			out.invoke(Code.INVOKEVIRTUAL, SUPER, "call", "(" + F + "I[" + V + ")" + V);
+			store(a);
+			break;
+		case Opcode.TAILCALL:
+			// left on the frame for Backend.invoke, run hands back null
+			out.aload(THIS);
+			out.aload(FRAME);
+			out.aload(CURRENT);
+			out.push(b);
+			arguments(c, code[pc + 4]);
+			out.invoke(Code.INVOKEVIRTUAL, SUPER, "tailCall", "(" + F + F + "I[" + V + ")" + V);
+			out.op(Code.ARETURN);
+			break;
+		case Opcode.RETURN:
+			load(a);
+			out.op(Code.ARETURN);
+			break;
+		case Opcode.PUSHFRAME:
+			out.type(Code.NEW, FRAME_CLASS);
+			out.op(Code.DUP);
+			out.push(a);
+			out.aload(CURRENT);
+			out.aload(CURRENT);
+			out.invoke(Code.INVOKEVIRTUAL, FRAME_CLASS, "getDynamic", "()LInterpreter/Environment;");
+			out.invoke(Code.INVOKESPECIAL, FRAME_CLASS, "<init>", "(I" + F + "LInterpreter/Environment;)V");
+			out.astore(CURRENT);
+			break;
+		case Opcode.POPFRAME:
+			out.aload(CURRENT);
+			out.invoke(Code.INVOKEVIRTUAL, FRAME_CLASS, "getParent", "()" + F);
+			out.astore(CURRENT);
+			break;
+		case Opcode.EVAL:
+		{
+			// only a whole sequence handed over can have returned
+			Code.Label carryOn = new Code.Label();
+			helper("eval", b);
+			store(a);
+			out.aload(CURRENT);
+			out.invoke(Code.INVOKESTATIC, SUPER, "leaving", "(" + F + ")Z");
+			out.jump(Code.IFEQ, carryOn);
+			out.aload(THIS);
+			out.aload(CURRENT);
+			out.invoke(Code.INVOKEVIRTUAL, SUPER, "left", "(" + F + ")" + V);
+			out.op(Code.ARETURN);
+			out.place(carryOn);
+			break;
+		}
+		default:
+			throw new IllegalStateException("bad opcode " + code[pc] + " at " + pc);
+		}
+	}
+
+    private void arithmetic(int dst, int left, int right, int opcode, String owner)
+	{
+		// both ints: unbox, one JVM instruction, box. Otherwise generic
+		Code.Label slow = new Code.Label();
+		Code.Label done = new Code.Label();
+		if (!ints(left, right, slow))
+		{
+			load(left);
+			load(right);
+			generic(owner);
+			store(dst);
+			return;
+		}
+		out.op(opcode);
+		out.invoke(Code.INVOKESTATIC, INT, "valueOf", "(I)L" + INT + ";");
+		out.jump(Code.GOTO, done);
+		out.place(slow);
+		operand(left, LEFT);
+		operand(right, RIGHT);
+		generic(owner);
+		out.place(done);
+		store(dst);
+	}
+
+    private void comparison(int dst, int left, int right, int negated, String owner)
+	{
+		Code.Label slow = new Code.Label();
+		Code.Label done = new Code.Label();
+		if (!ints(left, right, slow))
+		{
+			load(left);
+			load(right);
+			generic(owner);
+			store(dst);
+			return;
+		}
+		Code.Label no = new Code.Label();
+		out.jump(negated, no);
+		out.field(Code.GETSTATIC, BOOL, "TRUE", "L" + BOOL + ";");
+		out.jump(Code.GOTO, done);
+		out.place(no);
+		out.field(Code.GETSTATIC, BOOL, "FALSE", "L" + BOOL + ";");
+		out.jump(Code.GOTO, done);
+		out.place(slow);
+		operand(left, LEFT);
+		operand(right, RIGHT);
+		generic(owner);
+		out.place(done);
+		store(dst);
+	}
+
+    private void branch(int left, int right, Code.Label target, int negated, String owner)
+	{
+		// a comparison and the branch on it, with no BoolValue in between
+		Code.Label slow = new Code.Label();
+		Code.Label done = new Code.Label();
+		if (!ints(left, right, slow))
+		{
+			load(left);
+			load(right);
+			generic(owner);
+			bool();
+			out.jump(Code.IFEQ, target);
+			return;
+		}
+		out.jump(negated, target);
+		out.jump(Code.GOTO, done);
+		out.place(slow);
+		operand(left, LEFT);
+		operand(right, RIGHT);
+		generic(owner);
+		bool();
+		out.jump(Code.IFEQ, target);
+		out.place(done);
+	}
+
+    private boolean ints(int left, int right, Code.Label slow)
+	{
+		// leave both operands on the stack as JVM ints, jumping to slow if
+		// either isn't an IntValue. False if a constant means they never are
+		if (isConstant(left) && !(constant(left) instanceof IntValue)
+				|| isConstant(right) && !(constant(right) instanceof IntValue))
+		{
+			return false;
+		}
+		check(left, LEFT, slow);
+		check(right, RIGHT, slow);
+		unbox(left, LEFT);
+		unbox(right, RIGHT);
+		return true;
+	}
+
+    private void check(int register, int local, Code.Label slow)
+	{
+		if (isConstant(register))
+		{
+			return;
+		}
+		load(register);
+		out.astore(local);
+		out.aload(local);
+		out.type(Code.INSTANCEOF, INT);
+		out.jump(Code.IFEQ, slow);
+	}
+
+    private void unbox(int register, int local)
+	{
+		if (isConstant(register))
+		{
+			out.push(((IntValue)constant(register)).getInternalValue());
+			return;
+		}
+		out.aload(local);
+		out.type(Code.CHECKCAST, INT);
+		out.invoke(Code.INVOKEVIRTUAL, INT, "getInternalValue", "()I");
+	}
+
+    private void operand(int register, int local)
+	{
+		// an operand check has already copied into local
+		if (isConstant(register))
+		{
+			load(register);
+		}
+		else
+		{
+			out.aload(local);
+		}
+	}
+
+    private void generic(String owner)
+	{
+		out.invoke(Code.INVOKESTATIC, owner, "generic", "(" + V + V + ")" + V);
+	}
+
+    private void bool()
+	{
+		out.invoke(Code.INVOKESTATIC, SUPER, "bool", "(" + V + ")Z");
+	}
+
+    private void box()
+	{
+		out.invoke(Code.INVOKESTATIC, BOOL, "valueOf", "(Z)L" + BOOL + ";");
+	}
+
+    private void helper(String name, int k)
+	{
+		// this.name(current, k), for a Value
+		out.aload(THIS);
+		out.aload(CURRENT);
+		out.push(k);
+		out.invoke(Code.INVOKEVIRTUAL, SUPER, name, "(" + F + "I)" + V);
+	}
+
+    private void assign(int register, int k)
+	{
+		out.aload(THIS);
+		out.aload(CURRENT);
+		out.push(k);
+		load(register);
+		out.invoke(Code.INVOKEVIRTUAL, SUPER, "assign", "(" + F + "I" + V + ")V");
+	}
+
+    private void arguments(int base, int count)
+	{
+		out.push(count);
+		out.type(Code.ANEWARRAY, VALUE);
+		for (int i = 0; i < count; i++)
+		{
+			out.op(Code.DUP);
+			out.push(i);
+			load(base + i);
+			out.op(Code.AASTORE);
+		}
+	}
+
+    private boolean isConstant(int register)
+	{
+		return register >= frameSize && register < firstTemp;
+	}
+
+    private Value constant(int register)
+	{
+		return values[register - frameSize];
+	}
+
+    private void load(int register)
+	{
+		if (register < frameSize)
+		{
+			out.aload(SLOTS);
+			out.push(register);
+			out.op(Code.AALOAD);
+		}
+		else if (register < firstTemp)
+		{
+			out.aload(THIS);
+			out.field(Code.GETFIELD, SUPER, "values", "[" + V);
+			out.push(register - frameSize);
+			out.op(Code.AALOAD);
+		}
+		else
+		{
+			out.aload(TEMPS + register - firstTemp);
+		}
+	}
+
+    private void store(int register)
+	{
+		if (register < frameSize)
+		{
+			out.astore(SCRATCH);
+			out.aload(SLOTS);
+			out.push(register);
+			out.aload(SCRATCH);
+			out.op(Code.AASTORE);
+		}
+		else if (register < firstTemp)
+		{
+			throw new IllegalStateException("store to constant register " + register);
+		}
+		else
+		{
+			out.astore(TEMPS + register - firstTemp);
+		}
+	}
+}
@@ -19,6 +19,10 @@ import java.util.List;
  */
 public class CodeGenerator {
 
+    //how false and true look once tagged
+    private static final int TAGGED_FALSE = 7;
+    private static final int TAGGED_TRUE = (TAGGED_FALSE << 1) + 1;
+
     private StaticPass statPass;
     private List<LLVMInstruction> instructions;
     private List<FunctionDeclarationInstruction> functions;
@@ -66,7 +70,12 @@ public class CodeGenerator {
 		else if (exp instanceof Sequence) {
             for(Expression e: ((Sequence)exp).getExpressions())
             {
-                nextReg = generateCode(e);
+                int result = generateCode(e);
+                //an i1 comes back as the register it's in, which is taken
+                if(!isCondition(e))
+                {
+                    nextReg = result;
+                }
             }
             return nextReg;
         }
@@ -155,8 +164,7 @@ public class CodeGenerator {
             return nextReg;
 		}
 		else if (exp instanceof And) {
-            //not branching if one element in test is false
-            return nextReg;
+            return shortCircuit(((And)exp).getOne(), ((And)exp).getTwo(), true);
         }
 		else if (exp instanceof IsType) {
             return nextReg;
@@ -447,29 +455,29 @@ public class CodeGenerator {
             Expression test = ie.getTest();
             Expression thenBody = ie.getFirst();
             Expression elseBody = ie.getFirst();
-            String beginLabel = "label_" + (nextLabel);
-            String thenLabel = "label_" + (nextLabel+1);
-            String elseLabel = "label_" + (nextLabel+2);
-            String endLabel = "label_" + (nextLabel+3);
+            //the labels are taken up front, so any the test or the bodies
+            //need come after them
+            int first = nextLabel;
+            nextLabel += 4;
+            String beginLabel = "label_" + (first);
+            String thenLabel = "label_" + (first+1);
+            String elseLabel = "label_" + (first+2);
+            String endLabel = "label_" + (first+3);
             instructions.add(new BranchInstruction(nextReg, 0, beginLabel, ""));
             //////////////Begin If
-            instructions.add(new LabelInstruction(nextReg, nextLabel));
-            nextLabel++;
+            instructions.add(new LabelInstruction(nextReg, first));
             int testResult = generateCode(test);
             instructions.add(new BranchInstruction(nextReg, testResult, thenLabel, elseLabel));
             //////////////Then
-            instructions.add(new LabelInstruction(nextReg, nextLabel));
-            nextLabel++;
+            instructions.add(new LabelInstruction(nextReg, first+1));
             int thenResult = generateCode(thenBody);
             instructions.add(new BranchInstruction(nextReg, 0, endLabel, ""));
             /////////////Else
-            instructions.add(new LabelInstruction(nextReg, nextLabel));
-            nextLabel++;
+            instructions.add(new LabelInstruction(nextReg, first+2));
             int elseResult = generateCode(elseBody);
             instructions.add(new BranchInstruction(nextReg, 0, endLabel, ""));
             /////////////End
-            instructions.add(new LabelInstruction(nextReg, nextLabel));
-            nextLabel++;
+            instructions.add(new LabelInstruction(nextReg, first+3));
             String valsAndLabels = "[%r"+(thenResult-1)+", %" + thenLabel  + "]" + ", [%r"+(elseResult-1)+", %" + elseLabel  + "]";
             instructions.add(new PhiNodeInstruction(nextReg, "i32*", valsAndLabels));
             nextReg++;
@@ -603,28 +611,36 @@ public class CodeGenerator {
             OpWhile w = (OpWhile)exp;
             Expression test = w.getTest();
             Expression body = w.getBody();
-            String beginLabel = "label_" + (nextLabel);
-            String trueLabel = "label_" + (nextLabel+1);
-            String falseLabel = "label_" + (nextLabel+2);
+            //the pre-header: invariants go in the eframe like variables,
+            //before the loop's first block. It runs even if the loop never
+            //does, so one that could trap is left to run in place
+            for(Hoisted h: w.getInvariants())
+            {
+                if(!traps(h.getExpression()))
+                {
+                    generateCode(new OpAssign(new OpVarDecl(h.getName()), h.getExpression()));
+                }
+            }
+            int first = nextLabel;
+            nextLabel += 3;
+            String beginLabel = "label_" + (first);
+            String trueLabel = "label_" + (first+1);
+            String falseLabel = "label_" + (first+2);
             instructions.add(new BranchInstruction(nextReg, 0, beginLabel, ""));
             //////////////Begin
-            instructions.add(new LabelInstruction(nextReg, nextLabel));
-            nextLabel++;
+            instructions.add(new LabelInstruction(nextReg, first));
             int testResult = generateCode(test);
             instructions.add(new BranchInstruction(nextReg, testResult, trueLabel, falseLabel));
             //////////////True
-            instructions.add(new LabelInstruction(nextReg, nextLabel));
-            nextLabel++;
+            instructions.add(new LabelInstruction(nextReg, first+1));
             int bodyResult = generateCode(body);
             instructions.add(new BranchInstruction(nextReg, testResult, beginLabel, ""));
             /////////////False
-            instructions.add(new LabelInstruction(nextReg, nextLabel));
-            nextLabel++;
+            instructions.add(new LabelInstruction(nextReg, first+2));
             return nextReg;
         }
 		else if (exp instanceof Or) {
-            //branches if one of things in test is true
-            return nextReg;
+            return shortCircuit(((Or)exp).getOne(), ((Or)exp).getTwo(), false);
         }
 		else if (exp instanceof Print) {
             //call i32 (i8*, ...)* @printf(i8* noalias getelementptr ([4 x i8]* @.str, i32 0, i32 0), i32 %1) nounwind
@@ -700,12 +716,7 @@ public class CodeGenerator {
         else if (exp instanceof BoolValue) {
             //add tag bits
             instructions.add(new MallocInstruction(nextReg, "i32", ""));
-            int tagged = 7;
-            if((((BoolValue)exp).getInternalValue()))
-            {
-                tagged = tagged << 1;
-                tagged++;
-            }
+            int tagged = (((BoolValue)exp).getInternalValue()) ? TAGGED_TRUE : TAGGED_FALSE;
             String shiftedVal = ((Integer)tagged).toString();
             instructions.add(new StoreInstruction(nextReg, "i32", shiftedVal, ""));
             lastVal = tagged;
@@ -751,6 +762,15 @@ public class CodeGenerator {
             }
             return nextReg;
         }
+        else if (exp instanceof Hoisted) {
+            //worked out in the loop's pre-header, unless it could trap
+            Hoisted h = (Hoisted)exp;
+            if(traps(h.getExpression()))
+            {
+                return generateCode(h.getExpression());
+            }
+            return generateCode(new IdValue(h.getName()));
+        }
         else if (exp instanceof Function) {
             return nextReg;
         }
@@ -777,6 +797,68 @@ public class CodeGenerator {
         return -1;
     }
 
+    private int shortCircuit(Expression one, Expression two, boolean and)
+    {
+        //the left side's test gets a block of its own to branch from, since
+        //the left may have branched itself, and so does the end of the right.
+        //the phi takes the left's answer or the right's, whichever ran
+        //br label %test; test: br i1 %l, label %right, label %end
+        //right: ... br label %rightEnd; rightEnd: br label %end
+        //end: %r = phi i1 [false, %test], [%rr, %rightEnd]
+        //both sides are made into i1s first, and the phi's register is the
+        //answer, as it is for a comparison
+        int first = nextLabel;
+        nextLabel += 4;
+        String testLabel = "label_" + first;
+        String rightLabel = "label_" + (first+1);
+        String rightEndLabel = "label_" + (first+2);
+        String endLabel = "label_" + (first+3);
+        int l = condition(one);
+        instructions.add(new BranchInstruction(nextReg, 0, testLabel, ""));
+        instructions.add(new LabelInstruction(nextReg, first));
+        if(and)
+        {
+            instructions.add(new BranchInstruction(nextReg, l, rightLabel, endLabel));
+        }
+        else
+        {
+            instructions.add(new BranchInstruction(nextReg, l, endLabel, rightLabel));
+        }
+        instructions.add(new LabelInstruction(nextReg, first+1));
+        int r = condition(two);
+        instructions.add(new BranchInstruction(nextReg, 0, rightEndLabel, ""));
+        instructions.add(new LabelInstruction(nextReg, first+2));
+        instructions.add(new BranchInstruction(nextReg, 0, endLabel, ""));
+        instructions.add(new LabelInstruction(nextReg, first+3));
+        String valsAndLabels = "[" + (and ? "false" : "true") + ", %" + testLabel + "], [%r" + r + ", %" + rightEndLabel + "]";
+        instructions.add(new PhiNodeInstruction(nextReg, "i1", valsAndLabels));
+        nextReg++;
+        return nextReg-1;
+    }
+
+    private int condition(Expression exp)
+    {
+        //exp as an i1: a comparison is one already, anything else is a
+        //tagged value in memory, true when it's the tagged true
+        int result = generateCode(exp);
+        if(isCondition(exp))
+        {
+            return result;
+        }
+        instructions.add(new LoadInstruction(nextReg, result-1, "i32"));
+        nextReg++;
+        instructions.add(new ICmpInstruction(nextReg, "eq", nextReg-1, Integer.toString(TAGGED_TRUE)));
+        nextReg++;
+        return nextReg-1;
+    }
+
+    public boolean isCondition(Expression exp)
+    {
+        //the nodes whose code leaves an i1 in a register and returns it
+        return (exp instanceof OpLessThan || exp instanceof OpGreaterThan || exp instanceof OpLTE ||
+                exp instanceof OpGTE || exp instanceof OpEquals || exp instanceof And || exp instanceof Or);
+    }
+
     public int getResult() {
         return nextReg;
     }
@@ -795,6 +877,23 @@ public class CodeGenerator {
                 exp instanceof OpMult || exp instanceof OpSub || exp instanceof OpDivide);
     }
 
+    public boolean traps(Expression exp)
+    {
+        //sdiv by zero traps, so a division can't be worked out early
+        if(exp instanceof OpDivide)
+        {
+            return true;
+        }
+        for(Expression child: StaticPass.children(exp))
+        {
+            if(child != null && traps(child))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public int getLastEF() {
         return lastEF;
     }
@@ -12,6 +12,8 @@ public class ICmpInstruction extends LLVMInstruction {
     private String condition;
     private int op1;
     private int op2;
+    //a constant to compare with in place of op2, or null
+    private String constant;
 
     public ICmpInstruction(int target, String cond, int op1, int op2)
     {
@@ -21,6 +23,14 @@ public class ICmpInstruction extends LLVMInstruction {
         this.op2 = op2;
     }
 
+    public ICmpInstruction(int target, String cond, int op1, String constant)
+    {
+        super(target, "i1");
+        condition = cond;
+        this.op1 = op1;
+        this.constant = constant;
+    }
+
     public String getCondition() {
         return condition;
     }
@@ -47,7 +57,8 @@ public class ICmpInstruction extends LLVMInstruction {
 
     public String toString()
     {
-        String s = "%r" + super.getTargetRegister() + " = icmp " + condition + " i32 %r" + op1 + ", %r" + op2;
+        String s = "%r" + super.getTargetRegister() + " = icmp " + condition + " i32 %r" + op1 + ", "
+                + (constant != null ? constant : "%r" + op2);
         return s;
     }
 }
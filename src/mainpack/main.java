@@ -1,23 +1,46 @@
 package mainpack;
 
+import Interpreter.Input;
+import Interpreter.Output;
+import engine.FootleEngine;
+import engine.ScriptCache;
 import expression.Expression;
+import jvm.Backend;
 import llvm.CodeGenerator;
 import parser.Footle;
 import parser.ParseException;
 import staticpass.StaticPass;
+import vm.VM;
 
 import java.io.*;
+import java.util.Arrays;
 
 public class main {
 
     public static void main(String[] args) {
         boolean emitLLVM = false;
+        boolean runVM = false;
+        boolean runJVM = false;
         BufferedReader inStream = null;
         String fileName = null;
         Footle parser;
         Expression ast = null;
         StaticPass statPass = null;
         CodeGenerator llvmGen;
+        ScriptCache cache = null;
+
+        //-cache keeps each script analysed in a directory, so an unchanged
+        //one is read back rather than parsed and put through the pass again
+        if(args.length >= 2 && args[0].equals("-cache"))
+        {
+            try {
+                cache = new ScriptCache(new File(args[1]));
+            } catch (IOException e) {
+                System.out.println("compile: " + e.getMessage());
+                System.exit(0);
+            }
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
 
         if(args.length == 2 && args[0].equals("-emit-llvm"))
         {
@@ -31,15 +54,40 @@ public class main {
                 System.exit(0);
             }
         }
+        else if(args.length == 2 && args[0].equals("-vm"))
+        {
+            runVM = true;
+            //try opening args[1]
+            try {
+                fileName = args[1];
+                inStream = new BufferedReader(new FileReader(fileName));
+            } catch (FileNotFoundException e) {
+                System.out.println("compile: " + fileName + " not found.");
+                System.exit(0);
+            }
+        }
+        else if(args.length == 2 && args[0].equals("-jvm"))
+        {
+            runJVM = true;
+            //try opening args[1]
+            try {
+                fileName = args[1];
+                inStream = new BufferedReader(new FileReader(fileName));
+            } catch (FileNotFoundException e) {
+                System.out.println("compile: " + fileName + " not found.");
+                System.exit(0);
+            }
+        }
         else if(args.length == 1)
         {
             //try opening args[0]
             try {
                 fileName = args[0];
-                if(fileName.equals("-emit-llvm"))
+                if(fileName.equals("-emit-llvm") || fileName.equals("-vm")
+                        || fileName.equals("-jvm"))
                 {
                     System.out.println("compile: Input file required.");
-                    System.out.println("Usage: compile [-emit-llvm] sourcefile");
+                    System.out.println("Usage: compile [-cache dir] [-emit-llvm | -vm | -jvm] sourcefile");
                     System.exit(0);
                 }
                 inStream = new BufferedReader(new FileReader(fileName));
@@ -50,11 +98,24 @@ public class main {
         }
         else
         {
-            System.out.println("Usage: compile [-emit-llvm] sourcefile");
+            System.out.println("Usage: compile [-cache dir] [-emit-llvm | -vm | -jvm] sourcefile");
             System.exit(0);
         }
 
-        if(inStream != null)
+        if(inStream != null && cache != null)
+        {
+            //the tree comes back from the cache with the static pass done
+            try {
+                inStream.close();
+                ast = new FootleEngine(FootleEngine.TREE, cache).compile(new File(fileName)).getProgram();
+                statPass = new StaticPass(ast);
+            } catch (ParseException e) {
+                System.out.println("compile: Parse error encountered. Check input file.");
+            } catch (IOException e) {
+                System.out.println("compile: " + fileName + " could not be read.");
+            }
+        }
+        else if(inStream != null)
         {
             //System.out.println("Parsing " + fileName + "...");
             parser = new Footle(inStream);
@@ -66,7 +127,7 @@ public class main {
                 System.out.println("compile: Parse error encountered. Check input file.");
             }
         }
-        if(ast != null)
+        if(ast != null && statPass == null)
         {
             //System.out.println("\nRunning AST through static pass...");
             statPass = new StaticPass(ast);
@@ -75,6 +136,45 @@ public class main {
             //System.out.println(statPass);
         }
 
+        //read-line reads standard input through one buffer for the whole run,
+        //and print writes through one to standard output
+        Input.setStandard(Input.forStandardIn());
+        Output.setStandard(Output.forTarget(System.out));
+
+        //or run it straight away on the bytecode VM
+        if(runVM)
+        {
+            if(statPass != null)
+            {
+                try {
+                    new VM().run(statPass.getProgram());
+                } catch (Exception e) {
+                    Output.getStandard().flush();
+                    System.out.println("compile: Runtime error: " + e);
+                } finally {
+                    Output.getStandard().flush();
+                }
+            }
+            return;
+        }
+
+        //or as JVM code
+        if(runJVM)
+        {
+            if(statPass != null)
+            {
+                try {
+                    new Backend().run(statPass.getProgram());
+                } catch (Exception e) {
+                    Output.getStandard().flush();
+                    System.out.println("compile: Runtime error: " + e);
+                } finally {
+                    Output.getStandard().flush();
+                }
+            }
+            return;
+        }
+
         //generate the llvm from the result of the static pass
         if(statPass != null)
         {
@@ -24,8 +24,9 @@ public class Footle implements FootleConstants {
         }
     Footle parser = new Footle(sr);
     Expression tree = parser.Input();
+    new StaticPass(tree).runStaticPass();
     try {
-                tree.getValue(null);
+                tree.evaluate(new Frame(0, null));
         } catch (ReturnException e) {
                 // TODO Auto-generated catch block
                 e.printStackTrace();
@@ -40,7 +41,7 @@ public class Footle implements FootleConstants {
   }
 
 /** Root production. */
-  static final public Expression Input() throws ParseException {
+  final public Expression Input() throws ParseException {
  List<Expression> finList = new LinkedList<Expression>(); Expression finalExp;
     label_1:
     while (true) {
@@ -85,7 +86,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression Statement() throws ParseException {
+  final public Expression Statement() throws ParseException {
  Expression retVal = null; Expression retVal1 = null; Expression retVal2 = null;
   Token idval = null; Token funName = null; Token exp; List<Expression> finList = new LinkedList<Expression>();
   List<String> argList = new LinkedList<String>();
@@ -263,7 +264,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression Expression() throws ParseException {
+  final public Expression Expression() throws ParseException {
  Expression retVal = null; Expression retVal1 = null; Expression retVal2 = null;
  Token val; Token idval;
  List<Expression> finList = new LinkedList<Expression>();
@@ -487,7 +488,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression Precedence() throws ParseException {
+  final public Expression Precedence() throws ParseException {
  Expression retVal = null; Expression retVal2 = null;
     if (jj_2_7(10)) {
       retVal = PrecedenceSev();
@@ -504,7 +505,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression PrecedenceSev() throws ParseException {
+  final public Expression PrecedenceSev() throws ParseException {
  Expression retVal = null; Expression retVal2 = null;
     if (jj_2_9(10)) {
       retVal = PrecedenceSix();
@@ -538,7 +539,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression PrecedenceSix() throws ParseException {
+  final public Expression PrecedenceSix() throws ParseException {
  Expression retVal = null; Expression retVal2 = null;
     if (jj_2_11(10)) {
       retVal = PrecedenceFive();
@@ -582,7 +583,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression PrecedenceFive() throws ParseException {
+  final public Expression PrecedenceFive() throws ParseException {
  Expression retVal = null; Expression retVal2 = null;
     if (jj_2_15(10)) {
       retVal = PrecedenceFour();
@@ -611,7 +612,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression PrecedenceFour() throws ParseException {
+  final public Expression PrecedenceFour() throws ParseException {
  Expression retVal = null; Expression retVal2 = null;
     if (jj_2_16(10)) {
       retVal = PrecedenceThreeFive();
@@ -640,7 +641,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression PrecedenceThreeFive() throws ParseException {
+  final public Expression PrecedenceThreeFive() throws ParseException {
  Expression retVal = null; Expression retVal2 = null;
     if (jj_2_17(10)) {
       retVal = PrecedenceThree();
@@ -669,7 +670,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression PrecedenceThree() throws ParseException {
+  final public Expression PrecedenceThree() throws ParseException {
  Expression retVal = null; Expression retVal2 = null;
     if (jj_2_18(10)) {
       retVal = PrecedenceTwo();
@@ -698,7 +699,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression PrecedenceTwo() throws ParseException {
+  final public Expression PrecedenceTwo() throws ParseException {
  Expression retVal = null; Expression retVal2 = null;
     switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
     case NOT:
@@ -724,7 +725,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression PrecedenceOne() throws ParseException {
+  final public Expression PrecedenceOne() throws ParseException {
  Expression retVal = null; Expression retVal2 = null;
     if (jj_2_19(10)) {
       retVal = Expr();
@@ -752,7 +753,7 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static final public Expression Expr() throws ParseException {
+  final public Expression Expr() throws ParseException {
  Expression retVal = null; Token val = null; Token idval = null;
     switch ((jj_ntk==-1)?jj_ntk():jj_ntk) {
     case NUM:
@@ -793,140 +794,140 @@ public class Footle implements FootleConstants {
     throw new Error("Missing return statement in function");
   }
 
-  static private boolean jj_2_1(int xla) {
+  private boolean jj_2_1(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_1(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(0, xla); }
   }
 
-  static private boolean jj_2_2(int xla) {
+  private boolean jj_2_2(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_2(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(1, xla); }
   }
 
-  static private boolean jj_2_3(int xla) {
+  private boolean jj_2_3(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_3(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(2, xla); }
   }
 
-  static private boolean jj_2_4(int xla) {
+  private boolean jj_2_4(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_4(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(3, xla); }
   }
 
-  static private boolean jj_2_5(int xla) {
+  private boolean jj_2_5(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_5(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(4, xla); }
   }
 
-  static private boolean jj_2_6(int xla) {
+  private boolean jj_2_6(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_6(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(5, xla); }
   }
 
-  static private boolean jj_2_7(int xla) {
+  private boolean jj_2_7(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_7(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(6, xla); }
   }
 
-  static private boolean jj_2_8(int xla) {
+  private boolean jj_2_8(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_8(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(7, xla); }
   }
 
-  static private boolean jj_2_9(int xla) {
+  private boolean jj_2_9(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_9(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(8, xla); }
   }
 
-  static private boolean jj_2_10(int xla) {
+  private boolean jj_2_10(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_10(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(9, xla); }
   }
 
-  static private boolean jj_2_11(int xla) {
+  private boolean jj_2_11(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_11(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(10, xla); }
   }
 
-  static private boolean jj_2_12(int xla) {
+  private boolean jj_2_12(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_12(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(11, xla); }
   }
 
-  static private boolean jj_2_13(int xla) {
+  private boolean jj_2_13(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_13(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(12, xla); }
   }
 
-  static private boolean jj_2_14(int xla) {
+  private boolean jj_2_14(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_14(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(13, xla); }
   }
 
-  static private boolean jj_2_15(int xla) {
+  private boolean jj_2_15(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_15(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(14, xla); }
   }
 
-  static private boolean jj_2_16(int xla) {
+  private boolean jj_2_16(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_16(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(15, xla); }
   }
 
-  static private boolean jj_2_17(int xla) {
+  private boolean jj_2_17(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_17(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(16, xla); }
   }
 
-  static private boolean jj_2_18(int xla) {
+  private boolean jj_2_18(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_18(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(17, xla); }
   }
 
-  static private boolean jj_2_19(int xla) {
+  private boolean jj_2_19(int xla) {
     jj_la = xla; jj_lastpos = jj_scanpos = token;
     try { return !jj_3_19(); }
     catch(LookaheadSuccess ls) { return true; }
     finally { jj_save(18, xla); }
   }
 
-  static private boolean jj_3R_34() {
+  private boolean jj_3R_34() {
     if (jj_scan_token(ISCLOSURE)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -934,7 +935,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_33() {
+  private boolean jj_3R_33() {
     if (jj_scan_token(ISVOID)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -942,7 +943,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_32() {
+  private boolean jj_3R_32() {
     if (jj_scan_token(ISFP)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -950,7 +951,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_31() {
+  private boolean jj_3R_31() {
     if (jj_scan_token(ISSTR)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -958,30 +959,30 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_56() {
+  private boolean jj_3R_56() {
     if (jj_scan_token(ID)) return true;
     return false;
   }
 
-  static private boolean jj_3R_60() {
+  private boolean jj_3R_60() {
     if (jj_scan_token(COMMA)) return true;
     if (jj_scan_token(ID)) return true;
     return false;
   }
 
-  static private boolean jj_3R_55() {
+  private boolean jj_3R_55() {
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
     if (jj_scan_token(RPAREN)) return true;
     return false;
   }
 
-  static private boolean jj_3R_54() {
+  private boolean jj_3R_54() {
     if (jj_scan_token(STRING)) return true;
     return false;
   }
 
-  static private boolean jj_3R_9() {
+  private boolean jj_3R_9() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3R_30()) {
@@ -1027,7 +1028,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_30() {
+  private boolean jj_3R_30() {
     if (jj_scan_token(FUNC)) return true;
     if (jj_scan_token(LPAREN)) return true;
     Token xsp;
@@ -1038,28 +1039,28 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_53() {
+  private boolean jj_3R_53() {
     if (jj_scan_token(FALSE)) return true;
     return false;
   }
 
-  static private boolean jj_3_1() {
+  private boolean jj_3_1() {
     if (jj_scan_token(ELSE)) return true;
     if (jj_3R_7()) return true;
     return false;
   }
 
-  static private boolean jj_3R_52() {
+  private boolean jj_3R_52() {
     if (jj_scan_token(TRUE)) return true;
     return false;
   }
 
-  static private boolean jj_3R_51() {
+  private boolean jj_3R_51() {
     if (jj_scan_token(FLOAT)) return true;
     return false;
   }
 
-  static private boolean jj_3R_20() {
+  private boolean jj_3R_20() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3R_50()) {
@@ -1084,18 +1085,18 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_50() {
+  private boolean jj_3R_50() {
     if (jj_scan_token(NUM)) return true;
     return false;
   }
 
-  static private boolean jj_3R_28() {
+  private boolean jj_3R_28() {
     if (jj_3R_9()) return true;
     if (jj_scan_token(SEMI)) return true;
     return false;
   }
 
-  static private boolean jj_3R_27() {
+  private boolean jj_3R_27() {
     if (jj_scan_token(PRINT)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -1104,30 +1105,30 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_29() {
+  private boolean jj_3R_29() {
     if (jj_3R_20()) return true;
     return false;
   }
 
-  static private boolean jj_3R_26() {
+  private boolean jj_3R_26() {
     if (jj_scan_token(RETURN)) return true;
     if (jj_3R_9()) return true;
     if (jj_scan_token(SEMI)) return true;
     return false;
   }
 
-  static private boolean jj_3R_62() {
+  private boolean jj_3R_62() {
     if (jj_scan_token(COMMA)) return true;
     if (jj_scan_token(ID)) return true;
     return false;
   }
 
-  static private boolean jj_3R_57() {
+  private boolean jj_3R_57() {
     if (jj_3R_7()) return true;
     return false;
   }
 
-  static private boolean jj_3R_8() {
+  private boolean jj_3R_8() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3_19()) {
@@ -1137,14 +1138,14 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_19() {
+  private boolean jj_3_19() {
     if (jj_3R_20()) return true;
     if (jj_scan_token(DOT)) return true;
     if (jj_3R_8()) return true;
     return false;
   }
 
-  static private boolean jj_3_3() {
+  private boolean jj_3_3() {
     if (jj_scan_token(FUNC)) return true;
     if (jj_scan_token(ID)) return true;
     if (jj_scan_token(LPAREN)) return true;
@@ -1156,12 +1157,12 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_49() {
+  private boolean jj_3R_49() {
     if (jj_3R_8()) return true;
     return false;
   }
 
-  static private boolean jj_3R_25() {
+  private boolean jj_3R_25() {
     if (jj_scan_token(IF)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -1173,7 +1174,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_24() {
+  private boolean jj_3R_24() {
     if (jj_scan_token(LBRACE)) return true;
     Token xsp;
     while (true) {
@@ -1184,7 +1185,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_19() {
+  private boolean jj_3R_19() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3R_48()) {
@@ -1194,13 +1195,13 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_48() {
+  private boolean jj_3R_48() {
     if (jj_scan_token(NOT)) return true;
     if (jj_3R_19()) return true;
     return false;
   }
 
-  static private boolean jj_3R_23() {
+  private boolean jj_3R_23() {
     if (jj_scan_token(ISINT)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -1208,7 +1209,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_22() {
+  private boolean jj_3R_22() {
     if (jj_scan_token(WHILE)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -1217,12 +1218,12 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_47() {
+  private boolean jj_3R_47() {
     if (jj_3R_19()) return true;
     return false;
   }
 
-  static private boolean jj_3_2() {
+  private boolean jj_3_2() {
     if (jj_3R_8()) return true;
     if (jj_scan_token(EQ)) return true;
     if (jj_3R_9()) return true;
@@ -1230,7 +1231,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_18() {
+  private boolean jj_3R_18() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3_18()) {
@@ -1240,14 +1241,14 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_18() {
+  private boolean jj_3_18() {
     if (jj_3R_19()) return true;
     if (jj_scan_token(MULT)) return true;
     if (jj_3R_18()) return true;
     return false;
   }
 
-  static private boolean jj_3R_21() {
+  private boolean jj_3R_21() {
     if (jj_scan_token(VAR)) return true;
     if (jj_scan_token(ID)) return true;
     if (jj_scan_token(EQ)) return true;
@@ -1256,7 +1257,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_7() {
+  private boolean jj_3R_7() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3R_21()) {
@@ -1290,12 +1291,12 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_46() {
+  private boolean jj_3R_46() {
     if (jj_3R_18()) return true;
     return false;
   }
 
-  static private boolean jj_3R_17() {
+  private boolean jj_3R_17() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3_17()) {
@@ -1305,19 +1306,19 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_17() {
+  private boolean jj_3_17() {
     if (jj_3R_18()) return true;
     if (jj_scan_token(PLUS)) return true;
     if (jj_3R_17()) return true;
     return false;
   }
 
-  static private boolean jj_3R_45() {
+  private boolean jj_3R_45() {
     if (jj_3R_17()) return true;
     return false;
   }
 
-  static private boolean jj_3R_16() {
+  private boolean jj_3R_16() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3_16()) {
@@ -1327,19 +1328,19 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_16() {
+  private boolean jj_3_16() {
     if (jj_3R_17()) return true;
     if (jj_scan_token(MINUS)) return true;
     if (jj_3R_16()) return true;
     return false;
   }
 
-  static private boolean jj_3R_44() {
+  private boolean jj_3R_44() {
     if (jj_3R_16()) return true;
     return false;
   }
 
-  static private boolean jj_3R_15() {
+  private boolean jj_3R_15() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3_15()) {
@@ -1349,40 +1350,40 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_15() {
+  private boolean jj_3_15() {
     if (jj_3R_16()) return true;
     if (jj_scan_token(DIVIDE)) return true;
     if (jj_3R_15()) return true;
     return false;
   }
 
-  static private boolean jj_3R_43() {
+  private boolean jj_3R_43() {
     if (jj_3R_15()) return true;
     return false;
   }
 
-  static private boolean jj_3_14() {
+  private boolean jj_3_14() {
     if (jj_3R_15()) return true;
     if (jj_scan_token(GTE)) return true;
     if (jj_3R_14()) return true;
     return false;
   }
 
-  static private boolean jj_3_13() {
+  private boolean jj_3_13() {
     if (jj_3R_15()) return true;
     if (jj_scan_token(GTHEN)) return true;
     if (jj_3R_14()) return true;
     return false;
   }
 
-  static private boolean jj_3_12() {
+  private boolean jj_3_12() {
     if (jj_3R_15()) return true;
     if (jj_scan_token(LTE)) return true;
     if (jj_3R_14()) return true;
     return false;
   }
 
-  static private boolean jj_3R_14() {
+  private boolean jj_3R_14() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3_11()) {
@@ -1401,26 +1402,26 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_11() {
+  private boolean jj_3_11() {
     if (jj_3R_15()) return true;
     if (jj_scan_token(LTHEN)) return true;
     if (jj_3R_14()) return true;
     return false;
   }
 
-  static private boolean jj_3R_42() {
+  private boolean jj_3R_42() {
     if (jj_3R_14()) return true;
     return false;
   }
 
-  static private boolean jj_3_10() {
+  private boolean jj_3_10() {
     if (jj_3R_14()) return true;
     if (jj_scan_token(OR)) return true;
     if (jj_3R_13()) return true;
     return false;
   }
 
-  static private boolean jj_3R_13() {
+  private boolean jj_3R_13() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3_9()) {
@@ -1433,19 +1434,19 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_9() {
+  private boolean jj_3_9() {
     if (jj_3R_14()) return true;
     if (jj_scan_token(AND)) return true;
     if (jj_3R_13()) return true;
     return false;
   }
 
-  static private boolean jj_3_8() {
+  private boolean jj_3_8() {
     if (jj_3R_13()) return true;
     return false;
   }
 
-  static private boolean jj_3R_12() {
+  private boolean jj_3R_12() {
     Token xsp;
     xsp = jj_scanpos;
     if (jj_3_7()) {
@@ -1455,14 +1456,14 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_7() {
+  private boolean jj_3_7() {
     if (jj_3R_13()) return true;
     if (jj_scan_token(EQUAL)) return true;
     if (jj_3R_12()) return true;
     return false;
   }
 
-  static private boolean jj_3R_59() {
+  private boolean jj_3R_59() {
     if (jj_3R_9()) return true;
     Token xsp;
     while (true) {
@@ -1472,30 +1473,30 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_6() {
+  private boolean jj_3_6() {
     if (jj_scan_token(NOT)) return true;
     if (jj_3R_9()) return true;
     return false;
   }
 
-  static private boolean jj_3R_61() {
+  private boolean jj_3R_61() {
     if (jj_scan_token(COMMA)) return true;
     if (jj_3R_9()) return true;
     return false;
   }
 
-  static private boolean jj_3_5() {
+  private boolean jj_3_5() {
     if (jj_3R_12()) return true;
     return false;
   }
 
-  static private boolean jj_3R_41() {
+  private boolean jj_3R_41() {
     if (jj_scan_token(COMMA)) return true;
     if (jj_3R_9()) return true;
     return false;
   }
 
-  static private boolean jj_3R_11() {
+  private boolean jj_3R_11() {
     if (jj_3R_9()) return true;
     Token xsp;
     while (true) {
@@ -1505,7 +1506,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_40() {
+  private boolean jj_3R_40() {
     if (jj_scan_token(NEW)) return true;
     if (jj_scan_token(ID)) return true;
     if (jj_scan_token(LPAREN)) return true;
@@ -1516,7 +1517,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3_4() {
+  private boolean jj_3_4() {
     if (jj_scan_token(ID)) return true;
     if (jj_scan_token(LPAREN)) return true;
     Token xsp;
@@ -1526,7 +1527,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_39() {
+  private boolean jj_3R_39() {
     if (jj_scan_token(STRINGLESS)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -1536,7 +1537,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_38() {
+  private boolean jj_3R_38() {
     if (jj_scan_token(STRINGEQUAL)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -1546,7 +1547,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_10() {
+  private boolean jj_3R_10() {
     if (jj_scan_token(ID)) return true;
     Token xsp;
     while (true) {
@@ -1556,7 +1557,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_37() {
+  private boolean jj_3R_37() {
     if (jj_scan_token(SUBSTRING)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -1568,7 +1569,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_36() {
+  private boolean jj_3R_36() {
     if (jj_scan_token(STRLEN)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -1576,7 +1577,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_58() {
+  private boolean jj_3R_58() {
     if (jj_scan_token(ID)) return true;
     Token xsp;
     while (true) {
@@ -1586,7 +1587,7 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_3R_35() {
+  private boolean jj_3R_35() {
     if (jj_scan_token(ISPLAIN)) return true;
     if (jj_scan_token(LPAREN)) return true;
     if (jj_3R_9()) return true;
@@ -1594,19 +1595,18 @@ public class Footle implements FootleConstants {
     return false;
   }
 
-  static private boolean jj_initialized_once = false;
   /** Generated Token Manager. */
-  static public FootleTokenManager token_source;
-  static SimpleCharStream jj_input_stream;
+  public FootleTokenManager token_source;
+  SimpleCharStream jj_input_stream;
   /** Current token. */
-  static public Token token;
+  public Token token;
   /** Next token. */
-  static public Token jj_nt;
-  static private int jj_ntk;
-  static private Token jj_scanpos, jj_lastpos;
-  static private int jj_la;
-  static private int jj_gen;
-  static final private int[] jj_la1 = new int[24];
+  public Token jj_nt;
+  private int jj_ntk;
+  private Token jj_scanpos, jj_lastpos;
+  private int jj_la;
+  private int jj_gen;
+  final private int[] jj_la1 = new int[24];
   static private int[] jj_la1_0;
   static private int[] jj_la1_1;
   static {
@@ -1619,9 +1619,9 @@ public class Footle implements FootleConstants {
    private static void jj_la1_init_1() {
       jj_la1_1 = new int[] {0x1ffe7,0x1ffe7,0x0,0x2000,0x0,0x80,0x1ff67,0x0,0x2000,0x0,0x1ff63,0x0,0x1ff63,0x1f63,0x0,0x1e000,0x1e000,0x1e000,0x1e000,0x1e000,0x1e000,0x1e000,0x1e000,0x1e000,};
    }
-  static final private JJCalls[] jj_2_rtns = new JJCalls[19];
-  static private boolean jj_rescan = false;
-  static private int jj_gc = 0;
+  final private JJCalls[] jj_2_rtns = new JJCalls[19];
+  private boolean jj_rescan = false;
+  private int jj_gc = 0;
 
   /** Constructor with InputStream. */
   public Footle(java.io.InputStream stream) {
@@ -1629,13 +1629,6 @@ public class Footle implements FootleConstants {
   }
   /** Constructor with InputStream and supplied encoding */
   public Footle(java.io.InputStream stream, String encoding) {
-    if (jj_initialized_once) {
-      System.out.println("ERROR: Second call to constructor of static parser.  ");
-      System.out.println("       You must either use ReInit() or set the JavaCC option STATIC to false");
-      System.out.println("       during parser generation.");
-      throw new Error();
-    }
-    jj_initialized_once = true;
     try { jj_input_stream = new SimpleCharStream(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
     token_source = new FootleTokenManager(jj_input_stream);
     token = new Token();
@@ -1646,11 +1639,11 @@ public class Footle implements FootleConstants {
   }
 
   /** Reinitialise. */
-  static public void ReInit(java.io.InputStream stream) {
+  public void ReInit(java.io.InputStream stream) {
      ReInit(stream, null);
   }
   /** Reinitialise. */
-  static public void ReInit(java.io.InputStream stream, String encoding) {
+  public void ReInit(java.io.InputStream stream, String encoding) {
     try { jj_input_stream.ReInit(stream, encoding, 1, 1); } catch(java.io.UnsupportedEncodingException e) { throw new RuntimeException(e); }
     token_source.ReInit(jj_input_stream);
     token = new Token();
@@ -1662,13 +1655,6 @@ public class Footle implements FootleConstants {
 
   /** Constructor. */
   public Footle(java.io.Reader stream) {
-    if (jj_initialized_once) {
-      System.out.println("ERROR: Second call to constructor of static parser. ");
-      System.out.println("       You must either use ReInit() or set the JavaCC option STATIC to false");
-      System.out.println("       during parser generation.");
-      throw new Error();
-    }
-    jj_initialized_once = true;
     jj_input_stream = new SimpleCharStream(stream, 1, 1);
     token_source = new FootleTokenManager(jj_input_stream);
     token = new Token();
@@ -1679,7 +1665,7 @@ public class Footle implements FootleConstants {
   }
 
   /** Reinitialise. */
-  static public void ReInit(java.io.Reader stream) {
+  public void ReInit(java.io.Reader stream) {
     jj_input_stream.ReInit(stream, 1, 1);
     token_source.ReInit(jj_input_stream);
     token = new Token();
@@ -1691,13 +1677,6 @@ public class Footle implements FootleConstants {
 
   /** Constructor with generated Token Manager. */
   public Footle(FootleTokenManager tm) {
-    if (jj_initialized_once) {
-      System.out.println("ERROR: Second call to constructor of static parser. ");
-      System.out.println("       You must either use ReInit() or set the JavaCC option STATIC to false");
-      System.out.println("       during parser generation.");
-      throw new Error();
-    }
-    jj_initialized_once = true;
     token_source = tm;
     token = new Token();
     jj_ntk = -1;
@@ -1716,7 +1695,7 @@ public class Footle implements FootleConstants {
     for (int i = 0; i < jj_2_rtns.length; i++) jj_2_rtns[i] = new JJCalls();
   }
 
-  static private Token jj_consume_token(int kind) throws ParseException {
+  private Token jj_consume_token(int kind) throws ParseException {
     Token oldToken;
     if ((oldToken = token).next != null) token = token.next;
     else token = token.next = token_source.getNextToken();
@@ -1741,8 +1720,8 @@ public class Footle implements FootleConstants {
   }
 
   static private final class LookaheadSuccess extends java.lang.Error { }
-  static final private LookaheadSuccess jj_ls = new LookaheadSuccess();
-  static private boolean jj_scan_token(int kind) {
+  final private LookaheadSuccess jj_ls = new LookaheadSuccess();
+  private boolean jj_scan_token(int kind) {
     if (jj_scanpos == jj_lastpos) {
       jj_la--;
       if (jj_scanpos.next == null) {
@@ -1765,7 +1744,7 @@ public class Footle implements FootleConstants {
 
 
 /** Get the next Token. */
-  static final public Token getNextToken() {
+  final public Token getNextToken() {
     if (token.next != null) token = token.next;
     else token = token.next = token_source.getNextToken();
     jj_ntk = -1;
@@ -1774,7 +1753,7 @@ public class Footle implements FootleConstants {
   }
 
 /** Get the specific Token. */
-  static final public Token getToken(int index) {
+  final public Token getToken(int index) {
     Token t = token;
     for (int i = 0; i < index; i++) {
       if (t.next != null) t = t.next;
@@ -1783,20 +1762,20 @@ public class Footle implements FootleConstants {
     return t;
   }
 
-  static private int jj_ntk() {
+  private int jj_ntk() {
     if ((jj_nt=token.next) == null)
       return (jj_ntk = (token.next=token_source.getNextToken()).kind);
     else
       return (jj_ntk = jj_nt.kind);
   }
 
-  static private java.util.List jj_expentries = new java.util.ArrayList();
-  static private int[] jj_expentry;
-  static private int jj_kind = -1;
-  static private int[] jj_lasttokens = new int[100];
-  static private int jj_endpos;
+  private java.util.List jj_expentries = new java.util.ArrayList();
+  private int[] jj_expentry;
+  private int jj_kind = -1;
+  private int[] jj_lasttokens = new int[100];
+  private int jj_endpos;
 
-  static private void jj_add_error_token(int kind, int pos) {
+  private void jj_add_error_token(int kind, int pos) {
     if (pos >= 100) return;
     if (pos == jj_endpos + 1) {
       jj_lasttokens[jj_endpos++] = kind;
@@ -1822,7 +1801,7 @@ public class Footle implements FootleConstants {
   }
 
   /** Generate ParseException. */
-  static public ParseException generateParseException() {
+  public ParseException generateParseException() {
     jj_expentries.clear();
     boolean[] la1tokens = new boolean[52];
     if (jj_kind >= 0) {
@@ -1859,14 +1838,14 @@ public class Footle implements FootleConstants {
   }
 
   /** Enable tracing. */
-  static final public void enable_tracing() {
+  final public void enable_tracing() {
   }
 
   /** Disable tracing. */
-  static final public void disable_tracing() {
+  final public void disable_tracing() {
   }
 
-  static private void jj_rescan_token() {
+  private void jj_rescan_token() {
     jj_rescan = true;
     for (int i = 0; i < 19; i++) {
     try {
@@ -1903,7 +1882,7 @@ public class Footle implements FootleConstants {
     jj_rescan = false;
   }
 
-  static private void jj_save(int index, int xla) {
+  private void jj_save(int index, int xla) {
     JJCalls p = jj_2_rtns[index];
     while (p.gen > jj_gen) {
       if (p.next == null) { p = p.next = new JJCalls(); break; }
@@ -0,0 +1,76 @@
+package staticpass;
+
+import value.Function;
+import value.Value;
+
+/**
+ * One variable as the static pass sees it: every declaration of it and
+ * every id that resolves to it share the Binding. The constant folder keeps
+ * what it learns about the variable here.
+ */
+public class Binding {
+
+	private String name;
+	private int declarations;
+	private Value constant;
+	private boolean varies;
+	// the function whose frame it lives in, null for the program's
+	private Function owner;
+	private boolean parameter;
+
+	public Binding(String name) {
+		this.name = name;
+		declarations = 0;
+		constant = null;
+		varies = false;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Function getOwner() {
+		return owner;
+	}
+
+	void setOwner(Function owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Whether it's one of its owner's parameters, set before the body runs.
+	 */
+	public boolean isParameter() {
+		return parameter;
+	}
+
+	void setParameter() {
+		parameter = true;
+	}
+
+	/**
+	 * The literal the variable always holds when it is read, or null.
+	 */
+	public Value getConstant() {
+		return (declarations == 1 && !varies) ? constant : null;
+	}
+
+	void declare(Value initial) {
+		declarations++;
+		constant = initial;
+	}
+
+	void vary() {
+		varies = true;
+	}
+
+	void forget() {
+		declarations = 0;
+		constant = null;
+		varies = false;
+	}
+
+	public String toString() {
+		return "(Binding " + name + ")";
+	}
+}
@@ -0,0 +1,200 @@
+package staticpass;
+
+import expression.*;
+import value.ClosureValue;
+import value.Function;
+import value.IdValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Works out the free variables of each closure literal, the ones its body
+ * reads from frames outside its own, so a closure keeps just those instead
+ * of the whole frame it was made in (and every frame that one leads to).
+ * The free variables are copied into a frame of their own when the closure
+ * is made (see Function.capture), and the ids in the body are pointed at it.
+ *
+ * Copying is only right for a variable that already has the value it will
+ * always have: a parameter, or a variable declared in an earlier statement
+ * and never assigned again. A closure using any other variable from outside
+ * keeps its whole frame, as it always has.
+ */
+public class ClosureConversion {
+
+	private Map<Expression, Binding> bindings;
+	// variables that can change after they're first set
+	private Set<Binding> mutable;
+	private int converted;
+	private int captured;
+
+	public ClosureConversion(Map<Expression, Binding> bindings) {
+		this.bindings = bindings;
+		converted = 0;
+		captured = 0;
+	}
+
+	/**
+	 * Closure literals that capture only their free variables.
+	 */
+	public int getConverted() {
+		return converted;
+	}
+
+	/**
+	 * Variables they capture between them.
+	 */
+	public int getCaptured() {
+		return captured;
+	}
+
+	public Expression convert(Expression program) {
+		mutable = new HashSet<Binding>();
+		findMutable(program, new HashMap<Binding, Integer>());
+		walk(program, new HashSet<Binding>());
+		return program;
+	}
+
+	private void findMutable(Expression exp, Map<Binding, Integer> declarations) {
+		if (exp == null) {
+			return;
+		}
+		Binding binding = null;
+		if (exp instanceof OpAssign && ((OpAssign) exp).getLVal() instanceof IdValue) {
+			mutable.add(bindings.get(((OpAssign) exp).getLVal()));
+		} else if (exp instanceof OpAssign) {
+			binding = bindings.get(((OpAssign) exp).getLVal());
+		} else if (exp instanceof OpVarDecl) {
+			// declared without a value, so it gets one later
+			mutable.add(bindings.get(exp));
+		} else if (exp instanceof OpFuncDecl) {
+			binding = bindings.get(exp);
+		}
+		if (binding != null) {
+			Integer count = declarations.get(binding);
+			declarations.put(binding, (count == null) ? 1 : count + 1);
+			if (count != null) {
+				mutable.add(binding);
+			}
+		}
+		if (!(exp instanceof OpAssign)) {
+			for (Expression child : StaticPass.children(exp)) {
+				findMutable(child, declarations);
+			}
+		} else {
+			findMutable(((OpAssign) exp).getRVal(), declarations);
+		}
+	}
+
+	private void walk(Expression exp, Set<Binding> initialized) {
+		// initialized holds the variables certainly set by now: declared in
+		// an earlier statement of a sequence we're inside
+		if (exp == null) {
+			return;
+		}
+		if (exp instanceof Sequence) {
+			Set<Binding> added = new HashSet<Binding>();
+			for (Expression statement : ((Sequence) exp).getExpressions()) {
+				walk(statement, initialized);
+				Binding binding = declared(statement);
+				if (binding != null && initialized.add(binding)) {
+					added.add(binding);
+				}
+			}
+			initialized.removeAll(added);
+			return;
+		}
+		if (exp instanceof ClosureValue) {
+			convert(((ClosureValue) exp).getIntFunc(), initialized);
+		}
+		for (Expression child : StaticPass.children(exp)) {
+			walk(child, initialized);
+		}
+	}
+
+	private Binding declared(Expression statement) {
+		// the variable statement sets, if it's a declaration with a value
+		if (statement instanceof OpAssign && ((OpAssign) statement).getLVal() instanceof OpVarDecl) {
+			return bindings.get(((OpAssign) statement).getLVal());
+		}
+		if (statement instanceof OpFuncDecl) {
+			return bindings.get(statement);
+		}
+		return null;
+	}
+
+	private void convert(Function function, Set<Binding> initialized) {
+		List<IdValue> free = new ArrayList<IdValue>();
+		List<Integer> inner = new ArrayList<Integer>();
+		collect(function.getBody(), 0, free, inner);
+		for (IdValue id : free) {
+			Binding binding = bindings.get(id);
+			if (binding == null || mutable.contains(binding)
+					|| !(binding.isParameter() || initialized.contains(binding))) {
+				return;
+			}
+		}
+
+		// number each frame and slot used once, and point the ids at the
+		// copy, which is the parent of the function's own frame
+		List<Integer> depths = new ArrayList<Integer>();
+		List<Integer> slots = new ArrayList<Integer>();
+		for (int i = 0; i < free.size(); i++) {
+			IdValue id = free.get(i);
+			int depth = id.getFrameCnt() - inner.get(i) - 1;
+			int index = 0;
+			while (index < depths.size()
+					&& !(depths.get(index) == depth && slots.get(index) == id.getFrameNum())) {
+				index++;
+			}
+			if (index == depths.size()) {
+				depths.add(depth);
+				slots.add(id.getFrameNum());
+			}
+			id.setFrameCnt(inner.get(i) + 1);
+			id.setFrameNum(index);
+		}
+		function.setCaptures(toArray(depths), toArray(slots));
+		converted++;
+		captured += depths.size();
+	}
+
+	private void collect(Expression exp, int frames, List<IdValue> free, List<Integer> inner) {
+		// the ids under exp that reach past the function's own frame, and
+		// how many frames each is inside of it
+		if (exp == null) {
+			return;
+		}
+		if (exp instanceof IdValue) {
+			if (((IdValue) exp).getFrameCnt() > frames) {
+				free.add((IdValue) exp);
+				inner.add(frames);
+			}
+			return;
+		}
+		if ((exp instanceof Scope && ((Scope) exp).getFrameSize() > 0)
+				|| exp instanceof OpFuncDecl || exp instanceof ClosureValue
+				|| exp instanceof Function) {
+			frames++;
+		}
+		for (Expression child : StaticPass.children(exp)) {
+			collect(child, frames, free, inner);
+		}
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+	public String toString() {
+		return converted + " closures capturing " + captured + " variables";
+	}
+}
@@ -0,0 +1,193 @@
+package staticpass;
+
+import Interpreter.Frame;
+import expression.*;
+import value.BoolValue;
+import value.FloatValue;
+import value.IdValue;
+import value.IntValue;
+import value.StringValue;
+import value.Value;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Folds operators whose operands are all literals into the literal they
+ * come to, and replaces reads of a variable with its value when the
+ * variable is declared with a literal other than a string and never
+ * assigned again. Run by
+ * StaticPass once every name is resolved, so everything downstream (the
+ * interpreter, the VM and the LLVM generator) sees the folded tree.
+ *
+ * A fold is made by evaluating the node itself, so it can't disagree with
+ * what the node would have done at run time. Anything that would fail, like
+ * adding a bool, is left for run time to fail on.
+ */
+public class ConstantFolder {
+
+	private Map<Expression, Binding> bindings;
+	private int folded;
+	private int propagated;
+
+	public ConstantFolder(Map<Expression, Binding> bindings) {
+		this.bindings = bindings;
+		folded = 0;
+		propagated = 0;
+	}
+
+	/**
+	 * Operators replaced by their value.
+	 */
+	public int getFolded() {
+		return folded;
+	}
+
+	/**
+	 * Variable reads replaced by the variable's value.
+	 */
+	public int getPropagated() {
+		return propagated;
+	}
+
+	public Expression fold(Expression program) {
+		// fold, then look for constant variables, and go round again as long
+		// as replacing them turns up more to fold
+		Expression result = rewrite(program);
+		while (true) {
+			for (Binding binding : bindings.values()) {
+				binding.forget();
+			}
+			scan(result, new HashSet<Binding>());
+			int before = propagated;
+			result = rewrite(result);
+			if (propagated == before) {
+				return result;
+			}
+		}
+	}
+
+	private void scan(Expression exp, Set<Binding> declared) {
+		// find out which variables hold the same literal whenever they're
+		// read. declared holds the ones certainly initialized by now: their
+		// declaration is an earlier statement of a sequence we're inside
+		if (exp == null) {
+			return;
+		}
+		if (exp instanceof Sequence) {
+			Set<Binding> added = new HashSet<Binding>();
+			for (Expression statement : ((Sequence) exp).getExpressions()) {
+				scan(statement, declared);
+				Binding binding = initialized(statement);
+				if (binding != null && declared.add(binding)) {
+					added.add(binding);
+				}
+			}
+			declared.removeAll(added);
+		} else if (exp instanceof OpAssign) {
+			Expression left = ((OpAssign) exp).getLVal();
+			Expression right = ((OpAssign) exp).getRVal();
+			Binding binding = bindings.get(left);
+			if (left instanceof OpVarDecl && binding != null) {
+				binding.declare(isShareable(right) ? (Value) right : null);
+			} else if (left instanceof IdValue && binding != null) {
+				binding.vary();
+			} else {
+				scan(left, declared);
+			}
+			scan(right, declared);
+		} else if (exp instanceof OpVarDecl) {
+			Binding binding = bindings.get(exp);
+			if (binding != null) {
+				binding.declare(null);
+			}
+		} else if (exp instanceof IdValue) {
+			Binding binding = bindings.get(exp);
+			if (binding != null && !declared.contains(binding)) {
+				// might be read before it's set
+				binding.vary();
+			}
+		} else {
+			for (Expression child : StaticPass.children(exp)) {
+				scan(child, declared);
+			}
+		}
+	}
+
+	private Binding initialized(Expression statement) {
+		// the variable statement declares with a literal, if it does
+		if (statement instanceof OpAssign
+				&& ((OpAssign) statement).getLVal() instanceof OpVarDecl
+				&& isLiteral(((OpAssign) statement).getRVal())) {
+			return bindings.get(((OpAssign) statement).getLVal());
+		}
+		return null;
+	}
+
+	private Expression rewrite(Expression exp) {
+		// exp with constants put in and folded, which may be a new node
+		if (exp == null) {
+			return null;
+		}
+		if (exp instanceof IdValue) {
+			Binding binding = bindings.get(exp);
+			if (binding != null && binding.getConstant() != null) {
+				propagated++;
+				return binding.getConstant();
+			}
+			return exp;
+		}
+		List<Expression> kids = StaticPass.children(exp);
+		if (exp instanceof OpAssign) {
+			// the left side is somewhere to store, not a value
+			kids.set(1, rewrite(kids.get(1)));
+		} else if (exp instanceof OpFunctionCall || exp instanceof OpNew) {
+			// and so is the name of what's called
+			rewrite(kids.listIterator(1));
+		} else {
+			rewrite(kids.listIterator());
+		}
+		StaticPass.setChildren(exp, kids);
+		return StaticPass.isPure(exp) ? evaluate(exp) : exp;
+	}
+
+	private void rewrite(ListIterator<Expression> expressions) {
+		while (expressions.hasNext()) {
+			expressions.set(rewrite(expressions.next()));
+		}
+	}
+
+	private Expression evaluate(Expression exp) {
+		// an operator on nothing but literals is replaced by its value
+		for (Expression child : StaticPass.children(exp)) {
+			if (!isLiteral(child)) {
+				return exp;
+			}
+		}
+		try {
+			Value val = exp.evaluate(new Frame(0, null));
+			if (isLiteral(val)) {
+				folded++;
+				return val;
+			}
+		} catch (Exception e) {
+			// it fails when it runs, and it has to fail then, not now
+		}
+		return exp;
+	}
+
+	private static boolean isShareable(Expression exp) {
+		// a literal every read of the variable can be given in its place. A
+		// string can be given fields, so the variable has to stay the one
+		// string it was set to
+		return isLiteral(exp) && !(exp instanceof StringValue);
+	}
+
+	public static boolean isLiteral(Expression exp) {
+		return exp instanceof IntValue || exp instanceof FloatValue
+				|| exp instanceof BoolValue || exp instanceof StringValue;
+	}
+}
@@ -0,0 +1,214 @@
+package staticpass;
+
+import expression.*;
+import value.BoolValue;
+import value.ClosureValue;
+import value.IdValue;
+
+import java.util.HashSet;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Takes out statements that can never run or whose running makes no
+ * difference: anything after a return, the branch an if with a constant test
+ * never takes, loops whose test is constantly false, literals standing on
+ * their own, and variables that are never read. Run by StaticPass after the
+ * constant folder, which is what turns most tests into constants and most
+ * variables into unread ones.
+ *
+ * Only whole statements of a sequence are removed. The last statement of a
+ * sequence is what the LLVM generator hands back as its value, so one that
+ * merely has no effect is kept.
+ */
+public class DeadCodeEliminator {
+
+	private Map<Expression, Binding> bindings;
+	// variables read somewhere, and names looked up at run time
+	private Set<Binding> read;
+	private Set<String> searched;
+	private int unreachable;
+	private int branches;
+	private int stores;
+	private int effectFree;
+
+	public DeadCodeEliminator(Map<Expression, Binding> bindings) {
+		this.bindings = bindings;
+		unreachable = 0;
+		branches = 0;
+		stores = 0;
+		effectFree = 0;
+	}
+
+	/**
+	 * Statements following one that always returns.
+	 */
+	public int getUnreachable() {
+		return unreachable;
+	}
+
+	/**
+	 * Ifs and loops with a constant test, replaced by what they do.
+	 */
+	public int getBranches() {
+		return branches;
+	}
+
+	/**
+	 * Declarations of and assignments to variables nothing reads.
+	 */
+	public int getStores() {
+		return stores;
+	}
+
+	/**
+	 * Statements that compute a value and do nothing with it.
+	 */
+	public int getEffectFree() {
+		return effectFree;
+	}
+
+	public int getPruned() {
+		return unreachable + branches + stores + effectFree;
+	}
+
+	public Expression eliminate(Expression program) {
+		// dropping a store can leave the variables it read unread in turn
+		while (true) {
+			int before = getPruned();
+			read = new HashSet<Binding>();
+			searched = new HashSet<String>();
+			mark(program);
+			prune(program);
+			if (getPruned() == before) {
+				return program;
+			}
+		}
+	}
+
+	private void mark(Expression exp) {
+		if (exp == null) {
+			return;
+		}
+		if (exp instanceof IdValue) {
+			Binding binding = bindings.get(exp);
+			if (binding != null) {
+				read.add(binding);
+			} else {
+				searched.add(((IdValue) exp).getInternalValue());
+			}
+		} else if (exp instanceof OpAssign) {
+			// storing into a variable doesn't read it
+			Expression left = ((OpAssign) exp).getLVal();
+			if (!(left instanceof IdValue)) {
+				mark(left);
+			}
+			mark(((OpAssign) exp).getRVal());
+		} else {
+			for (Expression child : StaticPass.children(exp)) {
+				mark(child);
+			}
+		}
+	}
+
+	private void prune(Expression exp) {
+		// every sequence under exp, function bodies included
+		if (exp == null) {
+			return;
+		}
+		if (exp instanceof Sequence) {
+			ListIterator<Expression> statements = ((Sequence) exp).getExpressions().listIterator();
+			boolean dead = false;
+			while (statements.hasNext()) {
+				Expression statement = statements.next();
+				if (dead) {
+					statements.remove();
+					unreachable++;
+					continue;
+				}
+				prune(statement);
+				Expression reduced = reduce(statement, !statements.hasNext());
+				if (reduced == null) {
+					statements.remove();
+				} else if (reduced != statement) {
+					statements.set(reduced);
+				}
+				dead = returns(reduced);
+			}
+		} else {
+			for (Expression child : StaticPass.children(exp)) {
+				prune(child);
+			}
+		}
+	}
+
+	private Expression reduce(Expression statement, boolean last) {
+		// what statement can be replaced by, null when nothing at all
+		if (statement instanceof OpIfElse && ((OpIfElse) statement).getTest() instanceof BoolValue) {
+			OpIfElse ifElse = (OpIfElse) statement;
+			branches++;
+			return ((BoolValue) ifElse.getTest()).getInternalValue() ? ifElse.getFirst() : ifElse.getSecond();
+		}
+		if (statement instanceof OpWhile && ((OpWhile) statement).getTest() instanceof BoolValue
+				&& !((BoolValue) ((OpWhile) statement).getTest()).getInternalValue()) {
+			branches++;
+			return null;
+		}
+		if (statement instanceof OpAssign && unread(((OpAssign) statement).getLVal())) {
+			// the value still has to be worked out if that does anything
+			Expression right = ((OpAssign) statement).getRVal();
+			stores++;
+			return isEffectFree(right) ? null : right;
+		}
+		if (statement instanceof OpVarDecl && unread(statement)) {
+			stores++;
+			return null;
+		}
+		if (!last && isEffectFree(statement)) {
+			effectFree++;
+			return null;
+		}
+		return statement;
+	}
+
+	private boolean unread(Expression variable) {
+		Binding binding = bindings.get(variable);
+		return (variable instanceof OpVarDecl || variable instanceof IdValue)
+				&& binding != null && !read.contains(binding)
+				&& !searched.contains(binding.getName());
+	}
+
+	private boolean returns(Expression exp) {
+		// whether running exp always ends in a return
+		if (exp instanceof Return) {
+			return true;
+		}
+		if (exp instanceof Scope) {
+			return returns(((Scope) exp).getExpression());
+		}
+		if (exp instanceof Sequence) {
+			for (Expression statement : ((Sequence) exp).getExpressions()) {
+				if (returns(statement)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		if (exp instanceof OpIfElse) {
+			OpIfElse ifElse = (OpIfElse) exp;
+			return ifElse.getSecond() != null && returns(ifElse.getFirst()) && returns(ifElse.getSecond());
+		}
+		return false;
+	}
+
+	private static boolean isEffectFree(Expression exp) {
+		// folding has turned anything pure that can't fail into a literal
+		return ConstantFolder.isLiteral(exp) || exp instanceof ClosureValue;
+	}
+
+	public String toString() {
+		return unreachable + " unreachable, " + branches + " branches, " + stores
+				+ " stores, " + effectFree + " without effect";
+	}
+}
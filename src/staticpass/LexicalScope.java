@@ -0,0 +1,94 @@
+package staticpass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compile time picture of one scope: the names declared directly in it and
+ * the slot each one got. Only functions, the program and loop bodies that
+ * create closures get a frame of their own at run time; every other block
+ * takes its slots from the frame that owns it, so it doesn't count when
+ * working out how many frames out a name lives.
+ */
+public class LexicalScope {
+
+	private LexicalScope parent;
+	private LexicalScope owner;
+	private List<String> names;
+	private List<Integer> slots;
+	private List<Binding> bindings;
+	private int frameSize;
+
+	public LexicalScope(LexicalScope parent, boolean materialized) {
+		this.parent = parent;
+		owner = (materialized || parent == null) ? this : parent.owner;
+		names = new ArrayList<String>();
+		slots = new ArrayList<Integer>();
+		bindings = new ArrayList<Binding>();
+		frameSize = 0;
+	}
+
+	public LexicalScope getParent() {
+		return parent;
+	}
+
+	public boolean isMaterialized() {
+		return owner == this;
+	}
+
+	/**
+	 * Number of slots the frame owning this scope needs, once everything
+	 * under it has been declared.
+	 */
+	public int getFrameSize() {
+		return owner.frameSize;
+	}
+
+	public int declare(String name) {
+		int index = names.indexOf(name);
+		if (index >= 0) {
+			return slots.get(index);
+		}
+		return declareParam(name);
+	}
+
+	public int declareParam(String name) {
+		// parameters are bound by position, so each gets its own slot
+		names.add(name);
+		slots.add(owner.frameSize++);
+		bindings.add(new Binding(name));
+		return owner.frameSize - 1;
+	}
+
+	public int indexOf(String name) {
+		int index = names.indexOf(name);
+		return (index >= 0) ? slots.get(index) : -1;
+	}
+
+	/**
+	 * What a name declared here stands for, the same object for every
+	 * declaration of it and every reference that resolves to it.
+	 */
+	public Binding binding(String name) {
+		int index = names.indexOf(name);
+		return (index >= 0) ? bindings.get(index) : null;
+	}
+
+	public int size() {
+		return names.size();
+	}
+
+	public int getDepth() {
+		int depth = 0;
+		for (LexicalScope s = this; s.parent != null; s = s.parent) {
+			if (s.isMaterialized()) {
+				depth++;
+			}
+		}
+		return depth;
+	}
+
+	public String toString() {
+		return "(LexicalScope " + names + " " + slots + ")";
+	}
+}
@@ -0,0 +1,202 @@
+package staticpass;
+
+import expression.*;
+import value.ClosureValue;
+import value.Function;
+import value.IdValue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves expressions that come out the same on every iteration of a loop out
+ * of it. An expression qualifies when it is pure (see StaticPass.isPure) and
+ * every variable it reads is left alone by the loop, meaning nothing in the
+ * loop assigns it and, if the loop calls anything, no function anywhere
+ * assigns it from outside its own frame. Each one gets a new slot in the
+ * frame the loop runs in and is replaced by a Hoisted reading that slot,
+ * which the loop fills before its first test.
+ *
+ * Loops are done outermost first, so an expression goes as far out as it
+ * can. Anything under a scope with a frame of its own is left in place,
+ * since the loop's frame isn't the one it would be read in.
+ */
+public class LoopInvariantMotion {
+
+	private Map<Expression, Binding> bindings;
+	// variables some function assigns that belong to another's frame
+	private Set<Binding> escaped;
+	private int loops;
+	private int hoisted;
+
+	public LoopInvariantMotion(Map<Expression, Binding> bindings) {
+		this.bindings = bindings;
+		loops = 0;
+		hoisted = 0;
+	}
+
+	/**
+	 * Loops given a pre-header.
+	 */
+	public int getLoops() {
+		return loops;
+	}
+
+	/**
+	 * Expressions moved into one.
+	 */
+	public int getHoisted() {
+		return hoisted;
+	}
+
+	public Expression hoist(Expression program) {
+		// there's only a frame to put things in if the program has a scope
+		if (program instanceof Scope) {
+			escaped = new HashSet<Binding>();
+			findEscaped(program, null);
+			visit(((Scope) program).getExpression(), program);
+		}
+		return program;
+	}
+
+	private void findEscaped(Expression exp, Function function) {
+		if (exp == null) {
+			return;
+		}
+		if (exp instanceof OpFuncDecl) {
+			function = ((OpFuncDecl) exp).getFunction();
+		} else if (exp instanceof ClosureValue) {
+			function = ((ClosureValue) exp).getIntFunc();
+		} else if (exp instanceof Function) {
+			function = (Function) exp;
+		} else if (exp instanceof OpAssign) {
+			Binding binding = bindings.get(((OpAssign) exp).getLVal());
+			if (binding != null && binding.getOwner() != function) {
+				escaped.add(binding);
+			}
+		}
+		for (Expression child : StaticPass.children(exp)) {
+			findEscaped(child, function);
+		}
+	}
+
+	private void visit(Expression exp, Expression frame) {
+		// find the loops under exp, frame being the Scope or Function whose
+		// frame they run in
+		if (exp == null) {
+			return;
+		}
+		if (exp instanceof Scope && ((Scope) exp).getFrameSize() > 0) {
+			frame = exp;
+		} else if (exp instanceof OpFuncDecl) {
+			frame = ((OpFuncDecl) exp).getFunction();
+		} else if (exp instanceof ClosureValue) {
+			frame = ((ClosureValue) exp).getIntFunc();
+		} else if (exp instanceof Function) {
+			frame = exp;
+		} else if (exp instanceof OpWhile) {
+			motion((OpWhile) exp, frame);
+		}
+		for (Expression child : StaticPass.children(exp)) {
+			visit(child, frame);
+		}
+	}
+
+	private void motion(OpWhile loop, Expression frame) {
+		Set<Binding> assigned = new HashSet<Binding>();
+		boolean calls = scan(loop.getTest(), assigned) | scan(loop.getBody(), assigned);
+		int before = hoisted;
+		loop.setTest(replace(loop.getTest(), loop, frame, assigned, calls));
+		loop.setBody(replace(loop.getBody(), loop, frame, assigned, calls));
+		if (hoisted > before) {
+			loops++;
+		}
+	}
+
+	private boolean scan(Expression exp, Set<Binding> assigned) {
+		// collect what exp assigns, and whether it calls anything that could
+		// assign more
+		if (exp == null) {
+			return false;
+		}
+		boolean calls = exp instanceof OpFunctionCall || exp instanceof OpNew;
+		if (exp instanceof OpAssign || exp instanceof OpFuncDecl) {
+			Expression target = (exp instanceof OpAssign) ? ((OpAssign) exp).getLVal() : exp;
+			if (bindings.get(target) != null) {
+				assigned.add(bindings.get(target));
+			}
+		}
+		for (Expression child : StaticPass.children(exp)) {
+			calls |= scan(child, assigned);
+		}
+		return calls;
+	}
+
+	private Expression replace(Expression exp, OpWhile loop, Expression frame,
+			Set<Binding> assigned, boolean calls) {
+		// exp with each largest invariant expression in it moved out of loop.
+		// One an outer loop has already moved is as far out as it goes
+		if (exp == null || (exp instanceof Scope && ((Scope) exp).getFrameSize() > 0)
+				|| exp instanceof OpFuncDecl || exp instanceof ClosureValue
+				|| exp instanceof Function || exp instanceof Hoisted) {
+			return exp;
+		}
+		if (StaticPass.isPure(exp) && isInvariant(exp, assigned, calls)) {
+			Hoisted invariant = new Hoisted(exp, allocate(frame));
+			loop.addInvariant(invariant);
+			hoisted++;
+			return invariant;
+		}
+		List<Expression> kids = StaticPass.children(exp);
+		ListIterator<Expression> i = kids.listIterator();
+		if (exp instanceof OpFunctionCall || exp instanceof OpNew) {
+			// the name of what's called stays a name
+			i.next();
+		}
+		while (i.hasNext()) {
+			i.set(replace(i.next(), loop, frame, assigned, calls));
+		}
+		StaticPass.setChildren(exp, kids);
+		return exp;
+	}
+
+	private boolean isInvariant(Expression exp, Set<Binding> assigned, boolean calls) {
+		if (ConstantFolder.isLiteral(exp) || exp instanceof Hoisted) {
+			// one hoisted by an outer loop is set before this loop starts
+			return true;
+		}
+		if (exp instanceof IdValue) {
+			Binding binding = bindings.get(exp);
+			return binding != null && !assigned.contains(binding)
+					&& !(calls && escaped.contains(binding));
+		}
+		if (!StaticPass.isPure(exp)) {
+			return false;
+		}
+		for (Expression child : StaticPass.children(exp)) {
+			if (!isInvariant(child, assigned, calls)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int allocate(Expression frame) {
+		// a new slot at the end of frame
+		if (frame instanceof Scope) {
+			Scope scope = (Scope) frame;
+			scope.setFrameSize(scope.getFrameSize() + 1);
+			return scope.getFrameSize() - 1;
+		}
+		Function function = (Function) frame;
+		function.setFrameSize(function.getFrameSize() + 1);
+		return function.getFrameSize() - 1;
+	}
+
+	public String toString() {
+		return hoisted + " hoisted out of " + loops + " loops";
+	}
+}
@@ -1,18 +1,22 @@
 package staticpass;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
 import expression.Expression;
+import value.Value;
 
 public class Scope implements Expression {
 	
 	private Expression expression;
+	private int frameSize;
 	
 	public Scope(Expression exp)
 	{
 		expression = exp;
+		frameSize = 0;
 	}
 	
 	public Expression getExpression()
@@ -20,9 +24,41 @@ public class Scope implements Expression {
 		return expression;
 	}
 
+	public void setExpression(Expression exp)
+	{
+		expression = exp;
+	}
+
+	public int getFrameSize()
+	{
+		return frameSize;
+	}
+
+	public void setFrameSize(int size)
+	{
+		frameSize = size;
+	}
+
 	public Environment getValue(Environment environment)
 			throws ReturnException, TypeException, UnboundIdentifierException {
-        return expression.getValue(environment);
+		return Frame.adapt(this, environment);
+	}
+
+	public Value evaluate(Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException {
+		// scopes without declarations share the enclosing frame
+		if (frameSize == 0)
+		{
+			return expression.evaluate(frame);
+		}
+		Frame inner = new Frame(frameSize, frame, frame.getDynamic());
+		Value result = expression.evaluate(inner);
+		// a return inside still has to reach the function this frame is in
+		if (inner.isReturning())
+		{
+			frame.returnFrom(inner);
+		}
+		return result;
 	}
 
     public String toString()
@@ -2,12 +2,22 @@ package staticpass;
 
 import expression.*;
 import value.ClosureValue;
+import value.Function;
+import value.IdValue;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 
 public class StaticPass {
 
+	// goes up whenever a change to this pass, or to any of the passes it
+	// runs, changes the tree it leaves for a program; ScriptCache keys saved
+	// trees by it, so one analysed by an older pass is never read back
+	public static final int VERSION = 1;
+
 	private Expression program;
 	private List<String> functionNames;
 	private List<Integer> functionIds;
@@ -16,6 +26,14 @@ public class StaticPass {
 	private List<Integer> variableFrameCnts;
 	private List<Integer> variableFrameNbrs;
 	private int scopes;
+	private int functionDepth;
+	private Function function;
+	// the variable every declaration and resolved id stands for
+	private Map<Expression, Binding> bindings;
+	private ConstantFolder folder;
+	private DeadCodeEliminator eliminator;
+	private ClosureConversion conversion;
+	private LoopInvariantMotion motion;
 
 	public StaticPass(Expression prog) {
 		program = prog;
@@ -25,111 +43,481 @@ public class StaticPass {
 		variableFrameNbrs = new ArrayList<Integer>();
 		variableNames = new ArrayList<String>();
 		scopes = 0;
+		functionDepth = 0;
+		bindings = new IdentityHashMap<Expression, Binding>();
+		folder = new ConstantFolder(bindings);
+		eliminator = new DeadCodeEliminator(bindings);
+		conversion = new ClosureConversion(bindings);
+		motion = new LoopInvariantMotion(bindings);
 	}
 
 	public Expression runStaticPass() {
-		runNode(program, 0, 0);
+		runNode(program, null);
+		program = folder.fold(program);
+		program = eliminator.eliminate(program);
+		program = conversion.convert(program);
+		program = motion.hoist(program);
 		return program;
 	}
 
-	private int runNode(Expression exp, int scopeCnt, int varCnt) {
-		// Most values do not need to be traversed
-		// Right now we only need to count var decl and function declarations
+	private void runNode(Expression exp, LexicalScope scope) {
+		// Resolve every identifier to the frame it lives in (counted outwards
+		// from the current one) and its slot in that frame
+		if (exp == null) {
+			return;
+		}
+		if (scope == null && !(exp instanceof Scope)) {
+			// nothing to resolve against outside of a scope
+			scope = new LexicalScope(null, false);
+		}
 		if (exp instanceof Scope) {
-			scopes++;
-			runNode(((Scope) exp).getExpression(), scopeCnt + 1, 0);
+			// only the program itself needs a frame, blocks share their owner's
+			runScope((Scope) exp, scope, scope == null);
 		} else if (exp instanceof Sequence) {
 			List<Expression> expr = ((Sequence) exp).getExpressions();
 
 			// we need to check each of the expressions in the sequence
 			for (Expression expression : expr) {
-				varCnt = runNode(expression, scopeCnt, varCnt);
+				runNode(expression, scope);
 			}
 		} else if (exp instanceof OpVarDecl) {
-			//TODO: The way scope and varCnt are being passed around doesn't seem right.
 			OpVarDecl idval = (OpVarDecl) exp;
 			variableNames.add(idval.getName());
-			idval.setFrameCnt(scopeCnt);
-			variableFrameCnts.add(idval.getFrameCnt());
-			idval.setFrameNum(varCnt++);
+			// always bound in the frame it is declared in
+			idval.setFrameCnt(0);
+			variableFrameCnts.add(scope.getDepth());
+			idval.setFrameNum(scope.indexOf(idval.getName()));
 			variableFrameNbrs.add(idval.getFrameNum());
+			if (idval.getFrameNum() >= 0) {
+				bindings.put(idval, scope.binding(idval.getName()));
+				scope.binding(idval.getName()).setOwner(function);
+			}
 		} else if (exp instanceof OpFuncDecl) {
 			OpFuncDecl funcdec = (OpFuncDecl) exp;
 			functionNames.add(funcdec.getFuncName());
 			functionIds.add(nextFuncId++);
+			funcdec.setFrameNum(scope.indexOf(funcdec.getFuncName()));
+			if (funcdec.getFrameNum() >= 0) {
+				bindings.put(funcdec, scope.binding(funcdec.getFuncName()));
+				scope.binding(funcdec.getFuncName()).setOwner(function);
+			}
+			runFunction(funcdec.getFunction(), scope);
 		} else if (exp instanceof ClosureValue) {
 			ClosureValue val = (ClosureValue) exp;
 			val.setFuncId(nextFuncId);
 			functionNames.add("closure");
 			functionIds.add(nextFuncId++);
+			runFunction(val.getIntFunc(), scope);
+		} else if (exp instanceof Function) {
+			runFunction((Function) exp, scope);
+		} else if (exp instanceof IdValue) {
+			resolve((IdValue) exp, scope);
 		} else if (exp instanceof And) {
-			runNode(((And) exp).getOne(), scopeCnt, varCnt);
-			runNode(((And) exp).getTwo(), scopeCnt, varCnt);
+			runNode(((And) exp).getOne(), scope);
+			runNode(((And) exp).getTwo(), scope);
 		} else if (exp instanceof IsType) {
-
+			runNode(((IsType) exp).getExp(), scope);
 		} else if (exp instanceof Not) {
-			runNode(((Not) exp).getOne(), scopeCnt, varCnt);
+			runNode(((Not) exp).getOne(), scope);
 		} else if (exp instanceof OpAdd) {
-			runNode(((OpAdd) exp).getOne(), scopeCnt, varCnt);
-			runNode(((OpAdd) exp).getTwo(), scopeCnt, varCnt);
+			runNode(((OpAdd) exp).getOne(), scope);
+			runNode(((OpAdd) exp).getTwo(), scope);
 		} else if (exp instanceof OpAssign) {
-			runNode(((OpAssign) exp).getLVal(), scopeCnt, varCnt);
-			runNode(((OpAssign) exp).getRVal(), scopeCnt, varCnt);
+			runNode(((OpAssign) exp).getLVal(), scope);
+			runNode(((OpAssign) exp).getRVal(), scope);
 		} else if (exp instanceof OpDivide) {
-			runNode(((OpDivide) exp).getOne(), scopeCnt, varCnt);
-			runNode(((OpDivide) exp).getTwo(), scopeCnt, varCnt);
+			runNode(((OpDivide) exp).getOne(), scope);
+			runNode(((OpDivide) exp).getTwo(), scope);
 		} else if (exp instanceof OpEquals) {
-			runNode(((OpEquals) exp).getLeft(), scopeCnt, varCnt);
-			runNode(((OpEquals) exp).getRight(), scopeCnt, varCnt);
+			runNode(((OpEquals) exp).getLeft(), scope);
+			runNode(((OpEquals) exp).getRight(), scope);
 		} else if (exp instanceof OpField) {
-
+			// the right hand side names a field, not a variable
+			runNode(((OpField) exp).getLeft(), scope);
 		} else if (exp instanceof OpFunctionCall) {
-
+			OpFunctionCall call = (OpFunctionCall) exp;
+			resolve(call.getName(), scope);
+			for (Expression arg : call.getArgs()) {
+				runNode(arg, scope);
+			}
 		} else if (exp instanceof OpGreaterThan) {
-			runNode(((OpGreaterThan) exp).getOne(), scopeCnt, varCnt);
-			runNode(((OpGreaterThan) exp).getTwo(), scopeCnt, varCnt);
+			runNode(((OpGreaterThan) exp).getOne(), scope);
+			runNode(((OpGreaterThan) exp).getTwo(), scope);
 		} else if (exp instanceof OpGTE) {
-			runNode(((OpGTE) exp).getOne(), scopeCnt, varCnt);
-			runNode(((OpGTE) exp).getTwo(), scopeCnt, varCnt);
+			runNode(((OpGTE) exp).getOne(), scope);
+			runNode(((OpGTE) exp).getTwo(), scope);
 		} else if (exp instanceof OpIfElse) {
-			runNode(((OpIfElse) exp).getTest(), scopeCnt, varCnt);
-			runNode(((OpIfElse) exp).getFirst(), scopeCnt, varCnt);
-			runNode(((OpIfElse) exp).getSecond(), scopeCnt, varCnt);
+			runNode(((OpIfElse) exp).getTest(), scope);
+			runNode(((OpIfElse) exp).getFirst(), scope);
+			runNode(((OpIfElse) exp).getSecond(), scope);
 		} else if (exp instanceof OpInstanceOf) {
 
 		} else if (exp instanceof OpLessThan) {
-			runNode(((OpLessThan) exp).getOne(), scopeCnt, varCnt);
-			runNode(((OpLessThan) exp).getTwo(), scopeCnt, varCnt);
+			runNode(((OpLessThan) exp).getOne(), scope);
+			runNode(((OpLessThan) exp).getTwo(), scope);
+		} else if (exp instanceof OpLTE) {
+			runNode(((OpLTE) exp).getOne(), scope);
+			runNode(((OpLTE) exp).getTwo(), scope);
 		} else if (exp instanceof OpMult) {
-			runNode(((OpMult) exp).getOne(), scopeCnt, varCnt);
-			runNode(((OpMult) exp).getTwo(), scopeCnt, varCnt);
+			runNode(((OpMult) exp).getOne(), scope);
+			runNode(((OpMult) exp).getTwo(), scope);
 		} else if (exp instanceof OpNew) {
-
+			OpNew onew = (OpNew) exp;
+			resolve(onew.getName(), scope);
+			for (Expression arg : onew.getArgs()) {
+				runNode(arg, scope);
+			}
 		} else if (exp instanceof OpStringEqual) {
-
+			runNode(((OpStringEqual) exp).getLeft(), scope);
+			runNode(((OpStringEqual) exp).getRight(), scope);
 		} else if (exp instanceof OpStringLess) {
-
+			runNode(((OpStringLess) exp).getLeft(), scope);
+			runNode(((OpStringLess) exp).getRight(), scope);
 		} else if (exp instanceof OpSub) {
-
+			runNode(((OpSub) exp).getOne(), scope);
+			runNode(((OpSub) exp).getTwo(), scope);
 		} else if (exp instanceof OpWhile) {
-			runNode(((OpWhile) exp).getTest(), scopeCnt, varCnt);
-			runNode(((OpWhile) exp).getBody(), scopeCnt, varCnt);
+			// its back edges count towards the function it's in
+			((OpWhile) exp).setFunction(function);
+			runNode(((OpWhile) exp).getTest(), scope);
+			Expression body = ((OpWhile) exp).getBody();
+			if (body instanceof Scope) {
+				// closures made in the body have to see that iteration's bindings
+				runScope((Scope) body, scope, createsClosure(body));
+			} else {
+				runNode(body, scope);
+			}
 		} else if (exp instanceof Or) {
-
+			runNode(((Or) exp).getOne(), scope);
+			runNode(((Or) exp).getTwo(), scope);
 		} else if (exp instanceof Print) {
-
+			runNode(((Print) exp).getValue(), scope);
 		} else if (exp instanceof ReadLine) {
 
 		} else if (exp instanceof Return) {
+			Expression value = ((Return) exp).getExp();
+			if (functionDepth > 0 && value instanceof OpFunctionCall) {
+				// nothing is left to do in this call once that one returns,
+				// so the caller's frame can go before it starts
+				((OpFunctionCall) value).setTailCall(true);
+			}
+			runNode(value, scope);
+		} else if (exp instanceof StringLength) {
+			runNode(((StringLength) exp).getString(), scope);
+		} else if (exp instanceof SubString) {
+			runNode(((SubString) exp).getString(), scope);
+			runNode(((SubString) exp).getStart(), scope);
+			runNode(((SubString) exp).getEnd(), scope);
+		}
+	}
+
+	private void runScope(Scope s, LexicalScope scope, boolean materialize) {
+		scopes++;
+		LexicalScope inner = new LexicalScope(scope, materialize);
+		// declarations are visible from the start of the scope
+		declare(s.getExpression(), inner);
+		runNode(s.getExpression(), inner);
+		// nested blocks have added their slots by now. A loop body that was
+		// given a frame needs it even with nothing declared, since the ids
+		// in it have been counted past it
+		int size = materialize ? inner.getFrameSize() : 0;
+		s.setFrameSize((materialize && scope != null) ? Math.max(size, 1) : size);
+	}
+
+	private void runFunction(Function func, LexicalScope scope) {
+		// the parameters and every local of the body share the one frame
+		// each call gets
+		LexicalScope params = new LexicalScope(scope, true);
+		for (String param : func.getParamList()) {
+			params.declareParam(param);
+			params.binding(param).setOwner(func);
+			params.binding(param).setParameter();
+		}
+		functionDepth++;
+		Function outer = function;
+		function = func;
+		runNode(func.getBody(), params);
+		function = outer;
+		functionDepth--;
+		func.setFrameSize(params.getFrameSize());
+	}
+
+	private boolean createsClosure(Expression exp) {
+		if (exp instanceof ClosureValue || exp instanceof OpFuncDecl) {
+			return true;
+		}
+		for (Expression child : children(exp)) {
+			if (createsClosure(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
 
+	/**
+	 * The direct sub-expressions of a node, function bodies included.
+	 */
+	public static List<Expression> children(Expression exp) {
+		List<Expression> kids = new ArrayList<Expression>();
+		if (exp instanceof Scope) {
+			kids.add(((Scope) exp).getExpression());
+		} else if (exp instanceof Sequence) {
+			kids.addAll(((Sequence) exp).getExpressions());
+		} else if (exp instanceof OpFuncDecl) {
+			kids.add(((OpFuncDecl) exp).getFunction().getBody());
+		} else if (exp instanceof ClosureValue) {
+			kids.add(((ClosureValue) exp).getIntFunc().getBody());
+		} else if (exp instanceof Function) {
+			kids.add(((Function) exp).getBody());
+		} else if (exp instanceof And) {
+			kids.add(((And) exp).getOne());
+			kids.add(((And) exp).getTwo());
+		} else if (exp instanceof Or) {
+			kids.add(((Or) exp).getOne());
+			kids.add(((Or) exp).getTwo());
+		} else if (exp instanceof IsType) {
+			kids.add(((IsType) exp).getExp());
+		} else if (exp instanceof Not) {
+			kids.add(((Not) exp).getOne());
+		} else if (exp instanceof OpAdd) {
+			kids.add(((OpAdd) exp).getOne());
+			kids.add(((OpAdd) exp).getTwo());
+		} else if (exp instanceof OpSub) {
+			kids.add(((OpSub) exp).getOne());
+			kids.add(((OpSub) exp).getTwo());
+		} else if (exp instanceof OpMult) {
+			kids.add(((OpMult) exp).getOne());
+			kids.add(((OpMult) exp).getTwo());
+		} else if (exp instanceof OpDivide) {
+			kids.add(((OpDivide) exp).getOne());
+			kids.add(((OpDivide) exp).getTwo());
+		} else if (exp instanceof OpLessThan) {
+			kids.add(((OpLessThan) exp).getOne());
+			kids.add(((OpLessThan) exp).getTwo());
+		} else if (exp instanceof OpGreaterThan) {
+			kids.add(((OpGreaterThan) exp).getOne());
+			kids.add(((OpGreaterThan) exp).getTwo());
+		} else if (exp instanceof OpLTE) {
+			kids.add(((OpLTE) exp).getOne());
+			kids.add(((OpLTE) exp).getTwo());
+		} else if (exp instanceof OpGTE) {
+			kids.add(((OpGTE) exp).getOne());
+			kids.add(((OpGTE) exp).getTwo());
+		} else if (exp instanceof OpEquals) {
+			kids.add(((OpEquals) exp).getLeft());
+			kids.add(((OpEquals) exp).getRight());
+		} else if (exp instanceof OpAssign) {
+			kids.add(((OpAssign) exp).getLVal());
+			kids.add(((OpAssign) exp).getRVal());
+		} else if (exp instanceof OpField) {
+			kids.add(((OpField) exp).getLeft());
+		} else if (exp instanceof OpFunctionCall) {
+			kids.add(((OpFunctionCall) exp).getName());
+			kids.addAll(((OpFunctionCall) exp).getArgs());
+		} else if (exp instanceof OpNew) {
+			kids.add(((OpNew) exp).getName());
+			kids.addAll(((OpNew) exp).getArgs());
+		} else if (exp instanceof OpIfElse) {
+			kids.add(((OpIfElse) exp).getTest());
+			kids.add(((OpIfElse) exp).getFirst());
+			if (((OpIfElse) exp).getSecond() != null) {
+				kids.add(((OpIfElse) exp).getSecond());
+			}
+		} else if (exp instanceof OpWhile) {
+			kids.add(((OpWhile) exp).getTest());
+			kids.add(((OpWhile) exp).getBody());
+		} else if (exp instanceof OpStringEqual) {
+			kids.add(((OpStringEqual) exp).getLeft());
+			kids.add(((OpStringEqual) exp).getRight());
+		} else if (exp instanceof OpStringLess) {
+			kids.add(((OpStringLess) exp).getLeft());
+			kids.add(((OpStringLess) exp).getRight());
+		} else if (exp instanceof Print) {
+			kids.add(((Print) exp).getValue());
+		} else if (exp instanceof Return) {
+			kids.add(((Return) exp).getExp());
 		} else if (exp instanceof StringLength) {
+			kids.add(((StringLength) exp).getString());
+		} else if (exp instanceof SubString) {
+			kids.add(((SubString) exp).getString());
+			kids.add(((SubString) exp).getStart());
+			kids.add(((SubString) exp).getEnd());
+		} else if (exp instanceof Hoisted) {
+			kids.add(((Hoisted) exp).getExpression());
+		}
+		return kids;
+	}
 
+	/**
+	 * Puts back the children children(exp) gave, in the same order, after a
+	 * pass has replaced some of them. Names aren't values to replace, so the
+	 * target of an assignment and the function a call or new names stay.
+	 */
+	public static void setChildren(Expression exp, List<Expression> kids) {
+		if (exp instanceof Scope) {
+			((Scope) exp).setExpression(kids.get(0));
+		} else if (exp instanceof Sequence) {
+			ListIterator<Expression> expressions = ((Sequence) exp).getExpressions().listIterator();
+			for (Expression kid : kids) {
+				expressions.next();
+				expressions.set(kid);
+			}
+		} else if (exp instanceof OpFuncDecl) {
+			((OpFuncDecl) exp).getFunction().setBody(kids.get(0));
+		} else if (exp instanceof ClosureValue) {
+			((ClosureValue) exp).getIntFunc().setBody(kids.get(0));
+		} else if (exp instanceof Function) {
+			((Function) exp).setBody(kids.get(0));
+		} else if (exp instanceof And) {
+			((And) exp).setOne(kids.get(0));
+			((And) exp).setTwo(kids.get(1));
+		} else if (exp instanceof Or) {
+			((Or) exp).setOne(kids.get(0));
+			((Or) exp).setTwo(kids.get(1));
+		} else if (exp instanceof IsType) {
+			((IsType) exp).setExp(kids.get(0));
+		} else if (exp instanceof Not) {
+			((Not) exp).setOne(kids.get(0));
+		} else if (exp instanceof OpAdd) {
+			((OpAdd) exp).setOne(kids.get(0));
+			((OpAdd) exp).setTwo(kids.get(1));
+		} else if (exp instanceof OpSub) {
+			((OpSub) exp).setOne(kids.get(0));
+			((OpSub) exp).setTwo(kids.get(1));
+		} else if (exp instanceof OpMult) {
+			((OpMult) exp).setOne(kids.get(0));
+			((OpMult) exp).setTwo(kids.get(1));
+		} else if (exp instanceof OpDivide) {
+			((OpDivide) exp).setOne(kids.get(0));
+			((OpDivide) exp).setTwo(kids.get(1));
+		} else if (exp instanceof OpLessThan) {
+			((OpLessThan) exp).setOne(kids.get(0));
+			((OpLessThan) exp).setTwo(kids.get(1));
+		} else if (exp instanceof OpGreaterThan) {
+			((OpGreaterThan) exp).setOne(kids.get(0));
+			((OpGreaterThan) exp).setTwo(kids.get(1));
+		} else if (exp instanceof OpLTE) {
+			((OpLTE) exp).setOne(kids.get(0));
+			((OpLTE) exp).setTwo(kids.get(1));
+		} else if (exp instanceof OpGTE) {
+			((OpGTE) exp).setOne(kids.get(0));
+			((OpGTE) exp).setTwo(kids.get(1));
+		} else if (exp instanceof OpEquals) {
+			((OpEquals) exp).setLeft(kids.get(0));
+			((OpEquals) exp).setRight(kids.get(1));
+		} else if (exp instanceof OpAssign) {
+			((OpAssign) exp).setRVal(kids.get(1));
+		} else if (exp instanceof OpField) {
+			((OpField) exp).setLeft(kids.get(0));
+		} else if (exp instanceof OpFunctionCall) {
+			setAll(((OpFunctionCall) exp).getArgs(), kids.subList(1, kids.size()));
+		} else if (exp instanceof OpNew) {
+			setAll(((OpNew) exp).getArgs(), kids.subList(1, kids.size()));
+		} else if (exp instanceof OpIfElse) {
+			((OpIfElse) exp).setTest(kids.get(0));
+			((OpIfElse) exp).setFirst(kids.get(1));
+			if (((OpIfElse) exp).getSecond() != null) {
+				((OpIfElse) exp).setSecond(kids.get(2));
+			}
+		} else if (exp instanceof OpWhile) {
+			((OpWhile) exp).setTest(kids.get(0));
+			((OpWhile) exp).setBody(kids.get(1));
+		} else if (exp instanceof OpStringEqual) {
+			((OpStringEqual) exp).setLeft(kids.get(0));
+			((OpStringEqual) exp).setRight(kids.get(1));
+		} else if (exp instanceof OpStringLess) {
+			((OpStringLess) exp).setLeft(kids.get(0));
+			((OpStringLess) exp).setRight(kids.get(1));
+		} else if (exp instanceof Print) {
+			((Print) exp).setValue(kids.get(0));
+		} else if (exp instanceof Return) {
+			((Return) exp).setExp(kids.get(0));
+		} else if (exp instanceof StringLength) {
+			((StringLength) exp).setString(kids.get(0));
 		} else if (exp instanceof SubString) {
+			((SubString) exp).setString(kids.get(0));
+			((SubString) exp).setStart(kids.get(1));
+			((SubString) exp).setEnd(kids.get(2));
+		} else if (exp instanceof Hoisted) {
+			((Hoisted) exp).setExpression(kids.get(0));
+		}
+	}
+
+	private static void setAll(List<Expression> args, List<Expression> kids) {
+		ListIterator<Expression> expressions = args.listIterator();
+		for (Expression kid : kids) {
+			expressions.next();
+			expressions.set(kid);
+		}
+	}
+
+	/**
+	 * Whether exp is an operator whose value depends on nothing but its
+	 * operands, and which does nothing besides working it out.
+	 */
+	public static boolean isPure(Expression exp) {
+		return exp instanceof OpAdd || exp instanceof OpSub || exp instanceof OpMult
+				|| exp instanceof OpDivide || exp instanceof OpLessThan
+				|| exp instanceof OpGreaterThan || exp instanceof OpLTE || exp instanceof OpGTE
+				|| exp instanceof OpEquals || exp instanceof And || exp instanceof Or
+				|| exp instanceof Not || exp instanceof IsType || exp instanceof OpStringEqual
+				|| exp instanceof OpStringLess || exp instanceof StringLength
+				|| exp instanceof SubString;
+	}
+
+	private void declare(Expression exp, LexicalScope scope) {
+		// collect the names a scope declares, without going into nested
+		// scopes or function bodies since those get their own frames
+		if (exp instanceof Sequence) {
+			for (Expression expression : ((Sequence) exp).getExpressions()) {
+				declare(expression, scope);
+			}
+		} else if (exp instanceof OpVarDecl) {
+			scope.declare(((OpVarDecl) exp).getName());
+		} else if (exp instanceof OpFuncDecl) {
+			scope.declare(((OpFuncDecl) exp).getFuncName());
+		} else if (exp instanceof OpAssign) {
+			declare(((OpAssign) exp).getLVal(), scope);
+		} else if (exp instanceof OpIfElse) {
+			// branches without braces declare into the enclosing scope
+			declare(((OpIfElse) exp).getFirst(), scope);
+			declare(((OpIfElse) exp).getSecond(), scope);
+		}
+	}
 
+	private void resolve(IdValue id, LexicalScope scope) {
+		int depth = 0;
+		for (LexicalScope s = scope; s != null; s = s.getParent()) {
+			int slot = s.indexOf(id.getInternalValue());
+			if (slot >= 0) {
+				id.setFrameCnt(depth);
+				id.setFrameNum(slot);
+				bindings.put(id, s.binding(id.getInternalValue()));
+				return;
+			}
+			if (s.isMaterialized()) {
+				depth++;
+			}
 		}
+		// not declared anywhere we can see, leave it to the name search
+		id.setFrameCnt(-1);
+		id.setFrameNum(-1);
+	}
+
+	public ConstantFolder getFolder() {
+		return folder;
+	}
+
+	public DeadCodeEliminator getEliminator() {
+		return eliminator;
+	}
+
+	public ClosureConversion getConversion() {
+		return conversion;
+	}
 
-		// return in case we added a variable to this scope
-		return varCnt;
+	public LoopInvariantMotion getMotion() {
+		return motion;
 	}
 
 	public Expression getProgram() {
@@ -167,7 +555,9 @@ public class StaticPass {
 			spStr += variableNames.get(i) + ", " + variableFrameCnts.get(i)
 					+ ", " + variableFrameNbrs.get(i) + "\n";
 		}
-		spStr = spStr.substring(0, spStr.length() - 1);
+		spStr += "-Statements pruned-\n" + eliminator + "\n";
+		spStr += "-Closures converted-\n" + conversion + "\n";
+		spStr += "-Loop invariants-\n" + motion;
 		return spStr;
 	}
 
@@ -0,0 +1,153 @@
+package test.Interpreter;
+
+import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.ReturnException;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
+import expression.Expression;
+import expression.OpFuncDecl;
+import expression.Return;
+import jvm.Tiers;
+import parser.Footle;
+import staticpass.StaticPass;
+import value.ClosureValue;
+import value.Function;
+import value.Value;
+import value.VoidValue;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Times a return heavy recursive program through the interpreter, every call
+ * to fib ends in a return. It runs twice over: once as the interpreter has
+ * it, the return marking the frame, and once with each return thrown as an
+ * exception and caught where the function's body is run, the way it used to
+ * be done. Not a JUnit test, run it by hand with
+ *     java test.Interpreter.ReturnBenchmark [n] [runs]
+ */
+public class ReturnBenchmark {
+    private static final String PROGRAM =
+        "function fib(n) {" +
+        "  if (n < 2) { return n; }" +
+        "  else { var a = fib(n - 1); var b = fib(n - 2); return a + b; }" +
+        "}" +
+        "var result = fib(%d);";
+
+    public static void main(String[] args) throws Exception {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 22;
+        int runs = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+        // the tree walker's own time, not that of what it tiers up to
+        Tiers.setThreshold(-1);
+        String source = String.format(PROGRAM, n);
+        Expression marked = new StaticPass(new Footle(new StringReader(source)).Input()).runStaticPass();
+        Expression thrown = throwing(new StaticPass(new Footle(new StringReader(source)).Input()).runStaticPass());
+
+        long frame = Long.MAX_VALUE;
+        long exception = Long.MAX_VALUE;
+        // the first few runs of each let the JIT settle
+        for (int i = 0; i < runs + 3; i++) {
+            long start = System.nanoTime();
+            marked.evaluate(new Frame(0, null));
+            long time = System.nanoTime() - start;
+            if (i >= 3) {
+                frame = Math.min(frame, time);
+            }
+
+            start = System.nanoTime();
+            thrown.evaluate(new Frame(0, null));
+            time = System.nanoTime() - start;
+            if (i >= 3) {
+                exception = Math.min(exception, time);
+            }
+        }
+        System.out.println("fib(" + n + "): returns through the frame best " + (frame / 1000000)
+                + " ms, thrown best " + (exception / 1000000) + " ms over " + runs + " runs");
+    }
+
+    private static Expression throwing(Expression exp) {
+        // exp with every return thrown, and every function body catching
+        // what its returns throw
+        if (exp == null) {
+            return null;
+        }
+        if (exp instanceof Return) {
+            return new Throw(throwing(((Return) exp).getExp()));
+        }
+        Function function = null;
+        if (exp instanceof OpFuncDecl) {
+            function = ((OpFuncDecl) exp).getFunction();
+        } else if (exp instanceof ClosureValue) {
+            function = ((ClosureValue) exp).getIntFunc();
+        } else if (exp instanceof Function) {
+            function = (Function) exp;
+        }
+        if (function != null) {
+            function.setBody(new Catch(throwing(function.getBody())));
+            return exp;
+        }
+        List<Expression> kids = StaticPass.children(exp);
+        for (ListIterator<Expression> i = kids.listIterator(); i.hasNext();) {
+            i.set(throwing(i.next()));
+        }
+        StaticPass.setChildren(exp, kids);
+        return exp;
+    }
+
+    /**
+     * A return on its way out of a function, stack trace and all.
+     */
+    private static class Returned extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Value value;
+
+        public Returned(Value value) {
+            this.value = value;
+        }
+    }
+
+    private static class Throw implements Expression {
+        private Expression exp;
+
+        public Throw(Expression exp) {
+            this.exp = exp;
+        }
+
+        public Environment getValue(Environment environment) throws ReturnException,
+                TypeException, UnboundIdentifierException {
+            return Frame.adapt(this, environment);
+        }
+
+        public Value evaluate(Frame frame) throws ReturnException,
+                TypeException, UnboundIdentifierException {
+            throw new Returned(exp.evaluate(frame));
+        }
+    }
+
+    private static class Catch implements Expression {
+        private Expression body;
+
+        public Catch(Expression body) {
+            this.body = body;
+        }
+
+        public Environment getValue(Environment environment) throws ReturnException,
+                TypeException, UnboundIdentifierException {
+            return Frame.adapt(this, environment);
+        }
+
+        public Value evaluate(Frame frame) throws ReturnException,
+                TypeException, UnboundIdentifierException {
+            try {
+                return body.evaluate(frame);
+            } catch (Returned returned) {
+                frame.setReturned(returned.value);
+                return VoidValue.VOID;
+            }
+        }
+    }
+}
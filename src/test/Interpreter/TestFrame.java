@@ -0,0 +1,87 @@
+package test.Interpreter;
+
+import Interpreter.Environment;
+import Interpreter.Frame;
+import org.junit.*;
+        import static org.junit.Assert.*;
+import value.IntValue;
+import value.IdValue;
+
+public class TestFrame {
+    private Frame outer;
+    private Frame inner;
+
+    public TestFrame() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+        outer = new Frame(2, null);
+        inner = new Frame(1, outer);
+        outer.set(1, new IntValue(1));
+        inner.set(0, new IntValue(2));
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    @Test
+    public void testFrame() {
+        assertTrue((outer!=null)&&(inner!=null));
+        assertTrue(inner.getParent()==outer);
+    } // testFrame()
+
+    @Test
+    public void testGetFrame() {
+        assertTrue(inner.getFrame(0)==inner);
+        assertTrue(inner.getFrame(1)==outer);
+        assertTrue(inner.getFrame(2)==null);
+    } // testGetFrame()
+
+    @Test
+    public void testLookup() {
+        assertTrue(((IntValue)inner.lookup(0, 0)).getInternalValue()==2);
+        assertTrue(((IntValue)inner.lookup(1, 1)).getInternalValue()==1);
+        assertTrue(inner.lookup(1, 0)==null);
+        assertTrue(inner.lookup(2, 0)==null);
+        assertTrue(inner.lookup(0, 5)==null);
+    } // testLookup()
+
+    @Test
+    public void testStore() {
+        assertTrue(inner.store(1, 0, new IntValue(7)));
+        assertTrue(((IntValue)outer.get(0)).getInternalValue()==7);
+        assertFalse(inner.store(3, 0, new IntValue(7)));
+    } // testStore()
+
+    @Test
+    public void testFind() {
+        inner.bind("innerVal", new IntValue(3));
+        IdValue resolved = new IdValue("outerVal");
+        resolved.setFrameCnt(1);
+        resolved.setFrameNum(1);
+        assertTrue(((IntValue)inner.find(resolved)).getInternalValue()==1);
+        // unresolved ids still go by name
+        assertTrue(((IntValue)inner.find(new IdValue("innerVal"))).getInternalValue()==3);
+        assertTrue(inner.find(new IdValue("blah"))==null);
+    } // testFind()
+
+    @Test
+    public void testAssign() {
+        IdValue resolved = new IdValue("outerVal");
+        resolved.setFrameCnt(1);
+        resolved.setFrameNum(1);
+        assertTrue(inner.assign(resolved, new IntValue(9)));
+        assertTrue(((IntValue)outer.get(1)).getInternalValue()==9);
+        assertFalse(inner.assign(new IdValue("blah"), new IntValue(9)));
+    } // testAssign()
+}
@@ -0,0 +1,83 @@
+package test.Interpreter;
+
+import Interpreter.Input;
+import org.junit.*;
+        import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class TestInput {
+
+    public TestInput() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    private static Input input(String text) {
+        return Input.forStream(new ByteArrayInputStream(text.getBytes()));
+    }
+
+    @Test
+    public void testLineEnds() throws IOException {
+        Input in = input("one\ntwo\r\nthree\rfour\n\nlast");
+        assertEquals("one", in.readLine());
+        assertEquals("two", in.readLine());
+        assertEquals("three", in.readLine());
+        assertEquals("four", in.readLine());
+        assertEquals("", in.readLine());
+        assertEquals("last", in.readLine());
+        assertNull(in.readLine());
+    } // testLineEnds()
+
+    @Test
+    public void testLongLine() throws IOException {
+        // longer than the buffer, so it comes in pieces
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 200000; i++) {
+            line.append((char) ('a' + i % 26));
+        }
+        Input in = input(line + "\r\nafter\n");
+        assertEquals(line.toString(), in.readLine());
+        assertEquals("after", in.readLine());
+        assertNull(in.readLine());
+    } // testLongLine()
+
+    @Test
+    public void testMapped() throws IOException {
+        File file = File.createTempFile("input", ".txt");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("skip\nfirst\r\nsecond".getBytes());
+        out.close();
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // from wherever the channel has got to
+            raf.seek(5);
+            Input in = Input.forChannel(raf.getChannel());
+            assertNotNull(in);
+            assertEquals("first", in.readLine());
+            assertEquals("second", in.readLine());
+            assertNull(in.readLine());
+        } finally {
+            raf.close();
+        }
+    } // testMapped()
+}
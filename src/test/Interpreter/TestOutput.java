@@ -0,0 +1,71 @@
+package test.Interpreter;
+
+import Interpreter.Output;
+import org.junit.*;
+        import static org.junit.Assert.*;
+import value.StringValue;
+
+public class TestOutput {
+    private StringBuilder printed;
+    private Output out;
+
+    public TestOutput() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+        printed = new StringBuilder();
+        out = Output.forTarget(printed);
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    @Test
+    public void testInts() {
+        int[] values = { 0, 7, -7, 10, 123456789, Integer.MAX_VALUE, Integer.MIN_VALUE, -1000 };
+        StringBuilder expected = new StringBuilder();
+        for (int value : values) {
+            out.print(value);
+            out.print(" ");
+            expected.append(value).append(" ");
+        }
+        out.flush();
+        assertEquals(expected.toString(), printed.toString());
+    } // testInts()
+
+    @Test
+    public void testOthers() {
+        out.print(1.5f);
+        out.print(true);
+        out.print(false);
+        new StringValue("a view of this").substring(2, 6).printTo(out);
+        out.print("abc", 1, 3);
+        out.flush();
+        assertEquals("1.5truefalseviewbc", printed.toString());
+    } // testOthers()
+
+    @Test
+    public void testBuffered() {
+        // nothing goes out until it's flushed or the buffer fills
+        out.print("held");
+        assertEquals("", printed.toString());
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            big.append((char) ('a' + i % 26));
+        }
+        out.print(big);
+        assertTrue(printed.length() > 0);
+        out.flush();
+        assertEquals("held" + big, printed.toString());
+    } // testBuffered()
+}
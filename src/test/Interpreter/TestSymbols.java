@@ -0,0 +1,95 @@
+package test.Interpreter;
+
+import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.Symbols;
+import expression.Expression;
+import expression.Sequence;
+import expression.OpVarDecl;
+import org.junit.*;
+        import static org.junit.Assert.*;
+import value.Function;
+import value.IdValue;
+import value.IntValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TestSymbols {
+
+    public TestSymbols() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    @Test
+    public void testIntern() {
+        String built = new StringBuilder("sym").append("bol").toString();
+        assertSame("symbol", Symbols.intern(built));
+        assertSame(Symbols.intern(built), Symbols.intern(new String("symbol")));
+        assertNull(Symbols.intern(null));
+    } // testIntern()
+
+    @Test
+    public void testNames() {
+        // names made from separate strings come out as the one symbol
+        String name = new StringBuilder("th").append("is").toString();
+        assertSame("this", new IdValue(name).getInternalValue());
+        assertSame(new IdValue(new String("x")).getInternalValue(), new OpVarDecl(new String("x")).getName());
+    } // testNames()
+
+    @Test
+    public void testLookup() {
+        Environment env = new Environment(null, new OpVarDecl(new String("x")).getName(), new IntValue(1));
+        assertTrue(Environment.findIDInList(new IdValue(new String("x")).getInternalValue(), env) == env);
+        assertNull(Environment.findIDInList("y", env));
+    } // testLookup()
+
+    @Test
+    public void testBoundAtRunTime() {
+        // a name bound straight into an environment is found by its symbol
+        Environment env = new Environment(null, new StringBuilder("y").append("z").toString(), new IntValue(2));
+        assertTrue(Environment.findIDInList(new IdValue("yz").getInternalValue(), env) == env);
+        Frame frame = new Frame(0, null);
+        frame.bind(new String("w"), new IntValue(3));
+        assertNotNull(Environment.findIDInList("w", frame.getDynamic()));
+    } // testBoundAtRunTime()
+
+    @Test
+    public void testLookupBuiltAtRunTime() {
+        // a name looked up that was put together at run time still finds
+        // the binding for the same name
+        Environment env = new Environment(null, "count", new IntValue(4));
+        env = new Environment(env, "other", new IntValue(5));
+        assertSame(env.next, Environment.findIDInList(new String("count"), env));
+        assertSame(env.next, Environment.findIDInList("recount".substring(2), env));
+        assertSame(env, env.findID(new StringBuilder("oth").append("er").toString()));
+        assertNull(Environment.findIDInList(new String("missing"), env));
+    } // testLookupBuiltAtRunTime()
+
+    @Test
+    public void testParams() {
+        // the parameter list is interned into a copy, the caller's is left be
+        String name = new String("p");
+        List<String> params = Collections.unmodifiableList(Arrays.asList(name));
+        Function function = new Function(params, new Sequence(new ArrayList<Expression>()));
+        assertSame("p", function.getParamList().get(0));
+        assertSame(name, params.get(0));
+    } // testParams()
+}
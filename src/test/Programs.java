@@ -0,0 +1,46 @@
+package test;
+
+import Interpreter.Output;
+import engine.FootleEngine;
+import expression.Expression;
+import parser.ParseException;
+import staticpass.StaticPass;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+/**
+ * Helpers for the tests that run whole Footle programs.
+ */
+public class Programs {
+    /**
+     * Something that runs a parsed program, the way one of the engines does.
+     */
+    public interface Engine {
+        void run(Expression program) throws Exception;
+    }
+
+    public static Expression parse(String source) throws ParseException {
+        return new StaticPass(read(source)).runStaticPass();
+    }
+
+    public static Expression read(String source) throws ParseException {
+        // the tree as parsed, before the static pass has been over it
+        return FootleEngine.read(new StringReader(source));
+    }
+
+    public static String output(Expression program, Engine engine) throws Exception {
+        // what running program prints, with unix line endings
+        PrintStream out = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed));
+        try {
+            engine.run(program);
+        } finally {
+            Output.getStandard().flush();
+            System.setOut(out);
+        }
+        return printed.toString().replace("\r\n", "\n");
+    }
+}
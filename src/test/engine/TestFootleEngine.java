@@ -0,0 +1,173 @@
+package test.engine;
+
+import Interpreter.Input;
+import Interpreter.Output;
+import Interpreter.TypeException;
+import engine.CompiledScript;
+import engine.FootleEngine;
+import expression.CallSiteCache;
+import expression.Expression;
+import expression.OpFunctionCall;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import staticpass.StaticPass;
+
+import value.IntValue;
+import value.Value;
+
+import java.io.ByteArrayInputStream;
+
+public class TestFootleEngine {
+    private static final String ECHO =
+            "function twice(s) { print(s); print(s); } var n = 0;" +
+            "while (n < 2) { twice(n); n = n + 1; }";
+    private static final String COUNTER =
+            "function counter() { var c = 0; return function() { c = c + 1; return c; }; }" +
+            "var k = counter(); k(); k(); print(k());";
+
+    public TestFootleEngine() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    private static String execute(CompiledScript script, String input) throws Exception {
+        // what one run of script prints, reading input
+        StringBuilder printed = new StringBuilder();
+        script.execute(Input.forStream(new ByteArrayInputStream(input.getBytes("UTF-8"))),
+                Output.forTarget(printed));
+        return printed.toString();
+    }
+
+    @Test
+    public void testExecuteAgain() throws Exception {
+        // every run starts from nothing, on every backend
+        int[] backends = { FootleEngine.TREE, FootleEngine.VM, FootleEngine.JVM };
+        for (int backend : backends) {
+            CompiledScript echo = new FootleEngine(backend).compile(ECHO);
+            CompiledScript counter = new FootleEngine(backend).compile(COUNTER);
+            assertEquals(backend, echo.getBackend());
+            for (int i = 0; i < 3; i++) {
+                assertEquals("0\n0\n1\n1\n", execute(echo, ""));
+                assertEquals("3\n", execute(counter, ""));
+            }
+        }
+    } // testExecuteAgain()
+
+    @Test
+    public void testLiteralsFresh() throws Exception {
+        // fields given to a literal's string in one run aren't there in the
+        // next, and within a run the string keeps them
+        int[] backends = { FootleEngine.TREE, FootleEngine.VM, FootleEngine.JVM };
+        for (int backend : backends) {
+            CompiledScript script = new FootleEngine(backend).compile(
+                    "var s = \"abc\"; print(void?(s.n)); s.n = 5; print(s.n);");
+            assertEquals("true\n5\n", execute(script, ""));
+            assertEquals("true\n5\n", execute(script, ""));
+        }
+    } // testLiteralsFresh()
+
+    @Test
+    public void testCompiledOnce() throws Exception {
+        CompiledScript script = new FootleEngine(FootleEngine.VM).compile(ECHO);
+        Expression program = script.getProgram();
+        execute(script, "");
+        assertSame(program, script.getProgram());
+    } // testCompiledOnce()
+
+    @Test
+    public void testCachesCleared() throws Exception {
+        // a run leaves none of its callees behind at the call sites
+        CompiledScript script = new FootleEngine().compile(ECHO);
+        execute(script, "");
+        assertEquals(0, sites(script.getProgram()));
+    } // testCachesCleared()
+
+    private static int sites(Expression exp) {
+        // how many callees the call sites under exp still hold
+        int held = 0;
+        if (exp instanceof OpFunctionCall) {
+            CallSiteCache cache = ((OpFunctionCall) exp).getCache();
+            held += cache.size();
+        }
+        for (Expression child : StaticPass.children(exp)) {
+            if (child != null) {
+                held += sites(child);
+            }
+        }
+        return held;
+    }
+
+    @Test
+    public void testOwnOutput() throws Exception {
+        // printing goes to the run's output, and nowhere once it's over
+        CompiledScript script = new FootleEngine().compile("print(42);");
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        Input input = Input.forStream(new ByteArrayInputStream(new byte[0]));
+        Output output = Output.forTarget(first);
+        script.execute(input, output);
+        script.execute(input, Output.forTarget(second));
+        assertEquals("42\n", first.toString());
+        assertEquals("42\n", second.toString());
+        assertNotSame(output, Output.getStandard());
+        assertNotSame(input, Input.getStandard());
+    } // testOwnOutput()
+
+    @Test
+    public void testTopLevelReturn() throws Exception {
+        // what the program returns is what the run does, whichever backend
+        int[] backends = { FootleEngine.TREE, FootleEngine.VM, FootleEngine.JVM };
+        String[] sources = {
+            "function f(x) { return x * 2; } return f(21);",
+            "var x = 40; return x + 2; print(x);",
+            "function g(n) { if (n == 0) { return 42; } else { return g(n - 1); } } return g(5000);",
+        };
+        for (String source : sources) {
+            for (int backend : backends) {
+                CompiledScript script = new FootleEngine(backend).compile(source);
+                StringBuilder printed = new StringBuilder();
+                Value result = script.execute(Input.forStream(new ByteArrayInputStream(new byte[0])),
+                        Output.forTarget(printed));
+                assertTrue(source + " on " + backend + ": " + result, result instanceof IntValue);
+                assertEquals(42, ((IntValue) result).getInternalValue());
+                assertEquals("", printed.toString());
+            }
+        }
+    } // testTopLevelReturn()
+
+    @Test
+    public void testFlushedOnError() throws Exception {
+        // what a run printed before it failed is out by the time it's over
+        int[] backends = { FootleEngine.TREE, FootleEngine.VM, FootleEngine.JVM };
+        for (int backend : backends) {
+            CompiledScript script = new FootleEngine(backend).compile("print(7); var b = true; print(b + 1);");
+            StringBuilder printed = new StringBuilder();
+            try {
+                script.execute(Input.forStream(new ByteArrayInputStream(new byte[0])),
+                        Output.forTarget(printed));
+                fail();
+            } catch (TypeException e) {
+            }
+            assertEquals("7\n", printed.toString());
+        }
+    } // testFlushedOnError()
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoBackend() {
+        new FootleEngine(7);
+    } // testNoBackend()
+}
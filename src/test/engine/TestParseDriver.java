@@ -0,0 +1,128 @@
+package test.engine;
+
+import Interpreter.Input;
+import Interpreter.Output;
+import engine.CompiledScript;
+import engine.FootleEngine;
+import engine.ParseDriver;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import parser.ParseException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestParseDriver {
+    private File directory;
+
+    public TestParseDriver() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() throws IOException {
+        directory = File.createTempFile("footle", "");
+        directory.delete();
+        directory.mkdir();
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    } // methodCleanup()
+
+    private File write(String name, String source) throws IOException {
+        File file = new File(directory, name);
+        FileWriter out = new FileWriter(file);
+        out.write(source);
+        out.close();
+        return file;
+    }
+
+    private static String source(int i) {
+        return "function f(n) { var acc = 0; while (n > 0) { acc = acc + n; n = n - 1; } return acc; }" +
+               "var r = f(" + i + "); print(r); print(" + i + " * 2);";
+    }
+
+    private static String execute(CompiledScript script) throws Exception {
+        StringBuilder printed = new StringBuilder();
+        script.execute(Input.forStream(new ByteArrayInputStream(new byte[0])),
+                Output.forTarget(printed));
+        return printed.toString();
+    }
+
+    @Test
+    public void testCompileDirectory() throws Exception {
+        // many files at once, each the script it would be on its own
+        for (int i = 0; i < 24; i++) {
+            write(String.format("script%02d", i), source(i));
+        }
+        List<CompiledScript> scripts =
+                new ParseDriver(new FootleEngine(FootleEngine.VM), 4).compileDirectory(directory);
+        assertEquals(24, scripts.size());
+        for (int i = 0; i < 24; i++) {
+            assertEquals(execute(new FootleEngine().compile(source(i))), execute(scripts.get(i)));
+            assertEquals((i * (i + 1) / 2) + "\n" + (i * 2) + "\n", execute(scripts.get(i)));
+        }
+    } // testCompileDirectory()
+
+    @Test
+    public void testParsersApart() throws Exception {
+        // parsers on different threads don't see each other's input
+        final List<String> printed = new ArrayList<String>();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final int n = t;
+            printed.add(null);
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        String result = null;
+                        for (int i = 0; i < 50; i++) {
+                            result = execute(new FootleEngine().compile(source(n)));
+                        }
+                        synchronized (printed) {
+                            printed.set(n, result);
+                        }
+                    } catch (Exception e) {
+                        // left null, and the check below fails
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int n = 0; n < threads.length; n++) {
+            assertEquals((n * (n + 1) / 2) + "\n" + (n * 2) + "\n", printed.get(n));
+        }
+    } // testParsersApart()
+
+    @Test(expected = ParseException.class)
+    public void testParseError() throws Exception {
+        List<File> files = new ArrayList<File>();
+        files.add(write("good", source(3)));
+        files.add(write("bad", "var = ;"));
+        new ParseDriver(new FootleEngine()).compile(files);
+    } // testParseError()
+
+    @Test
+    public void testNothingToDo() throws Exception {
+        assertTrue(new ParseDriver(new FootleEngine()).compile(new ArrayList<File>()).isEmpty());
+    } // testNothingToDo()
+}
@@ -0,0 +1,205 @@
+package test.engine;
+
+import Interpreter.Input;
+import Interpreter.Output;
+import engine.CompiledScript;
+import engine.FootleEngine;
+import engine.ScriptCache;
+import engine.TreeFormat;
+import engine.TreeReader;
+import engine.TreeWriter;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+
+import value.BoolValue;
+import value.ClosureValue;
+import value.FloatValue;
+import value.IntValue;
+import value.PlainObject;
+import value.StringValue;
+import value.VoidValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class TestScriptCache {
+    private static final String[] PROGRAMS = {
+        // closures, converted and not, and tail calls
+        "function adder(n) { return function(x) { return x + n; }; } var add = adder(5); print(add(3));" +
+        "function counter() { var c = 0; return function() { c = c + 1; return c; }; }" +
+        "var k = counter(); k(); print(k());" +
+        "function odd(x) { if (x == 0) { return false; } else { return even(x - 1); } }" +
+        "function even(x) { if (x == 0) { return true; } else { return odd(x - 1); } } print(even(1001));",
+        // a loop with an invariant hoisted out of it, in a function
+        "function f(a, b) { var i = 0; var s = 0; while (i < 10) { s = s + a * b; i = i + 1; } return s; }" +
+        "print(f(3, 4)); var j = 0; while (j < 3) { print(j * 1.5); j = j + 1; }",
+        // objects, strings and the type tests
+        "function Point(a, b) { return function() { this.x = a; this.y = b; }; }" +
+        "var p = new Point(3, 4); p.x = 7; print(p.x + p.y); var s = \"hello world\";" +
+        "print(substring(s, 0, 5)); print(string-length(s)); print(string=?(s, \"hello world\"));" +
+        "print(string<?(\"abc\", \"abd\")); print(string?(s)); print(floating-point?(3.0));" +
+        "print(closure?(p)); print(!true || false);",
+    };
+
+    private File directory;
+
+    public TestScriptCache() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() throws IOException {
+        directory = File.createTempFile("footle", "");
+        directory.delete();
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+        if (directory.isDirectory()) {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    } // methodCleanup()
+
+    private static String execute(CompiledScript script) throws Exception {
+        StringBuilder printed = new StringBuilder();
+        script.execute(Input.forStream(new ByteArrayInputStream(new byte[0])),
+                Output.forTarget(printed));
+        return printed.toString();
+    }
+
+    private static byte[] saved(CompiledScript script) {
+        return TreeWriter.write(script.getProgram(), new byte[0]);
+    }
+
+    @Test
+    public void testReadBack() throws Exception {
+        // a tree read back is the tree that was saved, and runs the same
+        // on every engine
+        ScriptCache cache = new ScriptCache(directory);
+        int[] backends = { FootleEngine.TREE, FootleEngine.VM, FootleEngine.JVM };
+        for (String source : PROGRAMS) {
+            CompiledScript parsed = new FootleEngine().compile(source);
+            String expected = execute(new FootleEngine().compile(source));
+            new FootleEngine(FootleEngine.TREE, cache).compile(source);
+            for (int backend : backends) {
+                CompiledScript loaded = new FootleEngine(backend, cache).compile(source);
+                assertEquals(expected, execute(loaded));
+                assertEquals(expected, execute(loaded));
+            }
+            assertArrayEquals(saved(parsed), saved(new FootleEngine(FootleEngine.TREE, cache).compile(source)));
+        }
+        assertEquals(PROGRAMS.length, cache.getMisses());
+        assertEquals(4 * PROGRAMS.length, cache.getHits());
+        assertEquals(PROGRAMS.length, directory.listFiles().length);
+    } // testReadBack()
+
+    @Test
+    public void testFile() throws Exception {
+        ScriptCache cache = new ScriptCache(directory);
+        File script = File.createTempFile("footle", ".ft");
+        try {
+            FileWriter out = new FileWriter(script);
+            out.write(PROGRAMS[1]);
+            out.close();
+            FootleEngine engine = new FootleEngine(FootleEngine.VM, cache);
+            String first = execute(engine.compile(script));
+            assertEquals(first, execute(engine.compile(script)));
+            assertEquals(1, cache.getHits());
+        } finally {
+            script.delete();
+        }
+    } // testFile()
+
+    @Test
+    public void testDamaged() throws Exception {
+        // a saved tree that can't be read is parsed again, and saved over
+        ScriptCache cache = new ScriptCache(directory);
+        FootleEngine engine = new FootleEngine(FootleEngine.TREE, cache);
+        String expected = execute(engine.compile(PROGRAMS[0]));
+        File file = directory.listFiles()[0];
+        long length = file.length();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] { 1, 2, 3 });
+        out.close();
+        assertEquals(expected, execute(engine.compile(PROGRAMS[0])));
+        assertEquals(2, cache.getMisses());
+        assertEquals(length, file.length());
+        assertEquals(expected, execute(engine.compile(PROGRAMS[0])));
+        assertEquals(1, cache.getHits());
+    } // testDamaged()
+
+    @Test
+    public void testOtherSource() throws Exception {
+        // the tree of one source saved where another's should be isn't read
+        ScriptCache cache = new ScriptCache(directory);
+        FootleEngine engine = new FootleEngine(FootleEngine.TREE, cache);
+        engine.compile(PROGRAMS[0]);
+        File first = directory.listFiles()[0];
+        engine.compile(PROGRAMS[1]);
+        File second = directory.listFiles()[0].equals(first) ? directory.listFiles()[1] : directory.listFiles()[0];
+        assertTrue(second.delete());
+        assertTrue(first.renameTo(second));
+        assertEquals("12\n", execute(engine.compile("print(12);")));
+        String expected = execute(new FootleEngine().compile(PROGRAMS[1]));
+        assertEquals(expected, execute(engine.compile(PROGRAMS[1])));
+        assertEquals(0, cache.getHits());
+    } // testOtherSource()
+
+    @Test(expected = IOException.class)
+    public void testCutShort() throws Exception {
+        byte[] key = { 7 };
+        byte[] bytes = TreeWriter.write(new FootleEngine().compile(PROGRAMS[2]).getProgram(), key);
+        TreeReader.read(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 1)), key);
+    } // testCutShort()
+
+    @Test
+    public void testBadNumbers() throws Exception {
+        // lengths that come out negative, too big for the file, or too long
+        // for an int are damage too, not something to allocate
+        byte[][] lengths = {
+            { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f },
+            { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07 },
+            { (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x7f },
+            { 0x40 },
+        };
+        for (byte[] length : lengths) {
+            ByteBuffer bytes = ByteBuffer.allocate(8 + length.length + 4);
+            bytes.putInt(TreeFormat.MAGIC).putInt(TreeFormat.VERSION).put(length);
+            bytes.flip();
+            try {
+                TreeReader.read(bytes, new byte[0]);
+                fail();
+            } catch (IOException e) {
+            }
+        }
+    } // testBadNumbers()
+
+    @Test
+    public void testTypes() {
+        // a type test is saved as a tag from a fixed table, never a class name
+        Class<?>[] types = { IntValue.class, FloatValue.class, StringValue.class, VoidValue.class,
+            ClosureValue.class, PlainObject.class };
+        for (int i = 0; i < types.length; i++) {
+            assertSame(types[i], TreeFormat.type(i));
+            assertEquals(i, TreeFormat.typeTag(TreeFormat.type(i)));
+        }
+        assertNull(TreeFormat.type(types.length));
+        assertNull(TreeFormat.type(-1));
+        assertEquals(-1, TreeFormat.typeTag(BoolValue.class));
+    } // testTypes()
+}
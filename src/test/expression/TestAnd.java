@@ -8,6 +8,7 @@ import value.IntValue;
 import value.IdValue;
 import Interpreter.ReturnException;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
 
@@ -65,4 +66,11 @@ public class TestAnd {
     public void testGetValue2() throws ReturnException, TypeException, UnboundIdentifierException {
         ((BoolValue)(a3.getValue(new Environment(null, "blah", new BoolValue(false)))).value).getInternalValue();
     } // testGetValue()
+
+    @Test
+    public void testShortCircuit() throws TypeException, ReturnException, UnboundIdentifierException {
+        // the unbound right side never gets looked up
+        And s = new And(new BoolValue(false), new IdValue("nowhere"));
+        assertEquals(false, ((BoolValue) s.evaluate(new Frame(0, null))).getInternalValue());
+    } // testShortCircuit()
 }
@@ -0,0 +1,80 @@
+package test.expression;
+
+import expression.CallSiteCache;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import value.ClosureValue;
+import value.Function;
+import value.IdValue;
+import value.IntValue;
+import Interpreter.Frame;
+import Interpreter.TypeException;
+
+import java.util.ArrayList;
+
+public class TestCallSiteCache {
+    private CallSiteCache csc1;
+    private Function f1;
+    private Frame frame;
+
+    public TestCallSiteCache() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+        csc1 = new CallSiteCache();
+        f1 = new Function(new ArrayList<String>(), new IntValue(1));
+        frame = new Frame(1, null);
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    @Test
+    public void testCallee() {
+        IdValue resolved = new IdValue("f");
+        resolved.setFrameCnt(0);
+        resolved.setFrameNum(0);
+        frame.set(0, f1);
+        Frame home = csc1.home(resolved, frame);
+        assertTrue(home==frame);
+        assertTrue(csc1.callee(resolved, frame, home)==f1);
+        // bound by name
+        frame.bind("g", f1);
+        assertTrue(csc1.home(new IdValue("g"), frame)==null);
+        assertTrue(csc1.callee(new IdValue("g"), frame, null)==f1);
+    } // testCallee()
+
+    @Test
+    public void testTarget() throws TypeException {
+        assertTrue(csc1.target(f1)==f1);
+        assertTrue(csc1.target(f1)==f1);
+        assertEquals(csc1.size(), 1);
+        assertTrue(csc1.target(new ClosureValue(f1))==f1);
+        assertEquals(csc1.size(), 2);
+    } // testTarget()
+
+    @Test
+    public void testMegamorphic() throws TypeException {
+        for (int i = 0; i <= CallSiteCache.LIMIT; i++) {
+            Function f = new Function(new ArrayList<String>(), new IntValue(i));
+            assertTrue(csc1.target(f)==f);
+        }
+        assertTrue(csc1.isMegamorphic());
+        assertEquals(csc1.size(), CallSiteCache.LIMIT);
+    } // testMegamorphic()
+
+    @Test(expected= TypeException.class)
+    public void testNotCallable() throws TypeException {
+        csc1.target(new IntValue(3));
+    } // testNotCallable()
+}
@@ -0,0 +1,82 @@
+package test.expression;
+
+import expression.FieldCache;
+import expression.OpAssign;
+import expression.OpField;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import value.IdValue;
+import value.IntValue;
+import value.PlainObject;
+import value.Shape;
+import Interpreter.Frame;
+
+public class TestFieldCache {
+    private FieldCache fc1;
+
+    public TestFieldCache() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+        fc1 = new FieldCache();
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    @Test
+    public void testSlot() {
+        Shape xy = Shape.EMPTY.with("x").with("y");
+        assertEquals(fc1.slot(xy, "y"), 1);
+        assertEquals(fc1.slot(xy, "y"), 1);
+        assertEquals(fc1.getMisses(), 1);
+        assertEquals(fc1.getHits(), 1);
+        assertEquals(fc1.slot(Shape.EMPTY.with("y"), "y"), 0);
+        assertEquals(fc1.size(), 2);
+    } // testSlot()
+
+    @Test
+    public void testMissing() {
+        // nothing to remember for a shape without the field
+        assertEquals(fc1.slot(Shape.EMPTY.with("x"), "y"), -1);
+        assertEquals(fc1.size(), 0);
+    } // testMissing()
+
+    @Test
+    public void testMegamorphic() {
+        for (int i = 0; i <= FieldCache.LIMIT; i++) {
+            assertEquals(fc1.slot(Shape.EMPTY.with("pad" + i).with("x"), "x"), 1);
+        }
+        assertTrue(fc1.isMegamorphic());
+        assertEquals(fc1.size(), FieldCache.LIMIT);
+        assertEquals(fc1.getMisses(), FieldCache.LIMIT + 1);
+    } // testMegamorphic()
+
+    @Test
+    public void testOpField() throws Exception {
+        Frame frame = new Frame(1, null);
+        PlainObject po = new PlainObject();
+        po.addField("x", new IntValue(1));
+        frame.set(0, po);
+        IdValue obj = new IdValue("o");
+        obj.setFrameCnt(0);
+        obj.setFrameNum(0);
+        OpField field = new OpField(obj, new IdValue("x"));
+        for (int i = 0; i < 3; i++) {
+            new OpAssign(field, new IntValue(i)).evaluate(frame);
+            assertEquals(((IntValue) field.evaluate(frame)).getInternalValue(), i);
+        }
+        assertEquals(field.getCache().getMisses(), 1);
+        assertEquals(field.getCache().getHits(), 5);
+    } // testOpField()
+}
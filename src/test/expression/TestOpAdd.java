@@ -1,6 +1,7 @@
 package test.expression;
 
 import expression.OpAdd;
+import expression.Specialization;
         import org.junit.*;
         import static org.junit.Assert.*;
 import value.IntValue;
@@ -8,6 +9,7 @@ import value.FloatValue;
 import value.BoolValue;
 import value.IdValue;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -66,4 +68,27 @@ public class TestOpAdd {
     public void testGetValue2() throws ReturnException, TypeException, UnboundIdentifierException {
         ((BoolValue)(oa2.getValue(new Environment(null, "blah", new BoolValue(false)))).value).getInternalValue();
     } // testGetValue()
+
+    @Test
+    public void testEvaluate() throws ReturnException, TypeException, UnboundIdentifierException {
+        Frame frame = new Frame(0, null);
+        assertEquals(((IntValue)oa1.evaluate(frame)).getInternalValue(), 8);
+        frame.bind("testVal", new IntValue(5));
+        assertEquals(((FloatValue)oa2.evaluate(frame)).getInternalValue(), 11.3, 0.001);
+    } // testEvaluate()
+
+    @Test
+    public void testSpecialize() throws ReturnException, TypeException, UnboundIdentifierException {
+        Frame frame = new Frame(0, null);
+        frame.bind("testVal", new IntValue(5));
+        OpAdd add = new OpAdd(new IdValue("testVal"), new IntValue(1));
+        assertEquals(add.getState(), Specialization.UNINITIALIZED);
+        add.evaluate(frame);
+        assertEquals(add.getState(), Specialization.INT);
+        assertEquals(((IntValue)add.evaluate(frame)).getInternalValue(), 6);
+        // a float breaks the guard, the node goes generic and still adds
+        frame.bind("testVal", new FloatValue((float)6.3));
+        assertEquals(((FloatValue)add.evaluate(frame)).getInternalValue(), 7.3, 0.001);
+        assertEquals(add.getState(), Specialization.GENERIC);
+    } // testSpecialize()
 }
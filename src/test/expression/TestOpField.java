@@ -3,6 +3,7 @@ package test.expression;
 import expression.OpField;
         import org.junit.*;
         import static org.junit.Assert.*;
+import value.IdValue;
 
 public class TestOpField {
     OpField of1;
@@ -32,6 +33,9 @@ public class TestOpField {
     @Test
     public void testOpField() {
        // assertTrue((of1!=null)&&(of2!=null)&&(of3!=null));
+        // either way it's made, there's a cache for the field lookup
+        assertNotNull(new OpField(new IdValue("p"), "x", null).getCache());
+        assertNotNull(new OpField(new IdValue("p"), new IdValue("x")).getCache());
     } // testOpField()
 
     @Test
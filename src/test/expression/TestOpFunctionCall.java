@@ -1,8 +1,28 @@
 package test.expression;
 
+import expression.Expression;
+import expression.OpEquals;
+import expression.OpFuncDecl;
 import expression.OpFunctionCall;
+import expression.OpIfElse;
+import expression.OpSub;
+import expression.Return;
+import expression.Sequence;
         import org.junit.*;
         import static org.junit.Assert.*;
+import staticpass.Scope;
+import staticpass.StaticPass;
+import value.BoolValue;
+import value.Function;
+import value.IdValue;
+import value.IntValue;
+import Interpreter.Frame;
+import Interpreter.ReturnException;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class TestOpFunctionCall {
     private OpFunctionCall ofc1;
@@ -38,4 +58,37 @@ public class TestOpFunctionCall {
     public void testGetValue() {
         //TODO: write function call tests
     } // testGetValue()
+
+    // function name(x) { if (x == 0) { return result; } else { return other(x - 1); } }
+    private OpFuncDecl parity(String name, String other, boolean result) {
+        List<String> params = new ArrayList<String>();
+        params.add("x");
+        List<Expression> args = new ArrayList<Expression>();
+        args.add(new OpSub(new IdValue("x"), new IntValue(1)));
+        List<Expression> body = new ArrayList<Expression>();
+        body.add(new OpIfElse(new OpEquals(new IdValue("x"), new IntValue(0)),
+                new Return(new BoolValue(result)),
+                new Return(new OpFunctionCall(new IdValue(other), args))));
+        return new OpFuncDecl(new Function(params, new Scope(new Sequence(body))), name);
+    }
+
+    @Test
+    public void testTailCall() throws ReturnException, TypeException, UnboundIdentifierException {
+        List<Expression> args = new ArrayList<Expression>();
+        args.add(new IntValue(100001));
+        OpFunctionCall call = new OpFunctionCall(new IdValue("even"), args);
+        List<Expression> program = new ArrayList<Expression>();
+        program.add(parity("odd", "even", false));
+        program.add(parity("even", "odd", true));
+        program.add(new Return(call));
+        Expression tree = new Scope(new Sequence(program));
+        new StaticPass(tree).runStaticPass();
+        // only a return inside a function is a tail call
+        assertFalse(call.isTailCall());
+
+        // far deeper than the Java stack would go a call at a time
+        Frame frame = new Frame(0, null);
+        tree.evaluate(frame);
+        assertFalse(((BoolValue)frame.getReturned()).getInternalValue());
+    } // testTailCall()
 }
@@ -2,6 +2,7 @@ package test.expression;
 
 import expression.OpLessThan;
 import expression.OpMult;
+import expression.Specialization;
 import org.junit.*;
         import static org.junit.Assert.*;
 import value.IntValue;
@@ -11,6 +12,7 @@ import value.IdValue;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.UnboundIdentifierException;
 
 public class TestOpLessThan {
@@ -69,5 +71,13 @@ public class TestOpLessThan {
         ((BoolValue) (olt2.getValue(new Environment(null, "blah", new BoolValue(false)))).value).getInternalValue();
     } // testGetValue()
 
-}
 
+    @Test
+    public void testSpecialize() throws ReturnException, TypeException, UnboundIdentifierException {
+        Frame frame = new Frame(0, null);
+        OpLessThan lt = new OpLessThan(new FloatValue((float)1.5), new FloatValue((float)2.5));
+        assertTrue(((BoolValue)lt.evaluate(frame)).getInternalValue());
+        assertEquals(lt.getState(), Specialization.FLOAT);
+        assertTrue(((BoolValue)lt.evaluate(frame)).getInternalValue());
+    } // testSpecialize()
+}
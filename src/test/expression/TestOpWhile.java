@@ -3,15 +3,20 @@ package test.expression;
 import expression.*;
 import org.junit.*;
         import static org.junit.Assert.*;
+import staticpass.Scope;
+import staticpass.StaticPass;
 import value.BoolValue;
 import value.IntValue;
 import value.IdValue;
+import value.VoidValue;
 
 import java.util.List;
 import java.util.LinkedList;
 import java.util.ArrayList;
+import java.lang.management.ManagementFactory;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.UnboundIdentifierException;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
@@ -65,4 +70,39 @@ public class TestOpWhile {
         assertTrue((res2!=null));  */
         //TODO: fix
     } // testGetValue()
+
+    @Test
+    public void testAllocation() throws ReturnException, TypeException, UnboundIdentifierException {
+        // var j = 0; while (j < 1000) { var i = 0; while (i < 1000) { i = i + 1; } j = j + 1; }
+        // every int stays in the cached range and every test and statement
+        // comes back as a shared constant, so a million trips round the inner
+        // loop should make next to no objects
+        List<Expression> inner = new ArrayList<Expression>();
+        inner.add(new OpAssign(new IdValue("i"), new OpAdd(new IdValue("i"), new IntValue(1))));
+        List<Expression> outer = new ArrayList<Expression>();
+        outer.add(new OpAssign(new IdValue("i"), new IntValue(0)));
+        outer.add(new OpWhile(new OpLessThan(new IdValue("i"), new IntValue(1000)),
+                new Scope(new Sequence(inner))));
+        outer.add(new OpAssign(new IdValue("j"), new OpAdd(new IdValue("j"), new IntValue(1))));
+        List<Expression> program = new ArrayList<Expression>();
+        program.add(new OpAssign(new OpVarDecl("i"), new IntValue(0)));
+        program.add(new OpAssign(new OpVarDecl("j"), new IntValue(0)));
+        program.add(new OpWhile(new OpLessThan(new IdValue("j"), new IntValue(1000)),
+                new Scope(new Sequence(outer))));
+        Expression tree = new Scope(new Sequence(program));
+        new StaticPass(tree).runStaticPass();
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        // once to get everything loaded and specialized
+        tree.evaluate(new Frame(0, null));
+        Frame frame = new Frame(0, null);
+        long before = threads.getThreadAllocatedBytes(id);
+        assertSame(VoidValue.VOID, tree.evaluate(frame));
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+        // an object each time round would be 16MB or more; allow a byte an
+        // iteration for whatever the outer loop and the JVM itself make
+        assertTrue(allocated + " bytes", allocated < 1000 * 1000);
+    } // testAllocation()
 }
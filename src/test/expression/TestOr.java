@@ -6,6 +6,7 @@ import org.junit.*;
 import Interpreter.TypeException;
 import Interpreter.ReturnException;
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.UnboundIdentifierException;
 import value.BoolValue;
 import value.IntValue;
@@ -36,7 +37,8 @@ public class TestOr {
         IdValue i1 = new IdValue("testVal");
         OpSub os1 = new OpSub(new IntValue(3), new IntValue(2));
 
-        o1 = new Or(t, os1);
+        // true would settle it without looking at the int
+        o1 = new Or(f, os1);
         o2 = new Or(e1, e2);
         o3 = new Or(i1, new Not(f));
     } // methodSetup()
@@ -65,4 +67,11 @@ public class TestOr {
     public void testGetValue2() throws ReturnException, TypeException, UnboundIdentifierException {
         ((BoolValue) (o3.getValue(new Environment(null, "blah", new BoolValue(false)))).value).getInternalValue();
     } // testGetValue()
+
+    @Test
+    public void testShortCircuit() throws TypeException, ReturnException, UnboundIdentifierException {
+        // the unbound right side never gets looked up
+        Or s = new Or(new BoolValue(true), new IdValue("nowhere"));
+        assertEquals(true, ((BoolValue) s.evaluate(new Frame(0, null))).getInternalValue());
+    } // testShortCircuit()
 }
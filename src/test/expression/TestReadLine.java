@@ -1,8 +1,13 @@
 package test.expression;
 
+import Interpreter.Frame;
+import Interpreter.Input;
 import expression.ReadLine;
         import org.junit.*;
         import static org.junit.Assert.*;
+import value.StringValue;
+
+import java.io.ByteArrayInputStream;
 
 public class TestReadLine {
     ReadLine rl1;
@@ -35,7 +40,14 @@ public class TestReadLine {
     } // testReadLine()
 
     @Test
-    public void testGetValue() {
-        //TODO: write tests
+    public void testGetValue() throws Exception {
+        // every read-line shares the one input, none reads past its line
+        Input.setStandard(Input.forStream(new ByteArrayInputStream("first\nsecond\n".getBytes())));
+        try {
+            assertEquals("first\n", ((StringValue) new ReadLine().evaluate(new Frame(0, null))).getInternalValue());
+            assertEquals("second\n", ((StringValue) new ReadLine().evaluate(new Frame(0, null))).getInternalValue());
+        } finally {
+            Input.setStandard(null);
+        }
     } // testGetValue()
 }
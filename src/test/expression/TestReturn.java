@@ -1,8 +1,20 @@
 package test.expression;
 
+import expression.Expression;
 import expression.Return;
+import expression.Sequence;
+
         import org.junit.*;
         import static org.junit.Assert.*;
+import value.IntValue;
+import value.StringValue;
+import Interpreter.Frame;
+import Interpreter.ReturnException;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class TestReturn {
     private Return r1;
@@ -38,4 +50,21 @@ public class TestReturn {
     public void testGetValue() {
         //TODO: write return tests
     } // testGetValue()
+
+    @Test
+    public void testEvaluate() throws ReturnException, TypeException, UnboundIdentifierException {
+        Frame frame = new Frame(0, null);
+        List<Expression> body = new ArrayList<Expression>();
+        body.add(new Return(new IntValue(3)));
+        body.add(new Return(new StringValue("never")));
+        new Sequence(body).evaluate(frame);
+        // the sequence stops at the first return, and it is left in the frame
+        assertTrue(frame.isReturning());
+        assertEquals(((IntValue)frame.getReturned()).getInternalValue(), 3);
+    } // testEvaluate()
+
+    @Test(expected= ReturnException.class)
+    public void testGetValue2() throws ReturnException, TypeException, UnboundIdentifierException {
+        new Return(new IntValue(3)).getValue(null);
+    } // testGetValue2()
 }
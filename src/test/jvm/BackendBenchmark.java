@@ -0,0 +1,62 @@
+package test.jvm;
+
+import Interpreter.Frame;
+import expression.Expression;
+import jvm.Backend;
+import parser.Footle;
+import staticpass.StaticPass;
+import vm.VM;
+
+import java.io.StringReader;
+
+/**
+ * Times a loop heavy program on the tree walker, the VM and as JVM code. Not
+ * a JUnit test, run it by hand with
+ *     java test.jvm.BackendBenchmark [n] [runs]
+ */
+public class BackendBenchmark {
+    private static final String PROGRAM =
+        "var total = 0;" +
+        "var i = 0;" +
+        "while (i < %d) {" +
+        "  var j = 0;" +
+        "  while (j < 1000) {" +
+        "    total = total + 1;" +
+        "    if (total > 500) { total = 0; }" +
+        "    j = j + 1;" +
+        "  }" +
+        "  i = i + 1;" +
+        "}";
+
+    public static void main(String[] args) throws Exception {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+        int runs = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+        Expression tree = new Footle(new StringReader(String.format(PROGRAM, n))).Input();
+        new StaticPass(tree).runStaticPass();
+        VM vm = new VM();
+        Backend backend = new Backend();
+
+        long[] best = { Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE };
+        // the first few runs of each let the JIT settle
+        for (int i = 0; i < runs + 3; i++) {
+            for (int engine = 0; engine < best.length; engine++) {
+                long start = System.nanoTime();
+                if (engine == 0) {
+                    tree.evaluate(new Frame(0, null));
+                } else if (engine == 1) {
+                    vm.run(tree);
+                } else {
+                    backend.run(tree);
+                }
+                long time = System.nanoTime() - start;
+                if (i >= 3) {
+                    best[engine] = Math.min(best[engine], time);
+                }
+            }
+        }
+        System.out.println("loops(" + n + "): tree walker best " + (best[0] / 1000000)
+                + " ms, vm best " + (best[1] / 1000000) + " ms, jvm best "
+                + (best[2] / 1000000) + " ms over " + runs + " runs");
+    }
+}
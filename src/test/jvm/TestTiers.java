@@ -0,0 +1,144 @@
+package test.jvm;
+
+import Interpreter.Frame;
+import Interpreter.Input;
+import Interpreter.Output;
+import engine.FootleEngine;
+import expression.Expression;
+import jvm.Tiers;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import test.Programs;
+
+import java.io.ByteArrayInputStream;
+
+public class TestTiers {
+    private static final Programs.Engine TREE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            program.evaluate(new Frame(0, null));
+        }
+    };
+    private int threshold;
+
+    public TestTiers() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+        threshold = Tiers.getThreshold();
+        Tiers.reset();
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+        Tiers.setThreshold(threshold);
+        Tiers.reset();
+    } // methodCleanup()
+
+    private String run(String source) throws Exception {
+        return Programs.output(Programs.parse(source), TREE);
+    }
+
+    @Test
+    public void testCalls() throws Exception {
+        Tiers.setThreshold(3);
+        assertEquals("0\n1\n4\n9\n16\n",
+                run("function sq(n) { return n * n; } var i = 0; while (i < 5) { print(sq(i)); i = i + 1; }"));
+        assertEquals(1, Tiers.getTierUps());
+        assertEquals(0, Tiers.getDeopts());
+    } // testCalls()
+
+    @Test
+    public void testBackEdges() throws Exception {
+        // one call with a long enough loop earns the next call compiled code
+        Tiers.setThreshold(5);
+        assertEquals("45\n45\n",
+                run("function sum(n) { var s = 0; var i = 0; while (i < n) { s = s + i; i = i + 1; } return s; }" +
+                    "print(sum(10)); print(sum(10));"));
+        assertEquals(1, Tiers.getTierUps());
+    } // testBackEdges()
+
+    @Test
+    public void testColdStaysInterpreted() throws Exception {
+        Tiers.setThreshold(3);
+        assertEquals("10\n3\n",
+                run("function hot(n) { return n + 1; } function cold(n) { return n - 1; }" +
+                    "var i = 0; while (i < 10) { i = hot(i); } print(i); print(cold(4));"));
+        assertEquals(1, Tiers.getTierUps());
+    } // testColdStaysInterpreted()
+
+    @Test
+    public void testRecursion() throws Exception {
+        // compiled code calling itself, and deep tail calls after the switch
+        Tiers.setThreshold(10);
+        assertEquals("6765\nfalse\n",
+                run("function fib(n) { if (n < 2) { return n; } var a = fib(n - 1); var b = fib(n - 2); return a + b; }" +
+                    "print(fib(20));" +
+                    "function odd(x) { if (x == 0) { return false; } else { return even(x - 1); } }" +
+                    "function even(x) { if (x == 0) { return true; } else { return odd(x - 1); } }" +
+                    "print(even(200001));"));
+        assertEquals(3, Tiers.getTierUps());
+    } // testRecursion()
+
+    @Test
+    public void testDeopt() throws Exception {
+        // the compiled body assumes every parameter was passed
+        Tiers.setThreshold(2);
+        assertEquals("1\n2\n3\n4\n",
+                run("function first(a, b) { return a; }" +
+                    "print(first(1, 0)); print(first(2, 0)); print(first(3, 0)); print(first(4));"));
+        assertEquals(1, Tiers.getTierUps());
+        assertEquals(1, Tiers.getDeopts());
+    } // testDeopt()
+
+    @Test
+    public void testScriptsAtOnce() throws Exception {
+        // scripts running side by side each tier up their own function, and
+        // every one is counted
+        Tiers.setThreshold(3);
+        final String[] printed = new String[8];
+        Thread[] threads = new Thread[printed.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int n = t;
+            threads[t] = new Thread() {
+                public void run() {
+                    try {
+                        StringBuilder out = new StringBuilder();
+                        new FootleEngine().compile("function sq(n) { return n * n; } var i = 0;" +
+                                "while (i < 5) { var s = sq(i); print(s + " + n + "); i = i + 1; }")
+                                .execute(Input.forStream(new ByteArrayInputStream(new byte[0])),
+                                        Output.forTarget(out));
+                        printed[n] = out.toString();
+                    } catch (Exception e) {
+                        // left null, and the check below fails
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int n = 0; n < printed.length; n++) {
+            assertEquals(n + "\n" + (1 + n) + "\n" + (4 + n) + "\n" + (9 + n) + "\n" + (16 + n) + "\n",
+                    printed[n]);
+        }
+        assertEquals(printed.length, Tiers.getTierUps());
+    } // testScriptsAtOnce()
+
+    @Test
+    public void testOff() throws Exception {
+        Tiers.setThreshold(-1);
+        assertEquals("0\n1\n4\n",
+                run("function sq(n) { return n * n; } var i = 0; while (i < 3) { print(sq(i)); i = i + 1; }"));
+        assertEquals(0, Tiers.getTierUps());
+    } // testOff()
+}
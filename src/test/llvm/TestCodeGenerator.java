@@ -0,0 +1,90 @@
+package test.llvm;
+
+import llvm.CodeGenerator;
+import llvm.LLVMInstruction;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import staticpass.StaticPass;
+import test.Programs;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class TestCodeGenerator {
+    private static final Pattern DEFINED = Pattern.compile("^%r(\\d+) = ");
+
+    public TestCodeGenerator() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    private static List<LLVMInstruction> body(String source) throws Exception {
+        // the instructions of the first function source declares
+        StaticPass pass = new StaticPass(Programs.read(source));
+        pass.runStaticPass();
+        CodeGenerator generator = new CodeGenerator(pass);
+        return generator.getFunctions().get(0).getBody();
+    }
+
+    private static String find(List<LLVMInstruction> body, String start) {
+        for (LLVMInstruction instruction : body) {
+            if (instruction.toString().contains(start)) {
+                return instruction.toString();
+            }
+        }
+        fail("no " + start);
+        return null;
+    }
+
+    private static void assertDefinedOnce(List<LLVMInstruction> body) {
+        Set<String> defined = new HashSet<String>();
+        for (LLVMInstruction instruction : body) {
+            Matcher m = DEFINED.matcher(instruction.toString());
+            if (m.find()) {
+                assertTrue("%r" + m.group(1) + " defined twice", defined.add(m.group(1)));
+            }
+        }
+    }
+
+    @Test
+    public void testBooleanOperand() throws Exception {
+        // a boolean variable is loaded and compared with the tagged true, and
+        // the phi joins i1s and is a register of its own
+        List<LLVMInstruction> body = body(
+                "function f(x, y) { var b = x < 3 && y; print(x); return x; } print(f(1, true));");
+        String compare = find(body, "icmp eq");
+        assertTrue(compare, compare.endsWith(", 15"));
+        String phi = find(body, "phi i1");
+        String tested = compare.substring(0, compare.indexOf(" ="));
+        assertTrue(phi, phi.matches(".*\\[false, %label_\\d+\\], \\[" + tested + ", %label_\\d+\\]"));
+        assertDefinedOnce(body);
+    } // testBooleanOperand()
+
+    @Test
+    public void testBooleanLeft() throws Exception {
+        List<LLVMInstruction> body = body(
+                "function f(x, y) { var b = y || x < 3; print(x); return x; } print(f(1, true));");
+        String compare = find(body, "icmp eq");
+        String tested = compare.substring(0, compare.indexOf(" ="));
+        assertTrue(find(body, "br i1 "), find(body, "br i1 ").startsWith("br i1 " + tested + ","));
+        assertTrue(find(body, "phi i1").contains("[true, %label_"));
+        assertDefinedOnce(body);
+    } // testBooleanLeft()
+}
@@ -0,0 +1,86 @@
+package test.staticpass;
+
+import Interpreter.Frame;
+import expression.Expression;
+import expression.Hoisted;
+import expression.OpWhile;
+import jvm.Tiers;
+import parser.Footle;
+import staticpass.StaticPass;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * Times a nested loop with invariants in its inner loop on the tree walker,
+ * once with them hoisted and once with them put back where they were. Not a
+ * JUnit test, run it by hand with
+ *     java test.staticpass.LoopInvariantBenchmark [n] [runs]
+ */
+public class LoopInvariantBenchmark {
+    private static final String PROGRAM =
+        "function grid(w, h) {" +
+        "  var y = 0; var c = 0;" +
+        "  while (y < h) {" +
+        "    var x = 0;" +
+        "    while (x < w * 2) { c = c + h * w; x = x + 1; }" +
+        "    y = y + 1;" +
+        "  }" +
+        "  return c;" +
+        "}" +
+        "var result = grid(%d, %d);";
+
+    public static void main(String[] args) throws Exception {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 300;
+        int runs = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+        // the tree walker's own time, not that of what it tiers up to
+        Tiers.setThreshold(-1);
+        String source = String.format(PROGRAM, n, n);
+        Expression hoisted = new StaticPass(new Footle(new StringReader(source)).Input()).runStaticPass();
+        Expression inPlace = new StaticPass(new Footle(new StringReader(source)).Input()).runStaticPass();
+        unhoist(inPlace);
+
+        long with = Long.MAX_VALUE;
+        long without = Long.MAX_VALUE;
+        // the first few runs of each let the JIT settle
+        for (int i = 0; i < runs + 3; i++) {
+            long start = System.nanoTime();
+            hoisted.evaluate(new Frame(0, null));
+            long time = System.nanoTime() - start;
+            if (i >= 3) {
+                with = Math.min(with, time);
+            }
+
+            start = System.nanoTime();
+            inPlace.evaluate(new Frame(0, null));
+            time = System.nanoTime() - start;
+            if (i >= 3) {
+                without = Math.min(without, time);
+            }
+        }
+        System.out.println("grid(" + n + "): hoisted best " + (with / 1000000)
+                + " ms, in place best " + (without / 1000000) + " ms over " + runs + " runs");
+    }
+
+    private static Expression unhoist(Expression exp) {
+        // exp with every Hoisted swapped back for its expression, and no
+        // loop left with a pre-header to fill
+        if (exp == null) {
+            return null;
+        }
+        if (exp instanceof Hoisted) {
+            return unhoist(((Hoisted) exp).getExpression());
+        }
+        if (exp instanceof OpWhile) {
+            ((OpWhile) exp).getInvariants().clear();
+        }
+        List<Expression> kids = StaticPass.children(exp);
+        for (ListIterator<Expression> i = kids.listIterator(); i.hasNext();) {
+            i.set(unhoist(i.next()));
+        }
+        StaticPass.setChildren(exp, kids);
+        return exp;
+    }
+}
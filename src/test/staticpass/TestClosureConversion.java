@@ -0,0 +1,142 @@
+package test.staticpass;
+
+import Interpreter.Frame;
+import expression.Expression;
+import jvm.Backend;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import staticpass.ClosureConversion;
+import staticpass.StaticPass;
+import test.Programs;
+import value.ClosureValue;
+import value.IntValue;
+import value.StringValue;
+import vm.VM;
+
+public class TestClosureConversion {
+    private static final Programs.Engine TREE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            program.evaluate(new Frame(0, null));
+        }
+    };
+    private static final Programs.Engine BYTECODE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            new VM().run(program);
+        }
+    };
+    private static final Programs.Engine JVM = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            new Backend().run(program);
+        }
+    };
+    private ClosureConversion conversion;
+
+    public TestClosureConversion() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+        conversion = null;
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    private String run(String source) throws Exception {
+        // runs source converted, and checks every engine prints what the
+        // unconverted tree does
+        StaticPass pass = new StaticPass(Programs.read(source));
+        Expression program = pass.runStaticPass();
+        conversion = pass.getConversion();
+        String converted = Programs.output(program, TREE);
+        assertEquals(Programs.output(Programs.read(source), TREE), converted);
+        assertEquals(converted, Programs.output(program, BYTECODE));
+        assertEquals(converted, Programs.output(program, JVM));
+        return converted;
+    }
+
+    @Test
+    public void testCapturesFreeVariables() throws Exception {
+        assertEquals("8\n",
+                run("function adder(n, unused) { return function(x) { return x + n; }; }" +
+                    "var add = adder(5, 0); print(add(3));"));
+        assertEquals(1, conversion.getConverted());
+        assertEquals(1, conversion.getCaptured());
+    } // testCapturesFreeVariables()
+
+    private static ClosureValue find(Expression exp) {
+        // the first closure literal in exp
+        if (exp instanceof ClosureValue) {
+            return (ClosureValue) exp;
+        }
+        for (Expression child : StaticPass.children(exp)) {
+            ClosureValue closure = find(child);
+            if (closure != null) {
+                return closure;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testCapturedFrame() throws Exception {
+        // made in adder's activation, the closure holds n and nothing else
+        Expression program = Programs.parse(
+                "function adder(n, unused) { return function(x) { return x + n; }; }");
+        Frame activation = new Frame(2, new Frame(1, null));
+        activation.set(0, new IntValue(5));
+        activation.set(1, new StringValue("unused"));
+        Frame frame = ((ClosureValue) find(program).evaluate(activation)).getFrame();
+        assertEquals(1, frame.size());
+        assertNull(frame.getParent());
+        assertEquals(5, ((IntValue) frame.get(0)).getInternalValue());
+    } // testCapturedFrame()
+
+    @Test
+    public void testNested() throws Exception {
+        assertEquals("22\n",
+                run("function helper(a) { return a * 2; } var base = 10;" +
+                    "var g = function(y) { var h = function(z) { var d = helper(z); return d + base + y; };" +
+                    "return h(y); }; print(g(4));"));
+        // base is folded away, leaving g helper and h helper and y
+        assertEquals(2, conversion.getConverted());
+        assertEquals(3, conversion.getCaptured());
+    } // testNested()
+
+    @Test
+    public void testMutable() throws Exception {
+        // a copy of c wouldn't see the updates, so the whole frame stays
+        assertEquals("3\n",
+                run("function counter() { var c = 0; return function() { c = c + 1; return c; }; }" +
+                    "var k = counter(); k(); k(); print(k());"));
+        assertEquals(0, conversion.getConverted());
+    } // testMutable()
+
+    @Test
+    public void testRecursive() throws Exception {
+        // fact isn't set yet when its closure is made
+        assertEquals("120\n",
+                run("var fact = function(n) { if (n < 2) { return 1; } var r = fact(n - 1); return n * r; };" +
+                    "print(fact(5));"));
+        assertEquals(0, conversion.getConverted());
+    } // testRecursive()
+
+    @Test
+    public void testInLoop() throws Exception {
+        assertEquals("3\n",
+                run("var i = 0; var f = 0; while (i < 3) { f = function() { return i; }; i = i + 1; } print(f());"));
+        assertEquals("0\n1\n2\n",
+                run("function make(v) { return function() { return v; }; } var i = 0;" +
+                    "while (i < 3) { var g = make(i); print(g()); i = i + 1; }"));
+        assertEquals(1, conversion.getConverted());
+    } // testInLoop()
+}
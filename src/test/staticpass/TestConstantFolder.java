@@ -0,0 +1,97 @@
+package test.staticpass;
+
+import Interpreter.Frame;
+import expression.Expression;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import staticpass.ConstantFolder;
+import staticpass.StaticPass;
+import test.Programs;
+
+public class TestConstantFolder {
+    private static final Programs.Engine TREE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            program.evaluate(new Frame(0, null));
+        }
+    };
+    private ConstantFolder folder;
+
+    public TestConstantFolder() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+        folder = null;
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    private String run(String source) throws Exception {
+        // runs source folded, and checks it prints what it did unfolded
+        StaticPass pass = new StaticPass(Programs.read(source));
+        Expression program = pass.runStaticPass();
+        folder = pass.getFolder();
+        String folded = Programs.output(program, TREE);
+        assertEquals(Programs.output(Programs.read(source), TREE), folded);
+        return folded;
+    }
+
+    @Test
+    public void testFold() throws Exception {
+        assertEquals("14\n", run("print(2 + 3 * 4);"));
+        assertEquals(2, folder.getFolded());
+        assertEquals("true\n", run("print(1 < 2 && !false);"));
+        assertEquals(3, folder.getFolded());
+    } // testFold()
+
+    @Test
+    public void testPropagate() throws Exception {
+        assertEquals("18\n", run("var x = 5; var y = 13; print(x + y);"));
+        assertEquals(2, folder.getPropagated());
+        assertEquals(1, folder.getFolded());
+    } // testPropagate()
+
+    @Test
+    public void testPropagateIntoFunction() throws Exception {
+        assertEquals("30\n",
+                run("var scale = 3; function f(n) { return n * scale; } print(f(10));"));
+        assertEquals(1, folder.getPropagated());
+        assertEquals(0, folder.getFolded());
+    } // testPropagateIntoFunction()
+
+    @Test
+    public void testAssigned() throws Exception {
+        // a variable assigned after its declaration isn't a constant
+        assertEquals("6\n", run("var x = 5; x = x + 1; print(x);"));
+        assertEquals(0, folder.getPropagated());
+        assertEquals("2\n",
+                run("var k = 1; function bump() { k = k + 1; } bump(); print(k);"));
+        assertEquals(0, folder.getPropagated());
+    } // testAssigned()
+
+    @Test
+    public void testReadBeforeDeclared() throws Exception {
+        // f can run before x is set, so x stays a variable
+        run("function f() { return x; } var x = 1; print(f());");
+        assertEquals(0, folder.getPropagated());
+    } // testReadBeforeDeclared()
+
+    @Test
+    public void testLeftForRunTime() throws Exception {
+        // an error belongs to the run, not to the fold
+        StaticPass pass = new StaticPass(Programs.read("var b = true; print(1 + b);"));
+        pass.runStaticPass();
+        assertEquals(1, pass.getFolder().getPropagated());
+        assertEquals(0, pass.getFolder().getFolded());
+    } // testLeftForRunTime()
+}
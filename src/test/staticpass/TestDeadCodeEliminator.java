@@ -0,0 +1,97 @@
+package test.staticpass;
+
+import Interpreter.Frame;
+import expression.Expression;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import staticpass.DeadCodeEliminator;
+import staticpass.StaticPass;
+import test.Programs;
+import vm.VM;
+
+public class TestDeadCodeEliminator {
+    private static final Programs.Engine TREE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            program.evaluate(new Frame(0, null));
+        }
+    };
+    private static final Programs.Engine BYTECODE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            new VM().run(program);
+        }
+    };
+    private DeadCodeEliminator eliminator;
+
+    public TestDeadCodeEliminator() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+        eliminator = null;
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    private String run(String source) throws Exception {
+        // runs source pruned, and checks it prints what it did unpruned
+        StaticPass pass = new StaticPass(Programs.read(source));
+        Expression program = pass.runStaticPass();
+        eliminator = pass.getEliminator();
+        String pruned = Programs.output(program, TREE);
+        assertEquals(Programs.output(Programs.read(source), TREE), pruned);
+        assertEquals(pruned, Programs.output(program, BYTECODE));
+        return pruned;
+    }
+
+    @Test
+    public void testAfterReturn() throws Exception {
+        assertEquals("1\n", run("function f() { return 1; print(2); print(3); } print(f());"));
+        assertEquals(2, eliminator.getUnreachable());
+        assertEquals("2\n",
+                run("function f(n) { if (n < 0) { return 1; } else { return 2; } print(3); } print(f(4));"));
+        assertEquals(1, eliminator.getUnreachable());
+    } // testAfterReturn()
+
+    @Test
+    public void testConstantTests() throws Exception {
+        assertEquals("1\n3\n",
+                run("if (1 < 2) { print(1); } else { print(2); } while (false) { print(4); } print(3);"));
+        assertEquals(2, eliminator.getBranches());
+        assertEquals("2\n", run("var debug = false; if (debug) { print(1); } print(2);"));
+        assertEquals(1, eliminator.getBranches());
+        assertEquals(1, eliminator.getStores());
+    } // testConstantTests()
+
+    @Test
+    public void testUnreadVariables() throws Exception {
+        // the call still has to happen, only the store goes
+        assertEquals("7\n2\n",
+                run("function f() { print(7); return 1; } var unread = f(); var x = 5; print(2);"));
+        assertEquals(2, eliminator.getStores());
+        assertEquals("5\n", run("var x = 0; var i = 0; while (i < 5) { x = i; i = i + 1; } print(i);"));
+        assertEquals(2, eliminator.getStores());
+    } // testUnreadVariables()
+
+    @Test
+    public void testKeepsReads() throws Exception {
+        assertEquals("3\n", run("var x = 1; function f() { return x + 2; } x = 1; print(f());"));
+        assertEquals(0, eliminator.getStores());
+    } // testKeepsReads()
+
+    @Test
+    public void testEffectFree() throws Exception {
+        assertEquals("3\n", run("1; \"two\"; print(3); 4;"));
+        assertEquals(2, eliminator.getEffectFree());
+        assertEquals(2, eliminator.getPruned());
+    } // testEffectFree()
+}
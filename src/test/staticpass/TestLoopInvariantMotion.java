@@ -0,0 +1,126 @@
+package test.staticpass;
+
+import Interpreter.Frame;
+import Interpreter.TypeException;
+import expression.Expression;
+import jvm.Backend;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import staticpass.LoopInvariantMotion;
+import staticpass.StaticPass;
+import test.Programs;
+import vm.VM;
+
+public class TestLoopInvariantMotion {
+    private static final Programs.Engine TREE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            program.evaluate(new Frame(0, null));
+        }
+    };
+    private static final Programs.Engine BYTECODE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            new VM().run(program);
+        }
+    };
+    private static final Programs.Engine JVM = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            new Backend().run(program);
+        }
+    };
+    private LoopInvariantMotion motion;
+
+    public TestLoopInvariantMotion() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+        motion = null;
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    private String run(String source) throws Exception {
+        // runs source with its invariants hoisted, and checks every engine
+        // prints what the unhoisted tree does
+        StaticPass pass = new StaticPass(Programs.read(source));
+        Expression program = pass.runStaticPass();
+        motion = pass.getMotion();
+        String hoisted = Programs.output(program, TREE);
+        assertEquals(Programs.output(Programs.read(source), TREE), hoisted);
+        assertEquals(hoisted, Programs.output(program, BYTECODE));
+        assertEquals(hoisted, Programs.output(program, JVM));
+        return hoisted;
+    }
+
+    @Test
+    public void testHoist() throws Exception {
+        assertEquals("10\n",
+                run("function count(s) { var i = 0; var len = string-length(s);" +
+                    "while (i < len * 2) { i = i + 1; } return i; } print(count(\"hello\"));"));
+        assertEquals(1, motion.getHoisted());
+        assertEquals(1, motion.getLoops());
+    } // testHoist()
+
+    @Test
+    public void testAssigned() throws Exception {
+        assertEquals("4\n6\n8\n",
+                run("var i = 0; var x = 1; while (i < 3) { x = x + 1; print(x * 2); i = i + 1; }"));
+        assertEquals(0, motion.getHoisted());
+    } // testAssigned()
+
+    @Test
+    public void testAssignedByCall() throws Exception {
+        // bump changes k behind the loop's back
+        assertEquals("20\n30\n40\n",
+                run("var k = 1; var bump = function() { k = k + 1; };" +
+                    "var i = 0; while (i < 3) { bump(); print(k * 10); i = i + 1; }"));
+        assertEquals(0, motion.getHoisted());
+    } // testAssignedByCall()
+
+    @Test
+    public void testNested() throws Exception {
+        // both go all the way out of the inner loop and the outer one
+        assertEquals("288\n",
+                run("function grid(w, h) { var y = 0; var c = 0; while (y < h) { var x = 0;" +
+                    "while (x < w * 2) { c = c + h * w; x = x + 1; } y = y + 1; } return c; }" +
+                    "print(grid(3, 4));"));
+        assertEquals(2, motion.getHoisted());
+        assertEquals(1, motion.getLoops());
+    } // testNested()
+
+    @Test
+    public void testNeverRuns() throws Exception {
+        // the pre-header can't fail on behalf of a loop that doesn't run
+        assertEquals("done\n",
+                run("function f(b, n) { var i = 0; while (i < n) { print(b + 1); i = i + 1; } print(\"done\"); }" +
+                    "f(true, 0);"));
+        assertEquals(1, motion.getHoisted());
+    } // testNeverRuns()
+
+    @Test
+    public void testNeverRead() throws Exception {
+        // the loop runs, but never gets to the invariants that fail
+        assertEquals("0\n1\n2\ndone\n",
+                run("function f(b, s, n) { var i = 0; while (i < n) { print(i);" +
+                    "if (i > n) { print(b + 1); print(substring(s, 0, 9)); } i = i + 1; } print(\"done\"); }" +
+                    "f(true, \"abc\", 3);"));
+        assertEquals(2, motion.getHoisted());
+    } // testNeverRead()
+
+    @Test(expected = TypeException.class)
+    public void testFailsInLoop() throws Exception {
+        Expression program = Programs.parse(
+                "function f(b) { var i = 0; while (i < 1) { i = i + 1; print(b + 1); } } f(true);");
+        program.evaluate(new Frame(0, null));
+    } // testFailsInLoop()
+}
@@ -0,0 +1,98 @@
+package test.value;
+
+import Interpreter.Frame;
+import expression.Expression;
+import value.IntValue;
+import value.PlainObject;
+import value.Shape;
+import org.junit.*;
+        import static org.junit.Assert.*;
+import test.Programs;
+
+import java.lang.ref.WeakReference;
+
+public class TestShape {
+    private static final Programs.Engine TREE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            program.evaluate(new Frame(0, null));
+        }
+    };
+
+    public TestShape() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    @Test
+    public void testTransitions() {
+        Shape xy = Shape.EMPTY.with("x").with("y");
+        assertSame(xy, Shape.EMPTY.with("x").with("y"));
+        assertNotSame(xy, Shape.EMPTY.with("y").with("x"));
+        assertEquals(2, xy.size());
+        assertEquals(1, xy.indexOf("y"));
+        assertEquals(-1, xy.indexOf("z"));
+        assertEquals("x", xy.getName(0));
+    } // testTransitions()
+
+    @Test
+    public void testSharedByObjects() {
+        PlainObject a = new PlainObject();
+        PlainObject b = new PlainObject();
+        a.addField("x", new IntValue(1));
+        a.addField("y", new IntValue(2));
+        b.addField("x", new IntValue(3));
+        b.addField("y", new IntValue(4));
+        assertSame(a.getShape(), b.getShape());
+        a.addField("x", new IntValue(5));
+        assertSame(a.getShape(), b.getShape());
+        assertEquals(5, ((IntValue) a.getField("x")).getInternalValue());
+        assertEquals(4, ((IntValue) b.getSlot(b.getShape().indexOf("y"))).getInternalValue());
+    } // testSharedByObjects()
+
+    @Test
+    public void testManyFields() {
+        PlainObject a = new PlainObject(Shape.EMPTY.with("f0"));
+        for (int i = 0; i < 20; i++) {
+            a.addField("f" + i, new IntValue(i));
+        }
+        assertEquals(20, a.getShape().size());
+        assertEquals(13, ((IntValue) a.getField("f13")).getInternalValue());
+    } // testManyFields()
+
+    @Test
+    public void testNotKeptForever() throws Exception {
+        // a shape nothing has any more isn't held on to by the ones before it
+        Shape kept = Shape.EMPTY.with("kept");
+        WeakReference<Shape> gone = new WeakReference<Shape>(kept.with("gone").with("too"));
+        for (int i = 0; i < 50 && gone.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(gone.get());
+        assertSame(kept, Shape.EMPTY.with("kept"));
+        assertEquals(3, kept.with("gone").with("too").size());
+    } // testNotKeptForever()
+
+    @Test
+    public void testConstructed() throws Exception {
+        assertEquals("3\n4\n12\n",
+                Programs.output(Programs.parse(
+                        "function Point(a, b) { return function() { this.x = a; this.y = b; }; }" +
+                        "var p = new Point(3, 4); var q = new Point(5, 6); print(p.x); print(p.y);" +
+                        "p.x = 7; print(p.x + q.x);"), TREE));
+    } // testConstructed()
+}
@@ -48,6 +48,36 @@ public class TestStringValue {
         assertTrue(sv1.getValue(null)!=null);
     } // testGetValue()
 
+    @Test
+    public void testQuoted() {
+        assertEquals("quoted", new StringValue("\"quoted\"").getInternalValue());
+        assertEquals("", new StringValue("").getInternalValue());
+        assertEquals("\"", new StringValue("\"").getInternalValue());
+    } // testQuoted()
+
+    @Test
+    public void testSubstring() {
+        StringValue middle = sv1.substring(2, 6);
+        assertEquals(4, middle.length());
+        assertEquals('V', middle.charAt(2));
+        assertTrue(middle.contentEquals(new StringValue("stVa")));
+        assertFalse(middle.contentEquals(sv1.substring(1, 5)));
+        assertEquals("a", middle.substring(3, 4).getInternalValue());
+        assertEquals(0, middle.substring(4, 4).length());
+        assertEquals("stVa", middle.getInternalValue());
+    } // testSubstring()
+
+    @Test(expected = StringIndexOutOfBoundsException.class)
+    public void testSubstringBounds() {
+        sv1.substring(2, 9);
+    } // testSubstringBounds()
+
+    @Test(expected = StringIndexOutOfBoundsException.class)
+    public void testCharAtBounds() {
+        // past the end of the view, though not of the string it's cut from
+        sv1.substring(0, 2).charAt(2);
+    } // testCharAtBounds()
+
     @Test
     public void testObjectMethods() {
         sv1.addField("length", new IntValue(7));
@@ -0,0 +1,111 @@
+package test.vm;
+
+import Interpreter.Frame;
+import expression.Expression;
+        import org.junit.*;
+        import static org.junit.Assert.*;
+import test.Programs;
+import vm.VM;
+
+public class TestVM {
+    private static final Programs.Engine TREE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            program.evaluate(new Frame(0, null));
+        }
+    };
+    private static final Programs.Engine BYTECODE = new Programs.Engine() {
+        public void run(Expression program) throws Exception {
+            new VM().run(program);
+        }
+    };
+
+    public TestVM() {
+    } // constructor
+
+    @BeforeClass
+    public static void unitSetup() {
+    } // unitSetup()
+
+    @AfterClass
+    public static void unitCleanup() {
+    } // unitCleanup()
+
+    @Before
+    public void methodSetup() {
+    } // methodSetup()
+
+    @After
+    public void methodCleanup() {
+    } // methodCleanup()
+
+    private void check(String source, String expected) throws Exception {
+        Expression tree = Programs.parse(source);
+        assertEquals(expected, Programs.output(tree, TREE));
+        assertEquals(expected, Programs.output(tree, BYTECODE));
+    }
+
+    @Test
+    public void testLoop() throws Exception {
+        check("var i = 0; var sum = 0;" +
+              "while (i < 10) { sum = sum + i * 2; i = i + 1; }" +
+              "print(sum); print(i); print(1.5 + 2); print(10 / 3);" +
+              "print(3 >= 4); print(true && false); print(!true); print(3 == 3);",
+              "90\n10\n3.5\n3.0\nfalse\nfalse\nfalse\ntrue\n");
+    } // testLoop()
+
+    @Test
+    public void testShortCircuit() throws Exception {
+        // the int on the right is never looked at, so never a type error
+        check("function f(b, t) { print(b && 5); print(t || 5); print(b || t); print(t && b);" +
+              "var x = true; x = t && x; print(x); if (b && nope) { print(1); } else { print(2); } }" +
+              "f(false, true);",
+              "false\ntrue\ntrue\nfalse\ntrue\n2\n");
+    } // testShortCircuit()
+
+    @Test
+    public void testScope() throws Exception {
+        check("var a = 1; { var a = 2; print(a); } print(a);" +
+              "var i = 0; while (i < 3) { var t = i * 10; print(t); i = i + 1; }" +
+              "if (i == 3) print(99); else print(0);",
+              "2\n1\n0\n10\n20\n99\n");
+    } // testScope()
+
+    @Test
+    public void testFunctions() throws Exception {
+        check("function fact(n) { if (n == 0) { return 1; } else { var r = fact(n - 1); return n * r; } }" +
+              "print(fact(10));" +
+              "var x = 100; function setx(v) { x = v; } setx(5); print(x);" +
+              "function loop(n) { var acc = 0; while (n > 0) { acc = acc + n; n = n - 1; } return acc; }" +
+              "print(loop(100));",
+              "3628800\n5\n5050\n");
+    } // testFunctions()
+
+    @Test
+    public void testTailCalls() throws Exception {
+        // deep enough to overflow the stack if the tail calls nested
+        check("function odd(x) { if (x == 0) { return false; } else { return even(x - 1); } }" +
+              "function even(x) { if (x == 0) { return true; } else { return odd(x - 1); } }" +
+              "print(even(200001));",
+              "false\n");
+    } // testTailCalls()
+
+    @Test
+    public void testClosures() throws Exception {
+        check("var y = 10; var g = function(a) { return a + y; }; print(g(5));" +
+              "function mk(n) { return function(z) { return z + n; }; }" +
+              "var k = mk(3); print(k(4));" +
+              "var fs = 0; var i = 0;" +
+              "while (i < 3) { var j = i; function get() { return j; } if (i == 1) { fs = get; } i = i + 1; }" +
+              "print(fs());",
+              "15\n7\n1\n");
+    } // testClosures()
+
+    @Test
+    public void testObjects() throws Exception {
+        // fields and strings go back to the tree walker
+        check("function Point(a, b) { return function() { this.x = a; this.y = b; }; }" +
+              "var p = new Point(3, 4); print(p.x); p.x = 7; print(p.x + p.y);" +
+              "print(string-length(\"hello\"));",
+              "3\n11\n5\n");
+    } // testObjects()
+}
@@ -0,0 +1,55 @@
+package test.vm;
+
+import Interpreter.Frame;
+import expression.Expression;
+import parser.Footle;
+import staticpass.StaticPass;
+import vm.VM;
+
+import java.io.StringReader;
+
+/**
+ * Times a loop heavy program on the tree walker and on the VM. Not a JUnit
+ * test, run it by hand with
+ *     java test.vm.VMBenchmark [n] [runs]
+ */
+public class VMBenchmark {
+    private static final String PROGRAM =
+        "var i = 0;" +
+        "var sum = 0;" +
+        "while (i < %d) {" +
+        "  var j = i * 2;" +
+        "  if (j > 100) { sum = sum + 1; } else { sum = sum - 1; }" +
+        "  i = i + 1;" +
+        "}";
+
+    public static void main(String[] args) throws Exception {
+        int n = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        int runs = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+        Expression tree = new Footle(new StringReader(String.format(PROGRAM, n))).Input();
+        new StaticPass(tree).runStaticPass();
+        VM vm = new VM();
+
+        long walker = Long.MAX_VALUE;
+        long bytecode = Long.MAX_VALUE;
+        // the first few runs of each let the JIT settle
+        for (int i = 0; i < runs + 3; i++) {
+            long start = System.nanoTime();
+            tree.evaluate(new Frame(0, null));
+            long time = System.nanoTime() - start;
+            if (i >= 3) {
+                walker = Math.min(walker, time);
+            }
+
+            start = System.nanoTime();
+            vm.run(tree);
+            time = System.nanoTime() - start;
+            if (i >= 3) {
+                bytecode = Math.min(bytecode, time);
+            }
+        }
+        System.out.println("loop(" + n + "): tree walker best " + (walker / 1000000)
+                + " ms, vm best " + (bytecode / 1000000) + " ms over " + runs + " runs");
+    }
+}
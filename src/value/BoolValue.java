@@ -1,9 +1,13 @@
 package value;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import test.Testable;
 
 public class BoolValue implements Value {
+	public static final BoolValue TRUE = new BoolValue(true);
+	public static final BoolValue FALSE = new BoolValue(false);
+
 	private boolean value;
 
     @Testable
@@ -12,6 +16,12 @@ public class BoolValue implements Value {
 		value = val;
 	}
 
+    @Testable
+    public static BoolValue valueOf(boolean val)
+	{
+		return val ? TRUE : FALSE;
+	}
+
     @Testable
     public boolean getInternalValue()
 	{
@@ -23,6 +33,11 @@ public class BoolValue implements Value {
 		return new Environment(environment, null, this);
 	}
 
+    @Testable
+	public Value evaluate(Frame frame) {
+		return this;
+	}
+
     @Testable
 	public boolean isType(Value val) {
 		return val instanceof BoolValue;
@@ -1,12 +1,14 @@
 package value;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import test.Testable;
 
 public class ClosureValue extends Object {
 	
 	private Environment environ;
+	private Frame frame;
 	private Function func;
 	private int funcId;
 
@@ -14,6 +16,7 @@ public class ClosureValue extends Object {
     public ClosureValue(Function func)
 	{
 		environ = null;
+		frame = null;
 		this.func = func;
 		funcId = 0;
 	}
@@ -24,6 +27,16 @@ public class ClosureValue extends Object {
 		environ = env;
 	}
 
+    public Frame getFrame()
+	{
+		return frame;
+	}
+
+    public void setFrame(Frame frame)
+	{
+		this.frame = frame;
+	}
+
     @Testable
     public Environment getEnvironment()
 	{
@@ -51,7 +64,21 @@ public class ClosureValue extends Object {
 
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException {
-		return new Environment(environment, null, this);
+		ClosureValue closure = new ClosureValue(func);
+		closure.setEnvironment(environment);
+		closure.setFuncId(funcId);
+		return new Environment(environment, null, closure);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) {
+		// each evaluation of the literal closes over the frame it runs in,
+		// or only what it uses of it once the static pass has worked that out
+		ClosureValue closure = new ClosureValue(func);
+		closure.setEnvironment(frame.getDynamic());
+		closure.setFrame(func.capture(frame));
+		closure.setFuncId(funcId);
+		return closure;
 	}
 
     public String toString()
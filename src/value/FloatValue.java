@@ -1,6 +1,7 @@
 package value;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import test.Testable;
 
 public class FloatValue implements Value {
@@ -35,6 +36,11 @@ public class FloatValue implements Value {
 		return new Environment(environment, null, this);
 	}
 
+    @Testable
+	public Value evaluate(Frame frame) {
+		return this;
+	}
+
     public String toString()
     {
         return "(FloatValue " + value + ")";
@@ -1,23 +1,43 @@
 package value;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
+import Interpreter.Symbols;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
 import expression.Expression;
+import jvm.Tiers;
 import test.Testable;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class Function implements Value{
 	private List<String> params;
 	private Expression sequence;
+	private int frameSize;
+	// calls and loop back edges so far, and the compiled body they earn;
+	// only the one thread running the tree counts them
+	private int heat;
+	private boolean promoted;
+	private Expression compiled;
+	// where a closure over this function finds each variable it uses from
+	// outside, or null to keep the whole frame it was made in
+	private int[] captureDepths;
+	private int[] captureSlots;
 
     @Testable
     public Function(List<String> params, Expression seq)
 	{
-		this.params = params;
+		// a list of our own, the caller's may be shared or unmodifiable
+		this.params = new ArrayList<String>(params.size());
+		for (String param : params)
+		{
+			this.params.add(Symbols.intern(param));
+		}
 		sequence = seq;
+		frameSize = 0;
 	}
 
     @Testable
@@ -34,6 +54,96 @@ public class Function implements Value{
         this.sequence = sequence;
     }
 
+    public int getFrameSize() {
+        return frameSize;
+    }
+
+    public void setFrameSize(int size) {
+        frameSize = size;
+    }
+
+    public Expression getCompiled() {
+        return compiled;
+    }
+
+    public void setCompiled(Expression compiled) {
+        this.compiled = compiled;
+    }
+
+    public int getHeat() {
+        return heat;
+    }
+
+    public int[] getCaptureDepths() {
+        return captureDepths;
+    }
+
+    public int[] getCaptureSlots() {
+        return captureSlots;
+    }
+
+    public void setCaptures(int[] depths, int[] slots) {
+        captureDepths = depths;
+        captureSlots = slots;
+    }
+
+    public Frame capture(Frame frame)
+	{
+		// the frame a closure made in frame keeps: just the variables its
+		// body reads from outside, copied into a frame of their own
+		if (captureDepths == null)
+		{
+			return frame;
+		}
+		Frame captured = new Frame(captureDepths.length, null);
+		for (int i = 0; i < captureDepths.length; i++)
+		{
+			Value val = frame.lookup(captureDepths[i], captureSlots[i]);
+			if (val instanceof Function)
+			{
+				// a named function keeps the frame it was declared in, as
+				// Frame.resolve has it
+				ClosureValue closure = new ClosureValue((Function)val);
+				closure.setEnvironment(frame.getDynamic());
+				closure.setFrame(frame.getFrame(captureDepths[i]));
+				val = closure;
+			}
+			captured.set(i, val);
+		}
+		return captured;
+	}
+
+    public void warm()
+	{
+		// once hot enough, ask for a compiled body, just the once
+		if (!promoted && ++heat >= Tiers.getThreshold() && Tiers.getThreshold() >= 0)
+		{
+			promoted = true;
+			Tiers.promote(this);
+		}
+	}
+
+    @Testable
+    public Frame newActivation(Frame definition, Environment dynamic, List<Value> args)
+	{
+		// the parameters live in a fresh frame whose parent is the frame the
+		// function was declared in, so resolved ids in the body line up
+		Frame frame = new Frame(frameSize, definition, dynamic);
+		for (int i = 0; i < args.size(); i++)
+		{
+			if (i < frame.size())
+			{
+				frame.set(i, args.get(i));
+			}
+			else
+			{
+				// never analyzed, so fall back to a binding by name
+				frame.bind(params.get(i), args.get(i));
+			}
+		}
+		return frame;
+	}
+
     @Testable
 	public boolean isType(Value val) {
 		return val instanceof Function;
@@ -41,18 +151,33 @@ public class Function implements Value{
 
     @Testable
 	public Environment getValue(Environment environment) throws ReturnException, TypeException, UnboundIdentifierException  {
-		Environment newEnv = null;
-		// run the function
-		try
+		return Frame.adapt(this, environment);
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) throws ReturnException, TypeException, UnboundIdentifierException  {
+		// run the function, a return leaves its value in the frame. A call in
+		// tail position leaves its activation instead, and gets run here
+		// rather than on top of this one, so tail recursion doesn't grow the
+		// Java stack. A function that has been promoted runs its compiled body
+		Function function = this;
+		while (true)
 		{
-			newEnv = sequence.getValue(environment);
+			Expression body = (function.compiled != null) ? function.compiled : function.sequence;
+			body.evaluate(frame);
+			if (frame.getTailFunction() == null)
+			{
+				break;
+			}
+			function = frame.getTailFunction();
+			frame = frame.getTailFrame();
 		}
-		catch (ReturnException e)
+		if (frame.isReturning())
 		{
-			return new Environment(environment, null, e.getRetVal());
+			return frame.getReturned();
 		}
 
-		return new Environment(newEnv, null, new VoidValue());
+		return VoidValue.VOID;
 	}
 
     public String toString()
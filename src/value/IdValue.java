@@ -1,22 +1,31 @@
 package value;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.Symbols;
+import Interpreter.UnboundIdentifierException;
 import test.Testable;
 
 public class IdValue implements Value {
 	
 	private String value;
+	private int framecnt;
+	private int framenum;
 
     @Testable
     public IdValue()
 	{
 		value = "";
+		framecnt = -1;
+		framenum = -1;
 	}
 
     @Testable
     public IdValue(String val)
 	{
-		value = val;
+		value = Symbols.intern(val);
+		framecnt = -1;
+		framenum = -1;
 	}
 
     @Testable
@@ -25,11 +34,33 @@ public class IdValue implements Value {
 		return value;
 	}
 
+    public void setFrameCnt(int cnt) {
+    	framecnt = cnt;
+    }
+    
+    public void setFrameNum(int num) {
+    	framenum = num;
+    }
+    
+    public int getFrameCnt() {
+    	return framecnt;
+    }
+    
+    public int getFrameNum() {
+    	return framenum;
+    }
+
     @Testable
 	public Environment getValue(Environment environment) {
 		return new Environment(environment, value, this);
 	}
 
+    @Testable
+	public Value evaluate(Frame frame) throws UnboundIdentifierException {
+		// look the name up now, rather than leaving a reference for the caller
+		return frame.resolve(this);
+	}
+
     @Testable
 	public boolean isType(Value val) {
 		return val instanceof IdValue;
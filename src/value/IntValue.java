@@ -1,9 +1,21 @@
 package value;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import test.Testable;
 
 public class IntValue implements Value {
+	// small ints are shared rather than made fresh for every result
+	private static final int CACHE_LOW = -128;
+	private static final int CACHE_HIGH = 1023;
+	private static final IntValue[] cache = new IntValue[CACHE_HIGH - CACHE_LOW + 1];
+	static
+	{
+		for (int i = 0; i < cache.length; i++)
+		{
+			cache[i] = new IntValue(i + CACHE_LOW);
+		}
+	}
 
 	private int value;
 
@@ -19,6 +31,16 @@ public class IntValue implements Value {
 		value = val;
 	}
 
+    @Testable
+    public static IntValue valueOf(int val)
+	{
+		if (val >= CACHE_LOW && val <= CACHE_HIGH)
+		{
+			return cache[val - CACHE_LOW];
+		}
+		return new IntValue(val);
+	}
+
     @Testable
     public int getInternalValue()
 	{
@@ -35,6 +57,11 @@ public class IntValue implements Value {
 		return new Environment(environment, null, this);
 	}
 
+    @Testable
+	public Value evaluate(Frame frame) {
+		return this;
+	}
+
     public String toString()
     {
         return "(IntValue " + value + ")";
@@ -1,78 +1,108 @@
 package value;
 
-import Interpreter.Environment;
-
-import java.util.LinkedList;
-import java.util.List;
-
+/**
+ * Something with fields. The field names are kept in the object's shape,
+ * shared with every object that got the same fields in the same order, and
+ * the values in a slot array of its own, made when the first field is added
+ * (most strings never get one).
+ */
 public abstract class Object implements Value {
 	
-	private List<Environment> fields = new LinkedList<Environment>();
+	private Shape shape = Shape.EMPTY;
+	private Value[] slots;
 
-    public void addField(String name, Value val)
+    public Object()
+	{
+	}
+
+    public Object(Shape expected)
 	{
-		if (doesFieldExist(name))
+		// room up front for the fields objects like this one end up with
+		if (expected.size() > 0)
 		{
-            for (Environment field : fields) {
-                if (field.id.compareTo(name) == 0) {
-                    field.value = val;
-                }
-            }
-		} 
-		else
+			slots = new Value[expected.size()];
+		}
+	}
+
+    public Shape getShape()
+	{
+		return shape;
+	}
+
+    public Value getSlot(int slot)
+	{
+		return slots[slot];
+	}
+
+    public void setSlot(int slot, Value val)
+	{
+		slots[slot] = val;
+	}
+
+    public void addField(String name, Value val)
+	{
+		int slot = shape.indexOf(name);
+		if (slot < 0)
 		{
-			fields.add(new Environment(null, name, val));
+			shape = shape.with(name);
+			slot = shape.size() - 1;
+			if (slots == null || slots.length <= slot)
+			{
+				Value[] more = new Value[Math.max(4, slot * 2)];
+				if (slots != null)
+				{
+					System.arraycopy(slots, 0, more, 0, slots.length);
+				}
+				slots = more;
+			}
 		}
+		slots[slot] = val;
 	}
 
     public boolean doesFieldExist(String name)
 	{
-        for (Environment field : fields) {
-            if (field.id.compareTo(name) == 0) {
-                return true;
-            }
-        }
-		// didn't find it
-		return false;
+		return shape.indexOf(name) >= 0;
 	}
 
-    public Environment getField(String name)
+    public Value getField(String name)
 	{
     	// check to see if the field exists, if it doesn't add it
-    	if (!doesFieldExist(name))
-    		addField(name, new VoidValue());
-    	
-        for (Environment field : fields) {
-            if (field.id.compareTo(name) == 0) {
-                return field;
-            }
-        }
-		
-		return null;
+		int slot = shape.indexOf(name);
+		if (slot < 0)
+		{
+			addField(name, VoidValue.VOID);
+			return VoidValue.VOID;
+		}
+		return slots[slot];
 	}
 
     public String toString()
     {
         String s =  "(Object (fields ";
-        if(fields.isEmpty())
+        if(shape.size() == 0)
         {
             s += " (fields (Empty))";
         }
         else
         {
             String fieldsStr =  " (fields ";
-            for(Environment f:fields)
+            for(int i = 0; i < shape.size(); i++)
             {
-                fieldsStr += f + " ";
+                fieldsStr += field(i) + " ";
             }
             fieldsStr = fieldsStr.substring(0, (fieldsStr.length()-1));
             s += fieldsStr + "))";
         }
-        for(Environment e: fields)
+        for(int i = 0; i < shape.size(); i++)
         {
-            s += e.toString() + " ";
+            s += field(i) + " ";
         }
         s += ")";
         return s;
     }
+
+    private String field(int slot)
+    {
+        return "(Environment id: " + shape.getName(slot) + " val: " + slots[slot] + " rest: )";
+    }
 }
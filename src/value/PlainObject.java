@@ -1,6 +1,7 @@
 package value;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import Interpreter.ReturnException;
 import Interpreter.TypeException;
 import Interpreter.UnboundIdentifierException;
@@ -14,6 +15,11 @@ public class PlainObject extends Object {
 		
 	}
 
+    public PlainObject(Shape expected)
+	{
+		super(expected);
+	}
+
     @Testable
 	public boolean isType(Value val) {
 		return val instanceof PlainObject;
@@ -25,6 +31,11 @@ public class PlainObject extends Object {
 		return new Environment(environment, null, this);
 	}
 
+    @Testable
+	public Value evaluate(Frame frame) {
+		return this;
+	}
+
     public String toString()
     {
         return "(PlainObject " + super.toString() + ")";
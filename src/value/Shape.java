@@ -0,0 +1,96 @@
+package value;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * The layout an object's fields are in: which slot of the object's slot
+ * array each field name lives at. Shapes are shared and never change.
+ * Adding a field moves an object to the shape one field longer, and the
+ * same addition from the same shape always leads to the same one, so every
+ * object given the same fields in the same order (everything one
+ * constructor builds, say) ends up with the very same shape.
+ *
+ * A shape holds on to the one it was made from, but only weakly to the
+ * ones made from it, so the tree of shapes hanging off EMPTY keeps just the
+ * shapes some object or cache still has, and whatever leads to them. One
+ * that nothing has any more goes, and is made afresh if it's needed again.
+ */
+public class Shape {
+
+	// the shape every object starts out with
+	public static final Shape EMPTY = new Shape(new String[0], new HashMap<String, Integer>());
+
+	private String[] names;
+	private Map<String, Integer> indices;
+	// the shape one field back, so it lasts as long as this one does
+	private Shape parent;
+	// the shapes one field on from this one, made as they're first needed
+	private Map<String, WeakReference<Shape>> transitions;
+
+    private Shape(String[] names, Map<String, Integer> indices)
+	{
+		this.names = names;
+		this.indices = indices;
+	}
+
+    public int size()
+	{
+		return names.length;
+	}
+
+    public String getName(int slot)
+	{
+		return names[slot];
+	}
+
+    public int indexOf(String name)
+	{
+		// -1 for a field objects of this shape don't have
+		Integer slot = indices.get(name);
+		return (slot == null) ? -1 : slot;
+	}
+
+    public synchronized Shape with(String name)
+	{
+		// the shape with name added at the end
+		if (transitions == null)
+		{
+			transitions = new HashMap<String, WeakReference<Shape>>();
+		}
+		WeakReference<Shape> ref = transitions.get(name);
+		Shape next = (ref == null) ? null : ref.get();
+		if (next == null)
+		{
+			String[] more = new String[names.length + 1];
+			System.arraycopy(names, 0, more, 0, names.length);
+			more[names.length] = name;
+			Map<String, Integer> moreIndices = new HashMap<String, Integer>(indices);
+			moreIndices.put(name, names.length);
+			next = new Shape(more, moreIndices);
+			next.parent = this;
+			// making one is rare, so that's when the ones gone are cleared out
+			for (Iterator<WeakReference<Shape>> i = transitions.values().iterator(); i.hasNext();)
+			{
+				if (i.next().get() == null)
+				{
+					i.remove();
+				}
+			}
+			transitions.put(name, new WeakReference<Shape>(next));
+		}
+		return next;
+	}
+
+    public String toString()
+    {
+        String s = "(Shape";
+        for (String name : names)
+        {
+            s += " " + name;
+        }
+        return s + ")";
+    }
+}
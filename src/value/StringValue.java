@@ -1,36 +1,107 @@
 package value;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.Output;
 import test.Testable;
 
+/**
+ * A string, kept as a stretch of a Java string that may be shared. Taking a
+ * substring makes a new StringValue over the same characters rather than
+ * copying them, and length, comparison and equality work on the stretch
+ * where it lies. The characters are only copied out into a string of their
+ * own when something asks for getInternalValue, and then just the once.
+ */
 public class StringValue extends Object {
 
-	private String value;
+	private String source;
+	private int offset;
+	private int length;
 
     @Testable
     public StringValue()
 	{
-		value = "";
+		this("", 0, 0);
 	}
 
     @Testable
     public StringValue(String val)
 	{
     	// remove the " from the val if they are there on the edges
-    	if (val.charAt(0) == '\"' && val.charAt(val.length() - 1) == '\"')
+    	if (val.length() > 1 && val.charAt(0) == '\"' && val.charAt(val.length() - 1) == '\"')
     	{
-    		value = val.substring(1, val.length() - 1);
+    		source = val;
+    		offset = 1;
+    		length = val.length() - 2;
     	}
     	else
     	{
-    		value = val;
+    		source = val;
+    		offset = 0;
+    		length = val.length();
     	}
 	}
+
+    private StringValue(String source, int offset, int length)
+	{
+		this.source = source;
+		this.offset = offset;
+		this.length = length;
+	}
+
+    public static StringValue valueOf(String val)
+	{
+		// val exactly, quotes and all
+		return new StringValue(val, 0, val.length());
+	}
 	
 	@Testable
     public String getInternalValue()
 	{
-		return value;
+		if (offset != 0 || length != source.length())
+		{
+			// let go of the rest of the string this was cut from
+			source = source.substring(offset, offset + length);
+			offset = 0;
+		}
+		return source;
+	}
+
+    public int length()
+	{
+		return length;
+	}
+
+    public char charAt(int index)
+	{
+		if (index < 0 || index >= length)
+		{
+			throw new StringIndexOutOfBoundsException(index);
+		}
+		return source.charAt(offset + index);
+	}
+
+    public StringValue substring(int beginIndex, int endIndex)
+	{
+		// shares this one's characters, with the bounds String.substring has
+		if (beginIndex < 0 || endIndex > length || beginIndex > endIndex)
+		{
+			throw new StringIndexOutOfBoundsException("begin " + beginIndex + ", end " + endIndex
+					+ ", length " + length);
+		}
+		return new StringValue(source, offset + beginIndex, endIndex - beginIndex);
+	}
+
+    public void printTo(Output out)
+	{
+		// straight from where the characters lie, nothing copied first
+		out.print(source, offset, offset + length);
+	}
+
+    public boolean contentEquals(StringValue other)
+	{
+		return length == other.length
+				&& source.regionMatches(offset, other.source, other.offset, length);
 	}
 
     @Testable
@@ -40,11 +111,18 @@ public class StringValue extends Object {
 
     @Testable
 	public Environment getValue(Environment environment) {
-		return new Environment(environment, null, this);
+		return new Environment(environment, null, new StringValue(source, offset, length));
+	}
+
+    @Testable
+	public Value evaluate(Frame frame) {
+		// a string can be given fields, so each evaluation of a literal is a
+		// string of its own; the characters are still shared
+		return new StringValue(source, offset, length);
 	}
 
     public String toString()
     {
-        return "(StringValue \""+ value + "\")";
+        return "(StringValue \""+ getInternalValue() + "\")";
     }
 }
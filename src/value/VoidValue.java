@@ -1,14 +1,15 @@
 package value;
 
 import Interpreter.Environment;
+import Interpreter.Frame;
 import test.Testable;
 
 public class VoidValue implements Value {
+	public static final VoidValue VOID = new VoidValue();
 
     @Testable
     public VoidValue()
 	{
-		
 	}
 
     @Testable
@@ -21,6 +22,11 @@ public class VoidValue implements Value {
 		return new Environment(environment, null, this);
 	}
 
+    @Testable
+	public Value evaluate(Frame frame) {
+		return this;
+	}
+
     public String toString()
     {
         return "(VoidValue)";
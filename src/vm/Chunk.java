@@ -0,0 +1,81 @@
+package vm;
+
+import expression.Expression;
+import value.Value;
+
+/**
+ * One compiled function body, or the program: the instructions, the nodes
+ * they refer to, and the layout of the frame a run of it needs. The first
+ * frameSize slots are the variables the static pass placed, the constants
+ * come next and are copied in when the frame is made, and scratch registers
+ * fill the rest up to size.
+ */
+public class Chunk {
+	private String name;
+	private int[] code;
+	private Expression[] constants;
+	private Value[] values;
+	private int frameSize;
+	private int size;
+
+    public Chunk(String name, int[] code, Expression[] constants, Value[] values,
+			int frameSize, int size)
+	{
+		this.name = name;
+		this.code = code;
+		this.constants = constants;
+		this.values = values;
+		this.frameSize = frameSize;
+		this.size = size;
+	}
+
+    public String getName()
+	{
+		return name;
+	}
+
+    public int[] getCode()
+	{
+		return code;
+	}
+
+    public Expression[] getConstants()
+	{
+		return constants;
+	}
+
+    public Value[] getValues()
+	{
+		return values;
+	}
+
+    public int getFrameSize()
+	{
+		return frameSize;
+	}
+
+    public int getSize()
+	{
+		return size;
+	}
+
+    public String toString()
+    {
+        String s = "(Chunk " + name + " variables " + frameSize + " constants "
+                + values.length + " registers " + (size - frameSize - values.length) + "\n";
+        int pc = 0;
+        while (pc < code.length)
+        {
+            int op = code[pc];
+            s += "\t" + pc + "\t" + Opcode.NAMES[op];
+            for (int i = 1; i <= Opcode.KINDS[op].length(); i++)
+            {
+                s += " " + code[pc + i];
+            }
+            s += "\n";
+            pc += Opcode.KINDS[op].length() + 1;
+        }
+        s += ")";
+        return s;
+    }
+}
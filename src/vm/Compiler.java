@@ -0,0 +1,633 @@
+package vm;
+
+import expression.*;
+import staticpass.Scope;
+import staticpass.StaticPass;
+import value.BoolValue;
+import value.ClosureValue;
+import value.FloatValue;
+import value.Function;
+import value.IdValue;
+import value.IntValue;
+import value.StringValue;
+import value.Value;
+import value.VoidValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a tree the static pass has been over into a Chunk. Variables stay in
+ * the slots the pass gave them, in the same frames the tree walker would use,
+ * so closures and anything handed back to the tree walker see the same
+ * bindings. The chunk's own frame doubles as its register file: a variable
+ * that is certainly declared by the time an instruction runs is used in place,
+ * and constants and intermediate values get slots past the variables.
+ * Anything without an opcode of its own is run by the tree walker through
+ * EVAL.
+ */
+public class Compiler {
+	// registers are numbered in three spaces while compiling, and laid out
+	// for real once the number of constants and temporaries is known
+	private static final int VALUE = 1 << 24;
+	private static final int TEMP = 1 << 25;
+
+	private String name;
+	private int[] code;
+	private int length;
+	private List<Expression> constants;
+	private List<Value> values;
+	private int frameSize;
+	private boolean[] declared;
+	private boolean[] functions;
+	private int pushed;
+	private int next;
+	private int temps;
+	private int voidRegister;
+
+    private Compiler(String name, int frameSize)
+	{
+		this.name = name;
+		code = new int[64];
+		length = 0;
+		constants = new ArrayList<Expression>();
+		values = new ArrayList<Value>();
+		this.frameSize = frameSize;
+		declared = new boolean[frameSize];
+		functions = new boolean[frameSize];
+		pushed = 0;
+		next = 0;
+		temps = 0;
+		voidRegister = value(VoidValue.VOID);
+	}
+
+    public static Chunk compile(Expression program)
+	{
+		// the program's own scope becomes the chunk's frame
+		if (program instanceof Scope && ((Scope)program).getFrameSize() > 0)
+		{
+			Scope scope = (Scope)program;
+			return new Compiler("program", scope.getFrameSize()).body(scope.getExpression());
+		}
+		return new Compiler("program", 0).body(program);
+	}
+
+    public static Chunk compile(Function function)
+	{
+		// the VM only runs a chunk with every parameter passed
+		Compiler compiler = new Compiler("function", function.getFrameSize());
+		for (int i = 0; i < function.getParamList().size() && i < function.getFrameSize(); i++)
+		{
+			compiler.declared[i] = true;
+		}
+		return compiler.body(function.getBody());
+	}
+
+    private Chunk body(Expression exp)
+	{
+		findFunctions(exp);
+		statement(exp);
+		// falling off the end gives back void
+		emit(Opcode.RETURN, voidRegister);
+
+		// now lay the registers out: variables, constants, temporaries
+		int[] trimmed = new int[length];
+		int pc = 0;
+		while (pc < length)
+		{
+			String kinds = Opcode.KINDS[code[pc]];
+			trimmed[pc] = code[pc];
+			for (int i = 0; i < kinds.length(); i++)
+			{
+				int operand = code[pc + 1 + i];
+				if (kinds.charAt(i) == 'r' && operand >= TEMP)
+				{
+					operand = frameSize + values.size() + (operand - TEMP);
+				}
+				else if (kinds.charAt(i) == 'r' && operand >= VALUE)
+				{
+					operand = frameSize + (operand - VALUE);
+				}
+				trimmed[pc + 1 + i] = operand;
+			}
+			pc += kinds.length() + 1;
+		}
+		return new Chunk(name, trimmed, constants.toArray(new Expression[constants.size()]),
+				values.toArray(new Value[values.size()]), frameSize,
+				frameSize + values.size() + temps);
+	}
+
+    private void statement(Expression exp)
+	{
+		// compile exp for what it does, its value is thrown away
+		int mark = next;
+		if (exp instanceof Scope)
+		{
+			Scope scope = (Scope)exp;
+			if (scope.getFrameSize() > 0)
+			{
+				emit(Opcode.PUSHFRAME, scope.getFrameSize());
+				pushed++;
+				statement(scope.getExpression());
+				pushed--;
+				emit(Opcode.POPFRAME);
+			}
+			else
+			{
+				statement(scope.getExpression());
+			}
+		}
+		else if (exp instanceof Sequence && !bindsByName((Sequence)exp))
+		{
+			for (Expression expression : ((Sequence)exp).getExpressions())
+			{
+				statement(expression);
+			}
+		}
+		else if (exp instanceof OpIfElse)
+		{
+			// whatever a branch declares might not have happened afterwards
+			OpIfElse ifElse = (OpIfElse)exp;
+			boolean[] before = declared.clone();
+			int skipFirst = jumpUnless(ifElse.getTest());
+			next = mark;
+			statement(ifElse.getFirst());
+			declared = before.clone();
+			if (ifElse.getSecond() != null)
+			{
+				int skipSecond = jump(Opcode.JUMP, -1);
+				patch(skipFirst);
+				statement(ifElse.getSecond());
+				declared = before;
+				patch(skipSecond);
+			}
+			else
+			{
+				patch(skipFirst);
+			}
+		}
+		else if (exp instanceof OpWhile)
+		{
+			OpWhile loop = (OpWhile)exp;
+			boolean[] before = declared.clone();
+			int top = length;
+			int exit = jumpUnless(loop.getTest());
+			next = mark;
+			statement(loop.getBody());
+			emit(Opcode.JUMP, top);
+			patch(exit);
+			declared = before;
+		}
+		else if (exp instanceof Return)
+		{
+			Expression value = ((Return)exp).getExp();
+			if (value instanceof OpFunctionCall && ((OpFunctionCall)value).isTailCall())
+			{
+				call((OpFunctionCall)value, 0, Opcode.TAILCALL);
+			}
+			else
+			{
+				emit(Opcode.RETURN, operand(value));
+			}
+		}
+		else if (exp instanceof Print)
+		{
+			emit(Opcode.PRINT, operand(((Print)exp).getValue()));
+		}
+		else if (exp instanceof OpVarDecl && ((OpVarDecl)exp).getFrameNum() >= 0)
+		{
+			declare(exp, ((OpVarDecl)exp).getFrameNum(), voidRegister);
+		}
+		else if (exp instanceof OpFuncDecl && ((OpFuncDecl)exp).getFrameNum() >= 0)
+		{
+			OpFuncDecl decl = (OpFuncDecl)exp;
+			declare(decl, decl.getFrameNum(), value(decl.getFunction()));
+		}
+		else if (!(exp instanceof OpAssign && assign((OpAssign)exp, -1)))
+		{
+			expression(exp);
+		}
+		next = mark;
+	}
+
+    private int operand(Expression exp)
+	{
+		// a register already holding exp's value if there is one, otherwise
+		// a fresh one it gets computed into
+		if (exp instanceof IdValue && isRegister((IdValue)exp))
+		{
+			return ((IdValue)exp).getFrameNum();
+		}
+		if (isLiteral(exp))
+		{
+			return value((Value)exp);
+		}
+		return expression(exp);
+	}
+
+    private int expression(Expression exp)
+	{
+		int r = allocate();
+		into(exp, r);
+		return r;
+	}
+
+    private void into(Expression exp, int dst)
+	{
+		// compile exp so its value ends up in register dst
+		int mark = next;
+		if (exp instanceof IdValue)
+		{
+			IdValue id = (IdValue)exp;
+			if (isRegister(id))
+			{
+				emit(Opcode.MOVE, dst, id.getFrameNum());
+			}
+			else if (isLocal(id))
+			{
+				emit(Opcode.GETLOCAL, dst, id.getFrameNum(), constant(id));
+			}
+			else
+			{
+				emit(Opcode.GETVAR, dst, constant(id));
+			}
+		}
+		else if (isLiteral(exp))
+		{
+			emit(Opcode.MOVE, dst, value((Value)exp));
+		}
+		else if (exp instanceof ClosureValue)
+		{
+			emit(Opcode.CLOSURE, dst, constant(exp));
+		}
+		else if (exp instanceof Hoisted)
+		{
+			// registers already make the loop's invariants cheap, and the
+			// loop's pre-header never runs here
+			into(((Hoisted)exp).getExpression(), dst);
+		}
+		else if (exp instanceof OpAdd)
+		{
+			binary(Opcode.ADD, dst, ((OpAdd)exp).getOne(), ((OpAdd)exp).getTwo());
+		}
+		else if (exp instanceof OpSub)
+		{
+			binary(Opcode.SUB, dst, ((OpSub)exp).getOne(), ((OpSub)exp).getTwo());
+		}
+		else if (exp instanceof OpMult)
+		{
+			binary(Opcode.MUL, dst, ((OpMult)exp).getOne(), ((OpMult)exp).getTwo());
+		}
+		else if (exp instanceof OpDivide)
+		{
+			binary(Opcode.DIV, dst, ((OpDivide)exp).getOne(), ((OpDivide)exp).getTwo());
+		}
+		else if (exp instanceof OpLessThan)
+		{
+			binary(Opcode.LT, dst, ((OpLessThan)exp).getOne(), ((OpLessThan)exp).getTwo());
+		}
+		else if (exp instanceof OpGreaterThan)
+		{
+			binary(Opcode.GT, dst, ((OpGreaterThan)exp).getOne(), ((OpGreaterThan)exp).getTwo());
+		}
+		else if (exp instanceof OpLTE)
+		{
+			binary(Opcode.LTE, dst, ((OpLTE)exp).getOne(), ((OpLTE)exp).getTwo());
+		}
+		else if (exp instanceof OpGTE)
+		{
+			binary(Opcode.GTE, dst, ((OpGTE)exp).getOne(), ((OpGTE)exp).getTwo());
+		}
+		else if (exp instanceof OpEquals)
+		{
+			binary(Opcode.EQ, dst, ((OpEquals)exp).getLeft(), ((OpEquals)exp).getRight());
+		}
+		else if (exp instanceof And)
+		{
+			shortCircuit(Opcode.AND, dst, ((And)exp).getOne(), ((And)exp).getTwo());
+		}
+		else if (exp instanceof Or)
+		{
+			shortCircuit(Opcode.OR, dst, ((Or)exp).getOne(), ((Or)exp).getTwo());
+		}
+		else if (exp instanceof Not)
+		{
+			emit(Opcode.NOT, dst, operand(((Not)exp).getOne()));
+		}
+		else if (exp instanceof OpFunctionCall)
+		{
+			call((OpFunctionCall)exp, dst, Opcode.CALL);
+		}
+		else if (exp instanceof OpAssign && assign((OpAssign)exp, dst))
+		{
+			// assign has left the value in dst
+		}
+		else if (exp instanceof Scope || exp instanceof OpIfElse || exp instanceof OpWhile
+				|| exp instanceof Print || exp instanceof Return
+				|| (exp instanceof Sequence && !bindsByName((Sequence)exp)))
+		{
+			// statements all come out as void
+			statement(exp);
+			emit(Opcode.MOVE, dst, voidRegister);
+		}
+		else
+		{
+			emit(Opcode.EVAL, dst, constant(exp));
+		}
+		next = mark;
+	}
+
+    private void binary(int op, int dst, Expression one, Expression two)
+	{
+		int[] operands = operands(one, two);
+		emit(op, dst, operands[0], operands[1]);
+	}
+
+    private void shortCircuit(int op, int dst, Expression one, Expression two)
+	{
+		// two only runs when one doesn't settle it, and op then checks both
+		// are booleans as it combines them. Otherwise the answer is one
+		int left = isPure(two) ? operand(one) : expression(one);
+		int onFalse = jump(Opcode.JUMPF, left);
+		if (op == Opcode.AND)
+		{
+			emit(op, dst, left, operand(two));
+		}
+		else
+		{
+			emit(Opcode.MOVE, dst, left);
+		}
+		int done = jump(Opcode.JUMP, -1);
+		patch(onFalse);
+		if (op == Opcode.AND)
+		{
+			emit(Opcode.MOVE, dst, left);
+		}
+		else
+		{
+			emit(op, dst, left, operand(two));
+		}
+		patch(done);
+	}
+
+    private int[] operands(Expression one, Expression two)
+	{
+		// the left side can only be read in place if working out the right
+		// can't change it first
+		int left = isPure(two) ? operand(one) : expression(one);
+		int right = operand(two);
+		return new int[] { left, right };
+	}
+
+    private void call(OpFunctionCall call, int dst, int op)
+	{
+		// the arguments go in consecutive registers above everything live
+		int base = TEMP + next;
+		for (Expression arg : call.getArgs())
+		{
+			into(arg, allocate());
+		}
+		emit(op, dst, constant(call), base, call.getArgs().size());
+	}
+
+    private boolean assign(OpAssign assign, int dst)
+	{
+		// dst is where the assignment's own value goes, or -1 for nowhere
+		Expression left = assign.getLVal();
+		if (left instanceof OpVarDecl && ((OpVarDecl)left).getFrameNum() >= 0)
+		{
+			// declared void first, so the right hand side sees it in scope
+			OpVarDecl decl = (OpVarDecl)left;
+			declare(decl, decl.getFrameNum(), voidRegister);
+			IdValue ref = new IdValue(decl.getName());
+			ref.setFrameCnt(0);
+			ref.setFrameNum(decl.getFrameNum());
+			store(ref, assign.getRVal(), dst);
+			return true;
+		}
+		if (left instanceof IdValue)
+		{
+			store((IdValue)left, assign.getRVal(), dst);
+			return true;
+		}
+		// fields and the like stay with the tree walker
+		return false;
+	}
+
+    private void store(IdValue id, Expression value, int dst)
+	{
+		if (isRegister(id))
+		{
+			into(value, id.getFrameNum());
+			if (dst >= 0)
+			{
+				emit(Opcode.MOVE, dst, id.getFrameNum());
+			}
+			return;
+		}
+		int r = (dst >= 0) ? dst : allocate();
+		into(value, r);
+		if (isLocal(id))
+		{
+			emit(Opcode.SETLOCAL, r, id.getFrameNum(), constant(id));
+		}
+		else
+		{
+			emit(Opcode.SETVAR, r, constant(id));
+		}
+	}
+
+    private void declare(Expression decl, int slot, int value)
+	{
+		if (pushed == 0)
+		{
+			emit(Opcode.MOVE, slot, value);
+			declared[slot] = true;
+		}
+		else
+		{
+			// it goes in a frame the scope pushed, not ours
+			emit(Opcode.DECL, slot, value, constant(decl));
+		}
+	}
+
+    private boolean isLocal(IdValue id)
+	{
+		// lives in the chunk's own frame
+		return id.getFrameCnt() == pushed && id.getFrameNum() >= 0 && id.getFrameNum() < frameSize;
+	}
+
+    private boolean isRegister(IdValue id)
+	{
+		// and is certain to hold a plain value, functions turn into closures
+		// when they are read
+		return isLocal(id) && declared[id.getFrameNum()] && !functions[id.getFrameNum()];
+	}
+
+    private boolean isLiteral(Expression exp)
+	{
+		// these evaluate to themselves. Strings and objects can be given
+		// fields, so they're evaluated afresh each time instead of sitting
+		// in a register every activation shares
+		return exp instanceof IntValue || exp instanceof FloatValue
+				|| exp instanceof BoolValue || exp instanceof VoidValue;
+	}
+
+    private boolean isPure(Expression exp)
+	{
+		// can't assign to anything while it's worked out
+		if (exp instanceof IdValue || isLiteral(exp) || exp instanceof StringValue)
+		{
+			return true;
+		}
+		if (exp instanceof Hoisted)
+		{
+			return isPure(((Hoisted)exp).getExpression());
+		}
+		if (exp instanceof OpAdd || exp instanceof OpSub || exp instanceof OpMult
+				|| exp instanceof OpDivide || exp instanceof OpLessThan
+				|| exp instanceof OpGreaterThan || exp instanceof OpLTE || exp instanceof OpGTE
+				|| exp instanceof OpEquals || exp instanceof And || exp instanceof Or
+				|| exp instanceof Not)
+		{
+			for (Expression child : StaticPass.children(exp))
+			{
+				if (!isPure(child))
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+    private boolean bindsByName(Sequence sequence)
+	{
+		// names the static pass couldn't give a slot are bound on the dynamic
+		// environment, which the tree walker unwinds at the end of the
+		// sequence, so leave the whole sequence to it
+		for (Expression exp : sequence.getExpressions())
+		{
+			if (exp instanceof OpAssign)
+			{
+				exp = ((OpAssign)exp).getLVal();
+			}
+			if ((exp instanceof OpVarDecl && ((OpVarDecl)exp).getFrameNum() < 0)
+					|| (exp instanceof OpFuncDecl && ((OpFuncDecl)exp).getFrameNum() < 0))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+    private void findFunctions(Expression exp)
+	{
+		// the slots of our frame a function gets declared into
+		if (exp instanceof OpFuncDecl)
+		{
+			int slot = ((OpFuncDecl)exp).getFrameNum();
+			if (slot >= 0 && slot < frameSize)
+			{
+				functions[slot] = true;
+			}
+			return;
+		}
+		if (exp instanceof ClosureValue || exp instanceof Function
+				|| (exp instanceof Scope && ((Scope)exp).getFrameSize() > 0))
+		{
+			return;
+		}
+		for (Expression child : StaticPass.children(exp))
+		{
+			findFunctions(child);
+		}
+	}
+
+    private int allocate()
+	{
+		int r = TEMP + next++;
+		temps = Math.max(temps, next);
+		return r;
+	}
+
+    private int constant(Expression exp)
+	{
+		constants.add(exp);
+		return constants.size() - 1;
+	}
+
+    private int value(Value val)
+	{
+		values.add(val);
+		return VALUE + values.size() - 1;
+	}
+
+    private int jumpUnless(Expression test)
+	{
+		// a comparison gets tested and branched on in one instruction
+		int[] operands;
+		int op;
+		if (test instanceof OpLessThan)
+		{
+			operands = operands(((OpLessThan)test).getOne(), ((OpLessThan)test).getTwo());
+			op = Opcode.JNLT;
+		}
+		else if (test instanceof OpGreaterThan)
+		{
+			operands = operands(((OpGreaterThan)test).getOne(), ((OpGreaterThan)test).getTwo());
+			op = Opcode.JNGT;
+		}
+		else if (test instanceof OpLTE)
+		{
+			operands = operands(((OpLTE)test).getOne(), ((OpLTE)test).getTwo());
+			op = Opcode.JNLTE;
+		}
+		else if (test instanceof OpGTE)
+		{
+			operands = operands(((OpGTE)test).getOne(), ((OpGTE)test).getTwo());
+			op = Opcode.JNGTE;
+		}
+		else
+		{
+			return jump(Opcode.JUMPF, operand(test));
+		}
+		emit(op, operands[0], operands[1], -1);
+		return length - 1;
+	}
+
+    private int jump(int op, int test)
+	{
+		// emit a jump whose target gets filled in by patch
+		if (op == Opcode.JUMP)
+		{
+			emit(Opcode.JUMP, -1);
+		}
+		else
+		{
+			emit(op, test, -1);
+		}
+		return length - 1;
+	}
+
+    private void patch(int operand)
+	{
+		code[operand] = length;
+	}
+
+    private void emit(int op, int... operands)
+	{
+		if (length + operands.length + 1 > code.length)
+		{
+			int[] grown = new int[code.length * 2 + operands.length];
+			System.arraycopy(code, 0, grown, 0, length);
+			code = grown;
+		}
+		code[length++] = op;
+		for (int operand : operands)
+		{
+			code[length++] = operand;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package vm;
+
+/**
+ * The instruction set. Each instruction is its opcode followed by a fixed
+ * set of int operands, spelled out in KINDS: r a register, s a slot in the
+ * current frame, k an index into the constant pool, j a jump target and n a
+ * count. Registers are slots of the frame the chunk runs in, the function's
+ * own variables first, then its constants, then scratch.
+ */
+public class Opcode {
+	// r[a] = r[b]
+	public static final int MOVE = 0;
+	// r[a] = variable in slot b, or whatever the id k[c] names if that isn't
+	// a plain value yet
+	public static final int GETLOCAL = 1;
+	// r[a] = whatever the id k[b] names, wherever it lives
+	public static final int GETVAR = 2;
+	// variable in slot b = r[a], through the id k[c] if it isn't declared yet
+	public static final int SETLOCAL = 3;
+	// the binding the id k[b] names = r[a]
+	public static final int SETVAR = 4;
+	// slot a of the current frame = r[b], k[c] is the declaration to fall
+	// back on when the frame is too small to hold it
+	public static final int DECL = 5;
+	// r[a] = r[b] op r[c]
+	public static final int ADD = 6;
+	public static final int SUB = 7;
+	public static final int MUL = 8;
+	public static final int DIV = 9;
+	public static final int LT = 10;
+	public static final int GT = 11;
+	public static final int LTE = 12;
+	public static final int GTE = 13;
+	public static final int EQ = 14;
+	public static final int AND = 15;
+	public static final int OR = 16;
+	// r[a] = !r[b]
+	public static final int NOT = 17;
+	// pc = a
+	public static final int JUMP = 18;
+	// pc = b unless r[a] is true
+	public static final int JUMPF = 19;
+	// print r[a]
+	public static final int PRINT = 20;
+	// r[a] = the closure literal k[b] closed over the current frame
+	public static final int CLOSURE = 21;
+	// r[a] = call through the OpFunctionCall k[b] with r[c] .. r[c+d-1]
+	public static final int CALL = 22;
+	// as CALL, but the call replaces this one and a goes unused
+	public static final int TAILCALL = 23;
+	// return r[a]
+	public static final int RETURN = 24;
+	// push a new frame of a slots
+	public static final int PUSHFRAME = 25;
+	public static final int POPFRAME = 26;
+	// r[a] = k[b] run by the tree walker, for anything not worth an opcode
+	public static final int EVAL = 27;
+	// pc = c unless r[a] op r[b], a comparison and the branch on it in one
+	public static final int JNLT = 28;
+	public static final int JNGT = 29;
+	public static final int JNLTE = 30;
+	public static final int JNGTE = 31;
+
+	public static final String[] NAMES = {
+		"MOVE", "GETLOCAL", "GETVAR", "SETLOCAL", "SETVAR", "DECL",
+		"ADD", "SUB", "MUL", "DIV", "LT", "GT", "LTE", "GTE", "EQ", "AND", "OR",
+		"NOT", "JUMP", "JUMPF", "PRINT", "CLOSURE", "CALL", "TAILCALL", "RETURN",
+		"PUSHFRAME", "POPFRAME", "EVAL", "JNLT", "JNGT", "JNLTE", "JNGTE"
+	};
+
+	public static final String[] KINDS = {
+		"rr", "rsk", "rk", "rsk", "rk", "srk",
+		"rrr", "rrr", "rrr", "rrr", "rrr", "rrr", "rrr", "rrr", "rrr", "rrr", "rrr",
+		"rr", "j", "rj", "r", "rk", "rkrn", "rkrn", "r",
+		"n", "", "rk", "rrj", "rrj", "rrj", "rrj"
+	};
+}
@@ -0,0 +1,447 @@
+package vm;
+
+import Interpreter.Environment;
+import Interpreter.Frame;
+import Interpreter.ReturnException;
+import Interpreter.TypeException;
+import Interpreter.UnboundIdentifierException;
+import expression.*;
+import value.BoolValue;
+import value.ClosureValue;
+import value.Function;
+import value.IdValue;
+import value.IntValue;
+import value.Value;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs compiled chunks. One Java call of execute per Footle call, apart from
+ * tail calls, which reuse the loop they were made from. Function bodies get
+ * compiled the first time they're called and kept for the next.
+ */
+public class VM {
+	private Map<Function, Chunk> chunks;
+
+    public VM()
+	{
+		chunks = new IdentityHashMap<Function, Chunk>();
+	}
+
+    public Value run(Expression program)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		return run(Compiler.compile(program));
+	}
+
+    public Value run(Chunk program)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		// a program compiled already, run in a frame of its own
+		return execute(program, activate(program, new Frame(0, null), null));
+	}
+
+    public Chunk chunkFor(Function function)
+	{
+		Chunk chunk = chunks.get(function);
+		if (chunk == null)
+		{
+			chunk = Compiler.compile(function);
+			chunks.put(function, chunk);
+		}
+		return chunk;
+	}
+
+    public static Frame activate(Chunk chunk, Frame definition, Environment dynamic)
+	{
+		// a frame laid out the way the chunk wants it, constants in place
+		Frame frame = new Frame(chunk.getSize(), definition, dynamic);
+		Value[] values = chunk.getValues();
+		System.arraycopy(values, 0, frame.getSlots(), chunk.getFrameSize(), values.length);
+		return frame;
+	}
+
+    public Value execute(Chunk chunk, Frame frame)
+			throws ReturnException, TypeException, UnboundIdentifierException
+	{
+		int[] code = chunk.getCode();
+		Expression[] constants = chunk.getConstants();
+		Value[] r = frame.getSlots();
+		// frame is the chunk's own, current is whichever scope we are in
+		Frame current = frame;
+		int pc = 0;
+		while (true)
+		{
+			switch (code[pc])
+			{
+			case Opcode.MOVE:
+				r[code[pc + 1]] = r[code[pc + 2]];
+				pc += 3;
+				break;
+			case Opcode.GETLOCAL:
+			{
+				Value val = r[code[pc + 2]];
+				if (val == null || val instanceof Function)
+				{
+					// not bound yet, or a function that has to become a closure
+					val = current.resolve((IdValue)constants[code[pc + 3]]);
+				}
+				r[code[pc + 1]] = val;
+				pc += 4;
+				break;
+			}
+			case Opcode.GETVAR:
+				r[code[pc + 1]] = current.resolve((IdValue)constants[code[pc + 2]]);
+				pc += 3;
+				break;
+			case Opcode.SETLOCAL:
+				if (r[code[pc + 2]] != null)
+				{
+					r[code[pc + 2]] = r[code[pc + 1]];
+				}
+				else if (!current.assign((IdValue)constants[code[pc + 3]], r[code[pc + 1]]))
+				{
+					throw new UnboundIdentifierException();
+				}
+				pc += 4;
+				break;
+			case Opcode.SETVAR:
+				if (!current.assign((IdValue)constants[code[pc + 2]], r[code[pc + 1]]))
+				{
+					throw new UnboundIdentifierException();
+				}
+				pc += 3;
+				break;
+			case Opcode.DECL:
+				if (code[pc + 1] < current.size())
+				{
+					current.set(code[pc + 1], r[code[pc + 2]]);
+				}
+				else
+				{
+					constants[code[pc + 3]].evaluate(current);
+				}
+				pc += 4;
+				break;
+			case Opcode.ADD:
+			{
+				Value left = r[code[pc + 2]];
+				Value right = r[code[pc + 3]];
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					r[code[pc + 1]] = IntValue.valueOf(((IntValue)left).getInternalValue()
+							+ ((IntValue)right).getInternalValue());
+				}
+				else
+				{
+					r[code[pc + 1]] = OpAdd.generic(left, right);
+				}
+				pc += 4;
+				break;
+			}
+			case Opcode.SUB:
+			{
+				Value left = r[code[pc + 2]];
+				Value right = r[code[pc + 3]];
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					r[code[pc + 1]] = IntValue.valueOf(((IntValue)left).getInternalValue()
+							- ((IntValue)right).getInternalValue());
+				}
+				else
+				{
+					r[code[pc + 1]] = OpSub.generic(left, right);
+				}
+				pc += 4;
+				break;
+			}
+			case Opcode.MUL:
+			{
+				Value left = r[code[pc + 2]];
+				Value right = r[code[pc + 3]];
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					r[code[pc + 1]] = IntValue.valueOf(((IntValue)left).getInternalValue()
+							* ((IntValue)right).getInternalValue());
+				}
+				else
+				{
+					r[code[pc + 1]] = OpMult.generic(left, right);
+				}
+				pc += 4;
+				break;
+			}
+			case Opcode.DIV:
+				r[code[pc + 1]] = OpDivide.generic(r[code[pc + 2]], r[code[pc + 3]]);
+				pc += 4;
+				break;
+			case Opcode.LT:
+			{
+				Value left = r[code[pc + 2]];
+				Value right = r[code[pc + 3]];
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					r[code[pc + 1]] = BoolValue.valueOf(((IntValue)left).getInternalValue()
+							< ((IntValue)right).getInternalValue());
+				}
+				else
+				{
+					r[code[pc + 1]] = OpLessThan.generic(left, right);
+				}
+				pc += 4;
+				break;
+			}
+			case Opcode.GT:
+			{
+				Value left = r[code[pc + 2]];
+				Value right = r[code[pc + 3]];
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					r[code[pc + 1]] = BoolValue.valueOf(((IntValue)left).getInternalValue()
+							> ((IntValue)right).getInternalValue());
+				}
+				else
+				{
+					r[code[pc + 1]] = OpGreaterThan.generic(left, right);
+				}
+				pc += 4;
+				break;
+			}
+			case Opcode.LTE:
+			{
+				Value left = r[code[pc + 2]];
+				Value right = r[code[pc + 3]];
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					r[code[pc + 1]] = BoolValue.valueOf(((IntValue)left).getInternalValue()
+							<= ((IntValue)right).getInternalValue());
+				}
+				else
+				{
+					r[code[pc + 1]] = OpLTE.generic(left, right);
+				}
+				pc += 4;
+				break;
+			}
+			case Opcode.GTE:
+			{
+				Value left = r[code[pc + 2]];
+				Value right = r[code[pc + 3]];
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					r[code[pc + 1]] = BoolValue.valueOf(((IntValue)left).getInternalValue()
+							>= ((IntValue)right).getInternalValue());
+				}
+				else
+				{
+					r[code[pc + 1]] = OpGTE.generic(left, right);
+				}
+				pc += 4;
+				break;
+			}
+			case Opcode.EQ:
+				r[code[pc + 1]] = OpEquals.equal(r[code[pc + 2]], r[code[pc + 3]]);
+				pc += 4;
+				break;
+			case Opcode.AND:
+				r[code[pc + 1]] = BoolValue.valueOf(bool(r[code[pc + 2]]) & bool(r[code[pc + 3]]));
+				pc += 4;
+				break;
+			case Opcode.OR:
+				r[code[pc + 1]] = BoolValue.valueOf(bool(r[code[pc + 2]]) | bool(r[code[pc + 3]]));
+				pc += 4;
+				break;
+			case Opcode.NOT:
+				r[code[pc + 1]] = BoolValue.valueOf(!bool(r[code[pc + 2]]));
+				pc += 3;
+				break;
+			case Opcode.JUMP:
+				pc = code[pc + 1];
+				break;
+			case Opcode.JUMPF:
+				pc = bool(r[code[pc + 1]]) ? pc + 3 : code[pc + 2];
+				break;
+			case Opcode.JNLT:
+			{
+				Value left = r[code[pc + 1]];
+				Value right = r[code[pc + 2]];
+				boolean holds;
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					holds = ((IntValue)left).getInternalValue() < ((IntValue)right).getInternalValue();
+				}
+				else
+				{
+					holds = bool(OpLessThan.generic(left, right));
+				}
+				pc = holds ? pc + 4 : code[pc + 3];
+				break;
+			}
+			case Opcode.JNGT:
+			{
+				Value left = r[code[pc + 1]];
+				Value right = r[code[pc + 2]];
+				boolean holds;
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					holds = ((IntValue)left).getInternalValue() > ((IntValue)right).getInternalValue();
+				}
+				else
+				{
+					holds = bool(OpGreaterThan.generic(left, right));
+				}
+				pc = holds ? pc + 4 : code[pc + 3];
+				break;
+			}
+			case Opcode.JNLTE:
+			{
+				Value left = r[code[pc + 1]];
+				Value right = r[code[pc + 2]];
+				boolean holds;
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					holds = ((IntValue)left).getInternalValue() <= ((IntValue)right).getInternalValue();
+				}
+				else
+				{
+					holds = bool(OpLTE.generic(left, right));
+				}
+				pc = holds ? pc + 4 : code[pc + 3];
+				break;
+			}
+			case Opcode.JNGTE:
+			{
+				Value left = r[code[pc + 1]];
+				Value right = r[code[pc + 2]];
+				boolean holds;
+				if (left instanceof IntValue && right instanceof IntValue)
+				{
+					holds = ((IntValue)left).getInternalValue() >= ((IntValue)right).getInternalValue();
+				}
+				else
+				{
+					holds = bool(OpGTE.generic(left, right));
+				}
+				pc = holds ? pc + 4 : code[pc + 3];
+				break;
+			}
+			case Opcode.PRINT:
+				Print.print(r[code[pc + 1]]);
+				pc += 2;
+				break;
+			case Opcode.CLOSURE:
+				r[code[pc + 1]] = constants[code[pc + 2]].evaluate(current);
+				pc += 3;
+				break;
+			case Opcode.CALL:
+			case Opcode.TAILCALL:
+			{
+				// find the callee the same way OpFunctionCall does, through
+				// the same cache
+				OpFunctionCall call = (OpFunctionCall)constants[code[pc + 2]];
+				CallSiteCache cache = call.getCache();
+				Frame home = cache.home(call.getName(), current);
+				Value callee = cache.callee(call.getName(), current, home);
+				if (callee == null)
+				{
+					throw new TypeException();
+				}
+				Function function = cache.target(callee);
+				Frame definition;
+				Environment dynamic;
+				if (callee instanceof ClosureValue)
+				{
+					definition = ((ClosureValue)callee).getFrame();
+					dynamic = ((ClosureValue)callee).getEnvironment();
+				}
+				else
+				{
+					definition = (home != null) ? home : current;
+					dynamic = current.getDynamic();
+				}
+				int base = code[pc + 3];
+				int count = code[pc + 4];
+				if (count != function.getParamList().size() || count > function.getFrameSize())
+				{
+					// too few or too many arguments, or never analyzed: the
+					// tree walker knows what to make of those
+					Value val = function.evaluate(function.newActivation(definition, dynamic,
+							arguments(r, base, count)));
+					if (code[pc] == Opcode.TAILCALL)
+					{
+						return val;
+					}
+					r[code[pc + 1]] = val;
+					pc += 5;
+					break;
+				}
+				Chunk target = chunkFor(function);
+				Frame activation = activate(target, definition, dynamic);
+				System.arraycopy(r, base, activation.getSlots(), 0, count);
+				if (code[pc] == Opcode.TAILCALL)
+				{
+					// carry on in the callee instead of calling it
+					code = target.getCode();
+					constants = target.getConstants();
+					current = activation;
+					r = activation.getSlots();
+					pc = 0;
+				}
+				else
+				{
+					r[code[pc + 1]] = execute(target, activation);
+					pc += 5;
+				}
+				break;
+			}
+			case Opcode.RETURN:
+				return r[code[pc + 1]];
+			case Opcode.PUSHFRAME:
+				current = new Frame(code[pc + 1], current, current.getDynamic());
+				pc += 2;
+				break;
+			case Opcode.POPFRAME:
+				current = current.getParent();
+				pc += 1;
+				break;
+			case Opcode.EVAL:
+				r[code[pc + 1]] = constants[code[pc + 2]].evaluate(current);
+				// only a whole sequence handed over can have returned
+				if (current.getTailFunction() != null)
+				{
+					return current.getTailFunction().evaluate(current.getTailFrame());
+				}
+				if (current.isReturning())
+				{
+					return current.getReturned();
+				}
+				pc += 3;
+				break;
+			default:
+				throw new IllegalStateException("bad opcode " + code[pc] + " at " + pc);
+			}
+		}
+	}
+
+    private static List<Value> arguments(Value[] r, int base, int count)
+	{
+		List<Value> args = new ArrayList<Value>(count);
+		for (int i = 0; i < count; i++)
+		{
+			args.add(r[base + i]);
+		}
+		return args;
+	}
+
+    private static boolean bool(Value val) throws TypeException
+	{
+		if (!(val instanceof BoolValue))
+		{
+			throw new TypeException();
+		}
+		return ((BoolValue)val).getInternalValue();
+	}
+}